@@ -0,0 +1,275 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Saves a game in the background after every move, so that it can be carried on with SavedGame.load()
+ * if the program is closed or stops unexpectedly.
+ *
+ * The thread making the moves - usually the GUI's - is told which spaces each move changed, as a
+ * GameListener, and only hands their new values to a background writer thread; it never waits for the
+ * disk. The writer appends them to the save file's journal, and once the journal has grown to about half
+ * the size of the save file, writes a fresh save file and starts a new journal. To do that without
+ * touching the minefield, which the other thread may be changing, the writer keeps its own copy of the
+ * packed spaces, brought up to date with each move. So saving after a move costs time in proportion to
+ * the spaces it changed, not to the size of the minefield.
+ *
+ * If the writer cannot write to the disk it gives up, and getFailure() says why; the game goes on.
+ *
+ * @author  Nicholas Parks Young
+ * @version 2026-10-16
+ */
+public class AutoSave implements GameListener
+{
+    //The journal is never started afresh while it is smaller than this, however small the minefield.
+    private static final long MIN_JOURNAL_SIZE = 1 << 16;
+    
+    private final GameLogic game;
+    private final Minefield field;
+    private final Path file;
+    private final ExecutorService writer;
+    
+    //Used by the writer thread only.
+    private final byte[] copy;
+    private final long maxJournalSize;
+    private FileChannel journal;
+    private long journalSize;
+    private long generation;
+    private final CRC32 crc;
+    private volatile UncheckedIOException failure;
+    
+    /**
+     * Constructor for objects of type AutoSave, which saves the game straight away and then after every
+     * move, until close() is called.
+     *
+     * @param game The game to save, which must not be saved by another AutoSave
+     * @param file The file to save it to
+     */
+    public AutoSave(GameLogic game, Path file)
+    {
+        if (game == null) {
+            throw new IllegalArgumentException("game must not be null");
+        }
+        if (file == null) {
+            throw new IllegalArgumentException("file must not be null");
+        }
+        this.game = game;
+        this.file = file;
+        field = game.getMinefield();
+        copy = new byte[field.getSize()];
+        field.getPackedSpaces().get(copy);
+        maxJournalSize = Math.max(MIN_JOURNAL_SIZE, copy.length / 2);
+        crc = new CRC32();
+        //A daemon thread, so that it does not keep the program running - close() waits for it instead.
+        writer = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "AutoSave");
+                thread.setDaemon(true);
+                return thread;
+            }});
+        
+        final int flags = SavedGame.flagsOf(game);
+        final long playMillis = game.getPlayMillis();
+        writer.execute(new Runnable() {
+            @Override
+            public void run() {
+                startJournal(flags, playMillis);
+            }});
+        game.addGameListener(this);
+    }
+    
+    /**
+     * Hands the spaces changed by the move just made over to the writer thread. Called by the game, on
+     * the thread making the move, once the move is over. A move which wins or loses the game always
+     * changes some spaces, so the state of the game is saved along with them.
+     *
+     * @param game The game
+     * @param changed The index of each space which changed
+     * @param qtyChanged How many of the indices are in use
+     */
+    @Override
+    public void spacesChanged(GameLogic game, int[] changed, int qtyChanged)
+    {
+        final int[] indices = Arrays.copyOf(changed, qtyChanged);
+        final byte[] values = new byte[qtyChanged];
+        for (int i = 0; i < qtyChanged; i++) {
+            values[i] = (byte)field.getPacked(indices[i]);
+        }
+        
+        final int batchFlags = SavedGame.flagsOf(game);
+        final long playMillis = game.getPlayMillis();
+        writer.execute(new Runnable() {
+            @Override
+            public void run() {
+                writeMove(indices, values, batchFlags, playMillis);
+            }});
+    }
+    
+    //The counters and the state of the game need nothing more: they are saved along with the spaces.
+    
+    @Override
+    public void countersChanged(GameLogic game)
+    {
+    }
+    
+    @Override
+    public void gameWon(GameLogic game)
+    {
+    }
+    
+    @Override
+    public void gameLost(GameLogic game)
+    {
+    }
+    
+    /**
+     * Writes a fresh save file from the copy of the spaces, and starts a new journal to go with it.
+     * Called on the writer thread.
+     *
+     * @param flags SavedGame.IN_PROGRESS and SavedGame.WON, as appropriate
+     * @param playMillis How long the game has been played for, in milliseconds
+     */
+    private void startJournal(int flags, long playMillis)
+    {
+        if (failure != null) {
+            return;
+        }
+        try {
+            //A new generation, so that if the program stops before the journal is started afresh, the
+            //old journal is not applied to the new save file.
+            generation = (generation == 0) ? ThreadLocalRandom.current().nextLong() : generation + 1;
+            SavedGame.writeSnapshot(file, generation, game.getLevel(), field.getWidth(), field.getHeight(),
+                                    flags, playMillis, ByteBuffer.wrap(copy));
+            if (journal == null) {
+                journal = FileChannel.open(SavedGame.journalFor(file), StandardOpenOption.CREATE,
+                                           StandardOpenOption.WRITE);
+            }
+            journal.truncate(0);
+            journal.position(0);
+            writeFully(SavedGame.journalHeader(generation));
+            journalSize = SavedGame.JOURNAL_HEADER_SIZE;
+        } catch (IOException e) {
+            failure = new UncheckedIOException("could not start journal of " + file, e);
+        } catch (UncheckedIOException e) {
+            failure = e;
+        }
+    }
+    
+    /**
+     * Brings the copy of the spaces up to date with a move, and adds the move to the journal - or if the
+     * journal has grown too big, writes a fresh save file instead. Called on the writer thread.
+     *
+     * @param indices The index of each space the move changed
+     * @param values The new packed byte of each of those spaces
+     * @param flags SavedGame.IN_PROGRESS and SavedGame.WON, as appropriate
+     * @param playMillis How long the game has been played for, in milliseconds
+     */
+    private void writeMove(int[] indices, byte[] values, int flags, long playMillis)
+    {
+        for (int i = 0; i < indices.length; i++) {
+            copy[indices[i]] = values[i];
+        }
+        if (failure != null) {
+            return;
+        }
+        if (journalSize >= maxJournalSize) {
+            startJournal(flags, playMillis);
+            return;
+        }
+        
+        int length = 4 + (indices.length * 5) + 1 + 8;
+        ByteBuffer entry = ByteBuffer.allocate(8 + length);
+        entry.putInt(length).putInt(0).putInt(indices.length);
+        for (int i = 0; i < indices.length; i++) {
+            entry.putInt(indices[i]).put(values[i]);
+        }
+        entry.put((byte)flags).putLong(playMillis);
+        crc.reset();
+        crc.update(entry.array(), 8, length);
+        entry.putInt(4, (int)crc.getValue());
+        entry.flip();
+        try {
+            writeFully(entry);
+            journalSize += entry.limit();
+        } catch (IOException e) {
+            failure = new UncheckedIOException("could not write to journal of " + file, e);
+        }
+    }
+    
+    /**
+     * @param buffer What to write to the end of the journal
+     * @throws IOException if it cannot be written
+     */
+    private void writeFully(ByteBuffer buffer) throws IOException
+    {
+        while (buffer.hasRemaining()) {
+            journal.write(buffer);
+        }
+    }
+    
+    /**
+     * Waits until everything handed to the writer so far has been written.
+     */
+    public void flush()
+    {
+        try {
+            writer.submit(new Runnable() {
+                @Override
+                public void run() {
+                }}).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("autosave writer failed", e.getCause());
+        }
+    }
+    
+    /**
+     * Stops saving the game, once everything handed to the writer so far has been written. The save file
+     * is left behind, to be loaded later.
+     */
+    public void close()
+    {
+        if (writer.isShutdown()) {
+            return;
+        }
+        game.removeGameListener(this);
+        writer.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    if (journal != null) {
+                        journal.close();
+                    }
+                } catch (IOException e) {
+                    failure = new UncheckedIOException("could not close journal of " + file, e);
+                }
+            }});
+        writer.shutdown();
+        try {
+            writer.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * @return Why the game is no longer being saved, or null if nothing has gone wrong
+     */
+    public UncheckedIOException getFailure()
+    {
+        return failure;
+    }
+}
@@ -0,0 +1,225 @@
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A pool of minefields for each preset GameLevel, generated in advance by background threads, so that
+ * starting a new game does not have to wait for a minefield to be generated.
+ *
+ * Each level has a bounded queue of ready minefields and a producer thread which keeps it full. Taking a
+ * minefield from the pool leaves a space in the queue, which the producer refills. If the queue is empty
+ * when a game is wanted - say, several games were started in quick succession - a minefield is generated
+ * there and then instead, exactly as if there were no pool.
+ *
+ * Minefields are pooled rather than whole games, because a game's clock starts when its GameLogic is
+ * created. Custom games are never pooled, as there is no knowing in advance what size they will be.
+ *
+ * @author  Nicholas Parks Young
+ * @version 2026-10-16
+ */
+public class BoardPool
+{
+    private final Map<GameLevel, BlockingQueue<Minefield>> ready;
+    private final Map<GameLevel, Thread> producers;
+    //The generator used for every minefield, or null to hide mines at random in the usual way.
+    private final NoGuessGenerator generator;
+    private final AtomicLong qtyHits, qtyMisses;
+    private final AtomicLong qtyRefills, totalRefillNanos, maxRefillNanos;
+    
+    /**
+     * Constructor for objects of type BoardPool, which hides mines at random in the usual way. The producer
+     * threads start at once.
+     *
+     * @param capacity How many minefields to keep ready for each level
+     */
+    public BoardPool(int capacity)
+    {
+        this(capacity, null);
+    }
+    
+    /**
+     * Constructor for objects of type BoardPool. The producer threads start at once.
+     *
+     * @param capacity How many minefields to keep ready for each level
+     * @param generator The generator to make minefields that need no guessing, or null to hide mines at
+     *                  random in the usual way
+     */
+    public BoardPool(int capacity, NoGuessGenerator generator)
+    {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least one");
+        }
+        this.generator = generator;
+        qtyHits = new AtomicLong();
+        qtyMisses = new AtomicLong();
+        qtyRefills = new AtomicLong();
+        totalRefillNanos = new AtomicLong();
+        maxRefillNanos = new AtomicLong();
+        
+        ready = new EnumMap<GameLevel, BlockingQueue<Minefield>>(GameLevel.class);
+        producers = new EnumMap<GameLevel, Thread>(GameLevel.class);
+        for (final GameLevel level : GameLevel.values()) {
+            if (level.isCustom()) {
+                continue;
+            }
+            final BlockingQueue<Minefield> queue = new ArrayBlockingQueue<Minefield>(capacity);
+            ready.put(level, queue);
+            Thread producer = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    produce(level, queue);
+                }}, "BoardPool-" + level.name());
+            //Daemon threads, so that a pool nobody shut down does not keep the program running, and low
+            //priority, so that they do not get in the way of the game being played.
+            producer.setDaemon(true);
+            producer.setPriority(Thread.MIN_PRIORITY);
+            producers.put(level, producer);
+        }
+        for (Thread producer : producers.values()) {
+            producer.start();
+        }
+    }
+    
+    /**
+     * The work of a producer thread: keeps the queue for one level full until interrupted.
+     *
+     * @param level The level the queue is for
+     * @param queue The queue
+     */
+    private void produce(GameLevel level, BlockingQueue<Minefield> queue)
+    {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                //Generate the next minefield straight away, then wait for room in the queue, so that a
+                //minefield taken from the pool is replaced as soon as possible.
+                long start = System.nanoTime();
+                Minefield field = generate(level);
+                recordRefill(System.nanoTime() - start);
+                queue.put(field);
+            }
+        } catch (InterruptedException e) {
+            //The pool has been shut down.
+        }
+    }
+    
+    /**
+     * Updates the refill latency statistics.
+     *
+     * @param nanos The time taken to generate a minefield for the pool
+     */
+    private void recordRefill(long nanos)
+    {
+        qtyRefills.incrementAndGet();
+        totalRefillNanos.addAndGet(nanos);
+        long max = maxRefillNanos.get();
+        while (nanos > max && !maxRefillNanos.compareAndSet(max, nanos)) {
+            max = maxRefillNanos.get();
+        }
+    }
+    
+    /**
+     * @param level A preset level
+     * @return A new minefield for that level
+     */
+    private Minefield generate(GameLevel level)
+    {
+        if (generator != null) {
+            return generator.generate(level.getFieldWidth(), level.getFieldHeight(), level.getQuantityOfMines());
+        }
+        return new Minefield(level.getFieldWidth(), level.getFieldHeight(), level.getQuantityOfMines());
+    }
+    
+    /**
+     * Creates a game at one of the preset levels, on a minefield from the pool if there is one ready.
+     *
+     * @param level The difficulty level desired for this game
+     * @return The new game
+     * @throws IllegalArgumentException if level is GameLevel.CUSTOM
+     */
+    public GameLogic newGame(GameLevel level)
+    {
+        if (level.isCustom()) {
+            throw new IllegalArgumentException("custom games must be given a width, height and quantity of mines");
+        }
+        Minefield field = ready.get(level).poll();
+        if (field != null) {
+            qtyHits.incrementAndGet();
+        } else {
+            qtyMisses.incrementAndGet();
+            field = generate(level);
+        }
+        GameLogic game = new GameLogic(level, field);
+        if (generator != null) {
+            //The minefield only needs no guessing if the first click is where the generator expects.
+            game.revealAt(NoGuessGenerator.getStartLocation(level.getFieldWidth(), level.getFieldHeight()));
+        }
+        return game;
+    }
+    
+    /**
+     * @param level A preset level
+     * @return How many minefields are ready for that level at the moment
+     */
+    public int getQtyReady(GameLevel level)
+    {
+        BlockingQueue<Minefield> queue = ready.get(level);
+        return (queue == null) ? 0 : queue.size();
+    }
+    
+    /**
+     * @return The fraction of games which started with a minefield from the pool, or NaN if no game has started
+     */
+    public double getHitRate()
+    {
+        long hits = qtyHits.get();
+        long total = hits + qtyMisses.get();
+        return (total == 0) ? Double.NaN : (double)hits / total;
+    }
+    
+    /**
+     * @return How many games started with a minefield from the pool
+     */
+    public long getQtyHits()
+    {
+        return qtyHits.get();
+    }
+    
+    /**
+     * @return How many games had to generate a minefield because the pool was empty
+     */
+    public long getQtyMisses()
+    {
+        return qtyMisses.get();
+    }
+    
+    /**
+     * @return The average time taken to generate a minefield for the pool, in milliseconds, or NaN if none
+     *         has been generated yet
+     */
+    public double getAverageRefillMillis()
+    {
+        long refills = qtyRefills.get();
+        return (refills == 0) ? Double.NaN : totalRefillNanos.get() / 1e6 / refills;
+    }
+    
+    /**
+     * @return The longest time taken to generate a minefield for the pool, in milliseconds
+     */
+    public double getMaxRefillMillis()
+    {
+        return maxRefillNanos.get() / 1e6;
+    }
+    
+    /**
+     * Stops the producer threads. Games can still be created afterwards, but they will use whatever
+     * minefields are left in the pool and then generate their own.
+     */
+    public void shutdown()
+    {
+        for (Thread producer : producers.values()) {
+            producer.interrupt();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * A read-only view of a game's minefield, as the player can see it, for code which reads the whole board
+ * at once - e.g. to draw it, solve it, or send it to a client. Nothing here allocates: spaces are read by
+ * their index, where the index of the space at X,Y is (Y * getWidth()) + X, and the whole board can be
+ * copied into an array or buffer the caller already has.
+ *
+ * Spaces are given as packed bytes, laid out as described in FieldSpace, and decoded with its methods.
+ * Like a Square, a space which is not revealed gives away nothing but its status: its mine bit and
+ * quantity of neighbouring mines are always zero.
+ *
+ * The view reflects later changes to the game, and should only be read by the thread which makes moves.
+ *
+ * @author  Nicholas Parks Young
+ * @version 2026-10-16
+ */
+public class BoardView
+{
+    private final Minefield field;
+    
+    /**
+     * Constructor for objects of type BoardView.
+     *
+     * @param field The minefield to view
+     */
+    protected BoardView(Minefield field)
+    {
+        this.field = field;
+    }
+    
+    /**
+     * @return The width of the minefield
+     */
+    public int getWidth()
+    {
+        return field.getWidth();
+    }
+    
+    /**
+     * @return The height of the minefield
+     */
+    public int getHeight()
+    {
+        return field.getHeight();
+    }
+    
+    /**
+     * @return The quantity of spaces in the minefield
+     */
+    public int getSize()
+    {
+        return field.getSize();
+    }
+    
+    /**
+     * @param x The X-coordinate
+     * @param y The Y-coordinate
+     * @return The index of the space at X,Y
+     * @throws IndexOutOfBoundsException if X,Y is outside of the minefield
+     */
+    public int indexOf(int x, int y)
+    {
+        return field.toIndex(x, y);
+    }
+    
+    /**
+     * @param index The index of a space
+     * @return The packed byte of the space as the player may see it
+     * @throws IndexOutOfBoundsException if the index is outside of the minefield
+     */
+    public int getVisibleAt(int index)
+    {
+        return FieldSpace.visibleOf(field.getPacked(index));
+    }
+    
+    /**
+     * @param index The index of a space
+     * @return The status of the space
+     * @throws IndexOutOfBoundsException if the index is outside of the minefield
+     */
+    public SpaceStatus getStatusAt(int index)
+    {
+        return FieldSpace.statusOf(field.getPacked(index));
+    }
+    
+    /**
+     * @param index The index of a space
+     * @return True if the space has been revealed
+     * @throws IndexOutOfBoundsException if the index is outside of the minefield
+     */
+    public boolean isRevealedAt(int index)
+    {
+        return getStatusAt(index) == SpaceStatus.REVEALED;
+    }
+    
+    /**
+     * @param index The index of a revealed space
+     * @return True if the space is a mine
+     * @throws IllegalStateException if the space is not yet revealed
+     * @throws IndexOutOfBoundsException if the index is outside of the minefield
+     */
+    public boolean isMineAt(int index)
+    {
+        return FieldSpace.mineOf(revealedAt(index));
+    }
+    
+    /**
+     * @param index The index of a revealed space
+     * @return The quantity of mines that neighbour the space
+     * @throws IllegalStateException if the space is not yet revealed
+     * @throws IndexOutOfBoundsException if the index is outside of the minefield
+     */
+    public short getQtyNeighbourMinesAt(int index)
+    {
+        return FieldSpace.qtyNeighbourMinesOf(revealedAt(index));
+    }
+    
+    /**
+     * @param index The index of a space
+     * @return The Square describing the space, which is shared rather than allocated
+     * @throws IndexOutOfBoundsException if the index is outside of the minefield
+     */
+    public Square getSquareAt(int index)
+    {
+        return Square.ofPacked(field.getPacked(index));
+    }
+    
+    /**
+     * @param index The index of a space
+     * @return The packed byte of the space
+     * @throws IllegalStateException if the space is not yet revealed
+     */
+    private int revealedAt(int index)
+    {
+        int packed = field.getPacked(index);
+        if (FieldSpace.statusOf(packed) != SpaceStatus.REVEALED) {
+            throw new IllegalStateException("Squares will never reveal their secrets prematurely!");
+        }
+        return packed;
+    }
+    
+    /**
+     * Copies every space, as getVisibleAt() gives it, into an array, in order of index.
+     *
+     * @param destination The array to copy into
+     * @param offset Where in the array to copy the first space to
+     * @throws IndexOutOfBoundsException if the array does not have room for getSize() spaces after offset
+     */
+    public void exportTo(byte[] destination, int offset)
+    {
+        int size = field.getSize();
+        if (offset < 0 || offset > destination.length - size) {
+            throw new IndexOutOfBoundsException("destination does not have room for " + size + " spaces");
+        }
+        for (int i = 0; i < size; i++) {
+            destination[offset + i] = (byte)FieldSpace.visibleOf(field.getPacked(i));
+        }
+    }
+    
+    /**
+     * Copies every space, as getVisibleAt() gives it, into a buffer at its position, in order of index,
+     * and moves the position on past them.
+     *
+     * @param destination The buffer to copy into
+     * @throws BufferOverflowException if the buffer does not have room for getSize() spaces
+     */
+    public void exportTo(ByteBuffer destination)
+    {
+        int size = field.getSize();
+        if (destination.remaining() < size) {
+            throw new BufferOverflowException();
+        }
+        if (destination.hasArray()) {
+            //Write straight into the array behind the buffer, rather than one put() at a time.
+            int position = destination.position();
+            exportTo(destination.array(), destination.arrayOffset() + position);
+            destination.position(position + size);
+            return;
+        }
+        for (int i = 0; i < size; i++) {
+            destination.put((byte)FieldSpace.visibleOf(field.getPacked(i)));
+        }
+    }
+}
@@ -0,0 +1,149 @@
+import java.util.Arrays;
+
+/**
+ * Gathers the changes a move makes to a game's minefield, and hands them to the game's GameListeners
+ * in one go once the move is over.
+ *
+ * Each changed space is noted as it changes, in a list of indices with a bit per space which is set while
+ * it is in the list, so that a space changed twice in one move is listed once. The list is reused from
+ * move to move, so a move costs no allocation once the list has grown big enough, however many listeners
+ * there are.
+ *
+ * @author  Nicholas Parks Young
+ * @version 2026-10-16
+ */
+public class ChangeFeed implements SpaceChangeListener
+{
+    private final GameLogic game;
+    private final Minefield field;
+    private GameListener[] listeners = new GameListener[0];
+    
+    private final long[] listed;
+    private int[] changed;
+    private int qtyChanged;
+    //The counters and state as they were at the end of the last move.
+    private int lastMinesRemaining;
+    private int lastUnrevealed;
+    private boolean lastInProgress;
+    
+    /**
+     * Constructor for objects of type ChangeFeed, which gathers changes until detach() is called.
+     *
+     * @param game The game whose changes are to be handed out
+     */
+    protected ChangeFeed(GameLogic game)
+    {
+        this.game = game;
+        field = game.getMinefield();
+        listed = new long[(field.getSize() + 63) >>> 6];
+        changed = new int[64];
+        lastMinesRemaining = game.getQtyMinesRemaining();
+        lastUnrevealed = game.getQtyUnrevealed();
+        lastInProgress = game.getGameInProgress();
+        field.addChangeListener(this);
+    }
+    
+    /**
+     * Stops gathering changes to the minefield.
+     */
+    protected void detach()
+    {
+        field.removeChangeListener(this);
+    }
+    
+    /**
+     * @param listener A listener to hand changes to from now on
+     */
+    protected void addListener(GameListener listener)
+    {
+        listeners = Arrays.copyOf(listeners, listeners.length + 1);
+        listeners[listeners.length - 1] = listener;
+    }
+    
+    /**
+     * Stops handing changes to a listener. Does nothing if it was not listening.
+     *
+     * @param listener The listener
+     * @return True if there are no listeners left
+     */
+    protected boolean removeListener(GameListener listener)
+    {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                GameListener[] fewer = new GameListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, fewer, 0, i);
+                System.arraycopy(listeners, i + 1, fewer, i, fewer.length - i);
+                listeners = fewer;
+                break;
+            }
+        }
+        return listeners.length == 0;
+    }
+    
+    /**
+     * Notes that a space has changed. Called by the minefield, during a move.
+     *
+     * @param index The index of the space which changed
+     * @param oldStatus The status it had before
+     * @param newStatus The status it has now
+     */
+    @Override
+    public void spaceChanged(int index, SpaceStatus oldStatus, SpaceStatus newStatus)
+    {
+        long bit = 1L << index;
+        if ((listed[index >>> 6] & bit) != 0) {
+            return;
+        }
+        listed[index >>> 6] |= bit;
+        if (qtyChanged == changed.length) {
+            changed = Arrays.copyOf(changed, changed.length * 2);
+        }
+        changed[qtyChanged++] = index;
+    }
+    
+    /**
+     * Hands the changes made by the move just made to every listener. Called by the game once the move
+     * is over.
+     */
+    protected void moveMade()
+    {
+        //The array is replaced rather than changed when a listener is added or removed, so this is safe even if
+        //a listener does so.
+        GameListener[] current = listeners;
+        if (qtyChanged > 0) {
+            int qty = qtyChanged;
+            for (int i = 0; i < qty; i++) {
+                listed[changed[i] >>> 6] = 0;
+            }
+            qtyChanged = 0;
+            for (GameListener listener : current) {
+                listener.spacesChanged(game, changed, qty);
+            }
+        }
+        
+        int minesRemaining = game.getQtyMinesRemaining();
+        int unrevealed = game.getQtyUnrevealed();
+        if (minesRemaining != lastMinesRemaining || unrevealed != lastUnrevealed) {
+            lastMinesRemaining = minesRemaining;
+            lastUnrevealed = unrevealed;
+            for (GameListener listener : current) {
+                listener.countersChanged(game);
+            }
+        }
+        
+        boolean inProgress = game.getGameInProgress();
+        if (inProgress != lastInProgress) {
+            lastInProgress = inProgress;
+            if (!inProgress) {
+                boolean won = game.getGameWon();
+                for (GameListener listener : current) {
+                    if (won) {
+                        listener.gameWon(game);
+                    } else {
+                        listener.gameLost(game);
+                    }
+                }
+            }
+        }
+    }
+}
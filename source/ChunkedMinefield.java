@@ -0,0 +1,344 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * A minefield with no practical edge, split into MinefieldChunk.SIZE square chunks.
+ *
+ * Coordinates run from zero to Integer.MAX_VALUE in both directions. Where the mines are is decided by
+ * a SeededMines, so each space is a mine with a chance given by the density, and looking at a space the
+ * player has never changed needs no memory at all: its mine and neighbouring mines are worked out from
+ * the seed on the spot. A chunk is only generated once the player changes one of its spaces, to hold
+ * their statuses.
+ *
+ * Only a limited quantity of chunks are kept in memory, and when that limit is reached the least
+ * recently used chunk is evicted. A chunk which the player has never changed is simply forgotten,
+ * since it can be regenerated. Any other chunk - including one the player has finished with - has the
+ * status of its spaces compressed and written to a file in the storage directory, from which it is
+ * restored when it is next needed. So the memory used stays the same however far the player explores.
+ *
+ * Each minefield keeps its chunks in its own subdirectory of the storage directory, named after its game
+ * code, along with a small file holding its exact seed and density. A minefield never adopts chunks saved
+ * by a different one, since they would show spaces revealed and flagged over a different set of mines.
+ *
+ * @author  Nicholas Parks Young
+ * @version 2026-10-16
+ */
+public class ChunkedMinefield
+{
+    //Fewest chunks that may be kept in memory: a space and all its neighbours can span four chunks,
+    //so leave room for all of them rather than evicting a chunk while its neighbour is being changed.
+    protected static final int MIN_CHUNKS_IN_MEMORY = 4;
+    //Holds the seed and density of the minefield whose chunks are in the same directory.
+    private static final String MINES_FILE = "mines";
+    
+    private final SeededMines mines;
+    private final Path storage;
+    private final Map<Long, MinefieldChunk> chunks;
+    //The key of every chunk which has a file in the storage directory, so that looking at a space in a
+    //chunk which is not in memory does not have to ask the file system.
+    private final Set<Long> savedChunks;
+    //The chunk most recently looked up, to save a map lookup when working within one chunk. Using it
+    //does not move it up the order of the map, so that is done when the player moves off it instead.
+    private MinefieldChunk lastChunk;
+    private int qtyChunksSaved;
+    private int qtyChunksLoaded;
+    
+    /**
+     * Constructor for objects of type ChunkedMinefield.
+     *
+     * @param mines Where the mines are
+     * @param maxChunksInMemory The most chunks to keep in memory at once
+     * @param storage The directory in which the subdirectory that evicted chunks are saved in is made
+     * @throws UncheckedIOException if the storage directory cannot be read
+     * @throws IllegalArgumentException if the subdirectory for this game code holds another minefield's chunks
+     */
+    protected ChunkedMinefield(SeededMines mines, int maxChunksInMemory, Path storage)
+    {
+        if (mines == null) {
+            throw new IllegalArgumentException("mines must not be null");
+        }
+        if (maxChunksInMemory < MIN_CHUNKS_IN_MEMORY) {
+            throw new IllegalArgumentException("maxChunksInMemory must be at least " + MIN_CHUNKS_IN_MEMORY);
+        }
+        if (storage == null) {
+            throw new IllegalArgumentException("storage must not be null");
+        }
+        this.mines = mines;
+        this.storage = storage.resolve(mines.getGameCode());
+        qtyChunksSaved = 0;
+        qtyChunksLoaded = 0;
+        
+        //Game codes round the density, so check the exact seed and density before adopting any chunks.
+        ByteBuffer identity = ByteBuffer.allocate(16);
+        identity.putLong(mines.getSeed()).putLong(Double.doubleToLongBits(mines.getDensity()));
+        Path minesFile = this.storage.resolve(MINES_FILE);
+        try {
+            if (Files.exists(minesFile)) {
+                if (!ByteBuffer.wrap(Files.readAllBytes(minesFile)).equals(identity.flip())) {
+                    throw new IllegalArgumentException(this.storage + " holds the chunks of a different minefield");
+                }
+            } else {
+                Files.createDirectories(this.storage);
+                Files.write(minesFile, identity.array());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not prepare " + this.storage + " for saving chunks", e);
+        }
+        
+        savedChunks = new HashSet<Long>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(this.storage, "*_*.chunk")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                int underscore = name.indexOf('_');
+                try {
+                    int chunkX = Integer.parseInt(name.substring(0, underscore));
+                    int chunkY = Integer.parseInt(name.substring(underscore + 1, name.length() - ".chunk".length()));
+                    savedChunks.add(keyOf(chunkX, chunkY));
+                } catch (NumberFormatException e) {
+                    ;   //not one of ours
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not list saved chunks in " + this.storage, e);
+        }
+        
+        final int capacity = maxChunksInMemory;
+        //An access-ordered LinkedHashMap keeps the least recently used chunk first.
+        chunks = new LinkedHashMap<Long, MinefieldChunk>(capacity * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, MinefieldChunk> eldest)
+            {
+                if (size() > capacity) {
+                    evict(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+    
+    /**
+     * @param x The X co-ordinate to check
+     * @param y The Y co-ordinate to check
+     * @return True if X,Y is a space in this minefield
+     */
+    protected boolean validLocation(int x, int y)
+    {
+        return x >= 0 && y >= 0;
+    }
+    
+    /**
+     * @return Where the mines are
+     */
+    protected SeededMines getMines()
+    {
+        return mines;
+    }
+    
+    /**
+     * Returns the packed byte (see FieldSpace) of the space at X,Y, as an unsigned value. If the player
+     * has never changed a space in its chunk, it is worked out from the seed without generating the chunk.
+     *
+     * @param x The X-coordinate
+     * @param y The Y-coordinate
+     * @return The packed space
+     */
+    protected int getPacked(int x, int y)
+    {
+        MinefieldChunk chunk = chunkAt(x, y, false);
+        if (chunk == null) {
+            return mines.getPacked(x, y);
+        }
+        return chunk.getPacked(localIndex(x, y));
+    }
+    
+    /**
+     * Changes the status of the space at X,Y.
+     *
+     * @param x The X-coordinate
+     * @param y The Y-coordinate
+     * @param status The new status
+     */
+    protected void setStatus(int x, int y, SpaceStatus status)
+    {
+        chunkAt(x, y, true).setStatus(localIndex(x, y), status);
+    }
+    
+    /**
+     * @return How many chunks are in memory at the moment
+     */
+    protected int getQtyChunksInMemory()
+    {
+        return chunks.size();
+    }
+    
+    /**
+     * @return How many times a chunk has been written to the storage directory
+     */
+    protected int getQtyChunksSaved()
+    {
+        return qtyChunksSaved;
+    }
+    
+    /**
+     * @return How many times a chunk has been restored from the storage directory
+     */
+    protected int getQtyChunksLoaded()
+    {
+        return qtyChunksLoaded;
+    }
+    
+    /**
+     * Writes every chunk in memory which has unsaved changes to the storage directory.
+     */
+    protected void saveAll()
+    {
+        for (MinefieldChunk chunk : chunks.values()) {
+            if (chunk.isUnsaved()) {
+                save(chunk);
+            }
+        }
+    }
+    
+    /**
+     * Passes every chunk which has been saved to the storage directory to an action, one at a time. A
+     * chunk which is not in memory is restored for the action and then let go again, without evicting
+     * anything, so that looking over every saved chunk takes no more memory than looking at one.
+     *
+     * @param action The action to pass each saved chunk to; it must not change the chunk
+     * @throws UncheckedIOException if a chunk cannot be restored
+     */
+    protected void forEachSavedChunk(Consumer<MinefieldChunk> action)
+    {
+        for (long key : savedChunks) {
+            MinefieldChunk chunk = chunks.get(key);
+            if (chunk == null) {
+                int chunkX = (int)(key >>> 32);
+                int chunkY = (int)key;
+                chunk = new MinefieldChunk(mines, chunkX, chunkY);
+                try {
+                    chunk.loadStatuses(Files.readAllBytes(fileFor(chunkX, chunkY)));
+                } catch (IOException e) {
+                    throw new UncheckedIOException("could not restore chunk " + chunkX + "," + chunkY, e);
+                }
+            }
+            action.accept(chunk);
+        }
+    }
+    
+    /**
+     * Finds the chunk containing the space at X,Y, restoring it if it is not in memory but has been saved.
+     *
+     * @param x The X-coordinate
+     * @param y The Y-coordinate
+     * @param generate Whether to generate the chunk if the player has never changed any of its spaces
+     * @return The chunk containing that space, or null if it has not been generated
+     */
+    private MinefieldChunk chunkAt(int x, int y, boolean generate)
+    {
+        if (!validLocation(x, y)) {
+            throw new IndexOutOfBoundsException("location specified is outside of minefield");
+        }
+        int chunkX = x >> MinefieldChunk.SHIFT;
+        int chunkY = y >> MinefieldChunk.SHIFT;
+        if (lastChunk != null) {
+            if (lastChunk.getChunkX() == chunkX && lastChunk.getChunkY() == chunkY) {
+                return lastChunk;
+            }
+            //Mark the chunk being moved off as just used, so that it is not the first to be evicted.
+            chunks.get(keyOf(lastChunk.getChunkX(), lastChunk.getChunkY()));
+        }
+        
+        Long key = keyOf(chunkX, chunkY);
+        MinefieldChunk chunk = chunks.get(key);
+        if (chunk == null) {
+            boolean saved = savedChunks.contains(key);
+            if (!saved && !generate) {
+                return null;
+            }
+            chunk = new MinefieldChunk(mines, chunkX, chunkY);
+            if (saved) {
+                try {
+                    chunk.loadStatuses(Files.readAllBytes(fileFor(chunkX, chunkY)));
+                } catch (IOException e) {
+                    throw new UncheckedIOException("could not restore chunk " + chunkX + "," + chunkY, e);
+                }
+                qtyChunksLoaded++;
+            }
+            chunks.put(key, chunk);
+        }
+        lastChunk = chunk;
+        return chunk;
+    }
+    
+    /**
+     * Called when a chunk is evicted from memory: saves it if the player has changed it since it was last
+     * saved, and otherwise just lets it go.
+     *
+     * @param chunk The chunk being evicted
+     */
+    private void evict(MinefieldChunk chunk)
+    {
+        if (chunk == lastChunk) {
+            lastChunk = null;
+        }
+        if (chunk.isUnsaved()) {
+            save(chunk);
+        }
+    }
+    
+    /**
+     * Writes the statuses of a chunk's spaces to the storage directory.
+     *
+     * @param chunk The chunk to save
+     */
+    private void save(MinefieldChunk chunk)
+    {
+        try {
+            Files.write(fileFor(chunk.getChunkX(), chunk.getChunkY()), chunk.saveStatuses());
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not save chunk " + chunk.getChunkX() + "," + chunk.getChunkY(), e);
+        }
+        savedChunks.add(keyOf(chunk.getChunkX(), chunk.getChunkY()));
+        qtyChunksSaved++;
+    }
+    
+    /**
+     * @param chunkX The x-coordinate of a chunk, in chunks
+     * @param chunkY The y-coordinate of a chunk, in chunks
+     * @return The file that chunk is saved in
+     */
+    private Path fileFor(int chunkX, int chunkY)
+    {
+        return storage.resolve(chunkX + "_" + chunkY + ".chunk");
+    }
+    
+    /**
+     * @param chunkX The x-coordinate of a chunk, in chunks
+     * @param chunkY The y-coordinate of a chunk, in chunks
+     * @return The key of that chunk in the map of chunks in memory
+     */
+    private static long keyOf(int chunkX, int chunkY)
+    {
+        return ((long)chunkX << 32) | chunkY;
+    }
+    
+    /**
+     * @param x The X-coordinate of a space
+     * @param y The Y-coordinate of a space
+     * @return The row-major index of that space within its chunk
+     */
+    private static int localIndex(int x, int y)
+    {
+        return ((y & MinefieldChunk.MASK) << MinefieldChunk.SHIFT) | (x & MinefieldChunk.MASK);
+    }
+}
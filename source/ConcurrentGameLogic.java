@@ -0,0 +1,451 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+
+/**
+ * API interface for the cooperative mode of the Javasweeper game engine, in which any number of players
+ * play on one minefield at the same time, each from their own thread, with no need to take turns.
+ *
+ * The spaces are packed one byte each, exactly as in a Minefield (see FieldSpace), and every change of
+ * status is a single compare-and-set of one space's byte, so no player ever waits for another. A cascade
+ * takes no locks at all: the player whose compare-and-set reveals a space is the only one to go on to
+ * its neighbours, so cascades which meet simply stop where they meet, and no space is revealed twice.
+ * The quantity of flags is kept in a LongAdder, since every toggle changes it; the quantity of safe
+ * spaces left to reveal is only changed once per reveal, by however many spaces it revealed.
+ *
+ * When players' moves clash, the first to change the space wins, and the rules are:
+ *  - A space is only revealed once, and the reveal which does it is the one that cascades from it.
+ *  - revealAt() will not reveal a flagged space, so that one player cannot step on a mine another has
+ *    flagged; it must be unflagged first. A cascade does reveal flagged spaces, as they cannot be mines.
+ *  - A toggle moves a space on from the status it actually has, so two players toggling the same space
+ *    at once move it on twice. A revealed space cannot be toggled.
+ *  - The game is won by the reveal which leaves no safe spaces hidden, or lost by the first reveal of a
+ *    mine - whichever comes first. After that no more moves are accepted, although a cascade which has
+ *    already started carries on, as it can only reveal safe spaces.
+ *
+ * @author  Nicholas Parks Young
+ * @version 2026-10-16
+ */
+public class ConcurrentGameLogic
+{
+    private static final VarHandle SPACES = MethodHandles.arrayElementVarHandle(byte[].class);
+    private static final VarHandle CHANGED = MethodHandles.arrayElementVarHandle(long[].class);
+    
+    //The states of the game.
+    private static final int IN_PROGRESS = 0;
+    private static final int WON = 1;
+    private static final int LOST = 2;
+    
+    private final GameLevel level;
+    private final int width, height;
+    private final int qtyMines;
+    private final byte[] spaces;
+    //A bit for every space which has changed since the changes were last drained.
+    private final long[] changed;
+    private final AtomicInteger state;
+    private final AtomicLong qtySafeHidden;
+    private final LongAdder qtyFlagged;
+    private final long startTime;
+    private volatile long endTime;
+    //Scratch space for cascades, one per player's thread.
+    private final ThreadLocal<int[]> queues;
+    
+    /**
+     * Constructor for objects of type ConcurrentGameLogic, preparing the minefield according to the
+     * passed in difficulty.
+     *
+     * @param level The difficulty level desired for this game
+     * @throws IllegalArgumentException if level is GameLevel.CUSTOM - use ConcurrentGameLogic(int, int, int) instead
+     */
+    public ConcurrentGameLogic(GameLevel level)
+    {
+        this(level, presetField(level));
+    }
+    
+    /**
+     * Constructor for objects of type ConcurrentGameLogic, with a minefield of the given size, at the
+     * GameLevel.CUSTOM difficulty.
+     *
+     * @param width The width of the minefield
+     * @param height The height of the minefield
+     * @param quantityOfMines How many mines to hide in the minefield
+     */
+    public ConcurrentGameLogic(int width, int height, int quantityOfMines)
+    {
+        this(GameLevel.CUSTOM, new Minefield(width, height, quantityOfMines));
+    }
+    
+    /**
+     * @param level One of the preset levels
+     * @return A new minefield of the size, and with the quantity of mines, of that level
+     * @throws IllegalArgumentException if level is GameLevel.CUSTOM
+     */
+    private static Minefield presetField(GameLevel level)
+    {
+        if (level.isCustom()) {
+            throw new IllegalArgumentException("custom games must be given a width, height and quantity of mines");
+        }
+        return new Minefield(level.getFieldWidth(), level.getFieldHeight(), level.getQuantityOfMines());
+    }
+    
+    /**
+     * Creates a game which plays on a copy of a minefield that has already been prepared, e.g. one
+     * generated from a known seed for a benchmark.
+     *
+     * @param level The difficulty level of this game
+     * @param field The minefield to copy, which should not have been played on yet
+     */
+    protected ConcurrentGameLogic(GameLevel level, Minefield field)
+    {
+        if (field == null) {
+            throw new IllegalArgumentException("field must not be null");
+        }
+        this.level = level;
+        width = field.getWidth();
+        height = field.getHeight();
+        spaces = new byte[field.getSize()];
+        field.getPackedSpaces().get(spaces);
+        int mines = 0;
+        for (int i = 0; i < spaces.length; i++) {
+            spaces[i] = (byte)FieldSpace.withStatus(spaces[i], SpaceStatus.HIDDEN);
+            if (FieldSpace.mineOf(spaces[i])) {
+                mines++;
+            }
+        }
+        qtyMines = mines;
+        changed = new long[(spaces.length + 63) >>> 6];
+        state = new AtomicInteger(IN_PROGRESS);
+        qtySafeHidden = new AtomicLong(spaces.length - mines);
+        qtyFlagged = new LongAdder();
+        startTime = System.currentTimeMillis();
+        queues = new ThreadLocal<int[]>() {
+            @Override
+            protected int[] initialValue() {
+                return new int[Math.min(spaces.length, 1024)];
+            }
+        };
+    }
+    
+    /**
+     * Reveals the space at the coordinate X,Y. If it has no neighbouring mines, its neighbours are
+     * revealed as well, and so on. Afterwards, checks whether the players have won or lost.
+     *
+     * @param x The X-coordinate of the space to reveal
+     * @param y The Y-coordinate of the space to reveal
+     * @return The quantity of spaces this move revealed, which is zero if the space was already revealed,
+     *         is flagged, or the game is over - for example, because another player got there first
+     */
+    public int revealAt(int x, int y)
+    {
+        int index = toIndex(x, y);
+        if (state.get() != IN_PROGRESS) {
+            return 0;
+        }
+        int packed = claimReveal(index, false);
+        if (packed < 0) {
+            return 0;
+        }
+        if (FieldSpace.mineOf(packed)) {
+            endGame(LOST);
+            return 1;
+        }
+        
+        int qtyRevealed = 1;
+        if (FieldSpace.qtyNeighbourMinesOf(packed) == 0) {
+            qtyRevealed += cascadeFrom(index);
+        }
+        if (qtySafeHidden.addAndGet(-qtyRevealed) == 0) {
+            endGame(WON);
+        }
+        return qtyRevealed;
+    }
+    
+    /**
+     * Reveals the neighbours of a space with no neighbouring mines, and so on outwards. Only the spaces
+     * this thread reveals are queued, so a space is never queued by two threads.
+     *
+     * @param index The index of the space, which this thread has just revealed
+     * @return The quantity of spaces revealed, not counting the first
+     */
+    private int cascadeFrom(int index)
+    {
+        int[] queue = queues.get();
+        int head = 0;
+        int tail = 0;
+        int qtyRevealed = 0;
+        queue[tail++] = index;
+        while (head < tail) {
+            int current = queue[head++];
+            int x = current % width;
+            int y = current / width;
+            for (int dy = -1; dy <= 1; dy++) {
+                int neighbourY = y + dy;
+                if (neighbourY < 0 || neighbourY >= height) {
+                    continue;
+                }
+                for (int dx = -1; dx <= 1; dx++) {
+                    int neighbourX = x + dx;
+                    if ((dx == 0 && dy == 0) || neighbourX < 0 || neighbourX >= width) {
+                        continue;
+                    }
+                    int neighbour = (neighbourY * width) + neighbourX;
+                    int packed = claimReveal(neighbour, true);
+                    if (packed < 0) {
+                        continue;
+                    }
+                    qtyRevealed++;
+                    if (FieldSpace.qtyNeighbourMinesOf(packed) == 0) {
+                        if (tail == queue.length) {
+                            //Reuse the part of the queue already processed before growing it.
+                            System.arraycopy(queue, head, queue, 0, tail - head);
+                            tail -= head;
+                            head = 0;
+                            if (tail == queue.length) {
+                                int[] bigger = new int[(int)Math.min(spaces.length, 2L * queue.length)];
+                                System.arraycopy(queue, 0, bigger, 0, tail);
+                                queue = bigger;
+                                queues.set(queue);
+                            }
+                        }
+                        queue[tail++] = neighbour;
+                    }
+                }
+            }
+        }
+        return qtyRevealed;
+    }
+    
+    /**
+     * Reveals one space, unless it is already revealed - or, unless revealFlagged is true, flagged.
+     *
+     * @param index The index of the space
+     * @param revealFlagged True if a flagged space should be revealed
+     * @return The packed space as it was before it was revealed, or -1 if this thread did not reveal it
+     */
+    private int claimReveal(int index, boolean revealFlagged)
+    {
+        while (true) {
+            int packed = spaces[index];
+            SpaceStatus status = FieldSpace.statusOf(packed);
+            if (status == SpaceStatus.REVEALED || (status == SpaceStatus.FLAGGED && !revealFlagged)) {
+                return -1;
+            }
+            if (SPACES.compareAndSet(spaces, index, (byte)packed,
+                                     (byte)FieldSpace.withStatus(packed, SpaceStatus.REVEALED))) {
+                if (status == SpaceStatus.FLAGGED) {
+                    qtyFlagged.decrement();
+                }
+                markChanged(index);
+                return packed & 0xFF;
+            }
+            //Another player changed it first - look again.
+        }
+    }
+    
+    /**
+     * Ends the game, unless another player's move has ended it already, and reveals all the mines.
+     *
+     * @param outcome WON or LOST
+     */
+    private void endGame(int outcome)
+    {
+        if (!state.compareAndSet(IN_PROGRESS, outcome)) {
+            return;
+        }
+        endTime = System.currentTimeMillis();
+        for (int i = 0; i < spaces.length; i++) {
+            if (FieldSpace.mineOf(spaces[i])) {
+                claimReveal(i, true);
+            }
+        }
+    }
+    
+    /**
+     * Toggles the status of the space at the coordinate X,Y, from HIDDEN to FLAGGED to QUESTIONED and back.
+     * Doesn't work on revealed spaces, and cannot be used to reveal a space - use revealAt() to reveal a space
+     *
+     * @param x The x-coordinate of the space to toggle
+     * @param y The y-coordinate of the space to toggle
+     * @return True if the status was toggled; false if the space is revealed or the game is over
+     */
+    public boolean toggleStatusOfSquare(int x, int y)
+    {
+        int index = toIndex(x, y);
+        while (state.get() == IN_PROGRESS) {
+            int packed = spaces[index];
+            SpaceStatus next;
+            switch (FieldSpace.statusOf(packed)) {
+                case HIDDEN:
+                    next = SpaceStatus.FLAGGED;
+                    break;
+                case FLAGGED:
+                    next = SpaceStatus.QUESTIONED;
+                    break;
+                case QUESTIONED:
+                    next = SpaceStatus.HIDDEN;
+                    break;
+                default:
+                    return false;
+            }
+            if (SPACES.compareAndSet(spaces, index, (byte)packed, (byte)FieldSpace.withStatus(packed, next))) {
+                if (next == SpaceStatus.FLAGGED) {
+                    qtyFlagged.increment();
+                } else if (next == SpaceStatus.QUESTIONED) {
+                    qtyFlagged.decrement();
+                }
+                markChanged(index);
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * @param index The index of a space which has just changed
+     */
+    private void markChanged(int index)
+    {
+        long bit = 1L << index;
+        //Most changes come in runs along a row, so avoid the atomic update if the bit is already set.
+        if (((long)CHANGED.getOpaque(changed, index >>> 6) & bit) == 0) {
+            CHANGED.getAndBitwiseOr(changed, index >>> 6, bit);
+        }
+    }
+    
+    /**
+     * Hands the index of every space that has changed since this was last called to the consumer, and
+     * forgets them. A space which changes while this is running is handed over either now or next time.
+     * The index of the space at X,Y is (Y * getWidth()) + X.
+     *
+     * @param consumer The consumer of the changed indices
+     */
+    public void drainChangedIndices(IntConsumer consumer)
+    {
+        for (int word = 0; word < changed.length; word++) {
+            if ((long)CHANGED.getOpaque(changed, word) == 0) {
+                continue;
+            }
+            long bits = (long)CHANGED.getAndSet(changed, word, 0L);
+            while (bits != 0) {
+                consumer.accept((word << 6) + Long.numberOfTrailingZeros(bits));
+                bits &= bits - 1;
+            }
+        }
+    }
+    
+    /**
+     * Returns an immutable Square object containing information about the requested space in the minefield.
+     * Squares are shared, so this does not allocate anything
+     *
+     * @param x The x-coordinate of the space to fetch a Square about
+     * @param y The y-coordinate of the space to fetch a Square about
+     * @return A Square containing information about the minefield space at coordinate X,Y
+     */
+    public Square getSquareAt(int x, int y)
+    {
+        return Square.ofPacked((byte)SPACES.getAcquire(spaces, toIndex(x, y)));
+    }
+    
+    /**
+     * @param x The x-coordinate
+     * @param y The y-coordinate
+     * @return The index of the space at X,Y
+     */
+    private int toIndex(int x, int y)
+    {
+        if (!validLocation(x, y)) {
+            throw new IndexOutOfBoundsException("location specified is outside of minefield");
+        }
+        return (y * width) + x;
+    }
+    
+    /**
+     * @param x The x-coordinate to check
+     * @param y The y-coordinate to check
+     * @return True if the coordinates X,Y are valid in the context of this minefield
+     */
+    public boolean validLocation(int x, int y)
+    {
+        return x >= 0 && y >= 0 && x < width && y < height;
+    }
+    
+    /**
+     * @return This game's GameLevel object.
+     */
+    public GameLevel getLevel()
+    {
+        return level;
+    }
+    
+    /**
+     * @return The width of the minefield
+     */
+    public int getWidth()
+    {
+        return width;
+    }
+    
+    /**
+     * @return The height of the minefield
+     */
+    public int getHeight()
+    {
+        return height;
+    }
+    
+    /**
+     * @return The quantity of mines on the minefield
+     */
+    public int getQtyMines()
+    {
+        return qtyMines;
+    }
+    
+    /**
+     * @return The quantity of mines on the minefield, minus the number of spaces flagged by the players
+     */
+    public int getQtyMinesRemaining()
+    {
+        return qtyMines - qtyFlagged.intValue();
+    }
+    
+    /**
+     * @return The quantity of spaces which are not mines and have not been revealed yet
+     */
+    public long getQtySafeHidden()
+    {
+        return qtySafeHidden.get();
+    }
+    
+    /**
+     * Returns the amount of time since this game was started in seconds. Will stop counting after the game
+     * has finished.
+     *
+     * @return Game time elapsed, in seconds
+     */
+    public long getPlayTime()
+    {
+        //The end time is set just after the game ends, so it may not be set yet.
+        long end = endTime;
+        return (((end != 0) ? end : System.currentTimeMillis()) - startTime) / 1000;
+    }
+    
+    /**
+     * @return True if the players have won
+     */
+    public boolean getGameWon()
+    {
+        return state.get() == WON;
+    }
+    
+    /**
+     * @return False if the game has ended, else true
+     */
+    public boolean getGameInProgress()
+    {
+        return state.get() == IN_PROGRESS;
+    }
+}
@@ -0,0 +1,441 @@
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * A self-contained benchmark harness for the hot paths of the game engine, so that every performance
+ * change can be backed up by a reproducible before-and-after number.
+ *
+ * Each benchmark is run against every preset GameLevel and a few large custom minefields, always
+ * generated from the same seeds. A benchmark is warmed up for a while so that the JIT compiler has done
+ * its work, then measured for a while. The time taken and the bytes allocated by the benchmark thread
+ * are reported per operation; any preparation a benchmark needs before each run - such as a fresh game
+ * to reveal a space in - is not counted in them. The garbage collections during the measurement are
+ * reported as a total, and these do include any caused by the preparation.
+ *
+ * Run it from the command line with assertions disabled (they add full consistency checks to every move):
+ *     java EngineBenchmark [filter]
+ * where filter, if given, only runs benchmarks and sizes whose names contain it, e.g. "Hard" or "reveal".
+ *
+ * @author  Nicholas Parks Young
+ * @version 2026-10-16
+ */
+public class EngineBenchmark
+{
+    private static final long WARMUP_NANOS = 1000000000L;
+    private static final long MEASURE_NANOS = 2000000000L;
+    private static final long SEED = 20261016L;
+    
+    //The sizes every benchmark is run against: the preset levels, then large custom minefields.
+    private static final String[] SIZE_NAMES;
+    private static final int[][] SIZES;
+    static {
+        int[][] custom = { {500, 500, 40000}, {2000, 2000, 640000} };
+        GameLevel[] levels = GameLevel.values();
+        int qtyPresets = 0;
+        for (GameLevel level : levels) {
+            if (!level.isCustom()) {
+                qtyPresets++;
+            }
+        }
+        SIZE_NAMES = new String[qtyPresets + custom.length];
+        SIZES = new int[qtyPresets + custom.length][];
+        int i = 0;
+        for (GameLevel level : levels) {
+            if (!level.isCustom()) {
+                SIZE_NAMES[i] = level.toString();
+                SIZES[i] = new int[] {level.getFieldWidth(), level.getFieldHeight(), level.getQuantityOfMines()};
+                i++;
+            }
+        }
+        for (int[] size : custom) {
+            SIZE_NAMES[i] = size[0] + "x" + size[1];
+            SIZES[i] = size;
+            i++;
+        }
+    }
+    
+    private final com.sun.management.ThreadMXBean threads;
+    private final List<GarbageCollectorMXBean> collectors;
+    private final long threadId;
+    //Written to by benchmarks so that the JIT compiler cannot throw their results away.
+    private long sink;
+    
+    /**
+     * One thing to be measured.
+     */
+    protected abstract static class Benchmark
+    {
+        private final String name;
+        
+        /**
+         * @param name The name of this benchmark, as reported
+         */
+        protected Benchmark(String name)
+        {
+            this.name = name;
+        }
+        
+        /**
+         * @return The name of this benchmark
+         */
+        protected String getName()
+        {
+            return name;
+        }
+        
+        /**
+         * Prepares for the next call to run(). Not measured.
+         *
+         * @param width The width of the minefield to benchmark with
+         * @param height The height of the minefield to benchmark with
+         * @param mines The quantity of mines in the minefield to benchmark with
+         * @param seed A seed to generate the minefield from, different for every call
+         */
+        protected void setUp(int width, int height, int mines, long seed)
+        {
+        }
+        
+        /**
+         * Does the thing being measured, possibly several times over.
+         *
+         * @return How many operations were done, and some value computed from the result so the work
+         *         is not optimised away, as (operations << 32) | value
+         */
+        protected abstract long run();
+    }
+    
+    /**
+     * Constructor for objects of type EngineBenchmark.
+     */
+    public EngineBenchmark()
+    {
+        threads = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+        threads.setThreadAllocatedMemoryEnabled(true);
+        collectors = ManagementFactory.getGarbageCollectorMXBeans();
+        threadId = Thread.currentThread().getId();
+    }
+    
+    /**
+     * Runs the benchmarks.
+     *
+     * @param args Optionally, a filter: only benchmarks or sizes whose names contain it are run
+     */
+    public static void main(String[] args)
+    {
+        boolean assertions = false;
+        assert assertions = true;
+        if (assertions) {
+            System.out.println("Warning: assertions are enabled, so every move is followed by a full consistency check.");
+        }
+        String filter = (args.length > 0) ? args[0] : "";
+        new EngineBenchmark().runAll(filter);
+    }
+    
+    /**
+     * Runs every benchmark against every size, printing a line of results for each.
+     *
+     * @param filter Only benchmarks or sizes whose names contain this are run
+     */
+    protected void runAll(String filter)
+    {
+        System.out.printf("%-34s %-12s %14s %14s %10s %10s%n",
+            "Benchmark", "Size", "ns/op", "bytes/op", "GCs", "GC ms");
+        for (Benchmark benchmark : createBenchmarks()) {
+            for (int i = 0; i < SIZES.length; i++) {
+                if (benchmark.getName().contains(filter) || SIZE_NAMES[i].contains(filter)) {
+                    measure(benchmark, SIZE_NAMES[i], SIZES[i][0], SIZES[i][1], SIZES[i][2]);
+                }
+            }
+        }
+        if (sink == 42) {
+            System.out.println();
+        }
+    }
+    
+    /**
+     * Warms up and then measures one benchmark at one size, and prints the results.
+     *
+     * @param benchmark The benchmark
+     * @param sizeName The name of the size, as reported
+     * @param width The width of the minefield
+     * @param height The height of the minefield
+     * @param mines The quantity of mines in the minefield
+     */
+    protected void measure(Benchmark benchmark, String sizeName, int width, int height, int mines)
+    {
+        long seed = SEED;
+        long end = System.nanoTime() + WARMUP_NANOS;
+        while (System.nanoTime() < end) {
+            benchmark.setUp(width, height, mines, seed++);
+            sink += benchmark.run();
+        }
+        
+        long operations = 0, nanos = 0, bytes = 0;
+        long gcCount = -gcCount(), gcMillis = -gcMillis();
+        end = System.nanoTime() + MEASURE_NANOS;
+        while (System.nanoTime() < end) {
+            benchmark.setUp(width, height, mines, seed++);
+            long startBytes = threads.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            long result = benchmark.run();
+            nanos += System.nanoTime() - start;
+            bytes += threads.getThreadAllocatedBytes(threadId) - startBytes;
+            operations += result >>> 32;
+            sink += result;
+        }
+        gcCount += gcCount();
+        gcMillis += gcMillis();
+        
+        operations = Math.max(1, operations);
+        System.out.printf("%-34s %-12s %14.1f %14.1f %10d %10d%n", benchmark.getName(), sizeName,
+            (double)nanos / operations, (double)bytes / operations, gcCount, gcMillis);
+    }
+    
+    /**
+     * @return The total quantity of garbage collections so far
+     */
+    private long gcCount()
+    {
+        long total = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            total += Math.max(0, collector.getCollectionCount());
+        }
+        return total;
+    }
+    
+    /**
+     * @return The total time spent in garbage collection so far, in milliseconds
+     */
+    private long gcMillis()
+    {
+        long total = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            total += Math.max(0, collector.getCollectionTime());
+        }
+        return total;
+    }
+    
+    /**
+     * Finds the first space in the minefield, scanning outwards from the middle row, that is or is not
+     * a mine and has the given quantity of neighbouring mines or more.
+     *
+     * @param field The minefield
+     * @param mine Whether the space should be a mine
+     * @param minNeighbours The least quantity of neighbouring mines, ignored for mines
+     * @param maxNeighbours The greatest quantity of neighbouring mines, ignored for mines
+     * @return The index of such a space, or -1 if there is none
+     */
+    private static int findSpace(Minefield field, boolean mine, int minNeighbours, int maxNeighbours)
+    {
+        int middle = field.toIndex(0, field.getHeight() / 2);
+        for (int n = 0; n < field.getSize(); n++) {
+            int i = (middle + n) % field.getSize();
+            if (field.isMine(i) == mine
+                && (mine || (field.getQtyNeighbourMines(i) >= minNeighbours
+                             && field.getQtyNeighbourMines(i) <= maxNeighbours))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * @return Every benchmark, in the order they are run
+     */
+    protected Benchmark[] createBenchmarks()
+    {
+        return new Benchmark[] {
+            new Benchmark("Minefield.<init>") {
+                private int width, height, mines;
+                private long seed;
+                
+                @Override
+                protected void setUp(int width, int height, int mines, long seed)
+                {
+                    this.width = width;
+                    this.height = height;
+                    this.mines = mines;
+                    this.seed = seed;
+                }
+                
+                @Override
+                protected long run()
+                {
+                    Minefield field = new Minefield(width, height, mines, seed);
+                    return (1L << 32) | field.getQtyNeighbourMines(field.getSize() / 2);
+                }
+            },
+            new RevealBenchmark("GameLogic.revealAt/single") {
+                @Override
+                protected int chooseSpace(Minefield field)
+                {
+                    return findSpace(field, false, 1, 8);
+                }
+            },
+            new RevealBenchmark("GameLogic.revealAt/cascade") {
+                @Override
+                protected int chooseSpace(Minefield field)
+                {
+                    return findSpace(field, false, 0, 0);
+                }
+            },
+            new RevealBenchmark("GameLogic.revealAt/lose") {
+                @Override
+                protected int chooseSpace(Minefield field)
+                {
+                    return findSpace(field, true, 0, 0);
+                }
+            },
+            new GameBenchmark("GameLogic.toggleStatusOfSquare") {
+                @Override
+                protected long run()
+                {
+                    //Cycle every space through flagged, questioned and back to hidden.
+                    for (int y = 0; y < game.getHeight(); y++) {
+                        for (int x = 0; x < game.getWidth(); x++) {
+                            game.toggleStatusOfSquare(x, y);
+                            game.toggleStatusOfSquare(x, y);
+                            game.toggleStatusOfSquare(x, y);
+                        }
+                    }
+                    return (long)game.getWidth() * game.getHeight() * 3 << 32;
+                }
+            },
+            new GameBenchmark("GameLogic.getSquareAt") {
+                @Override
+                protected long run()
+                {
+                    long total = 0;
+                    for (int y = 0; y < game.getHeight(); y++) {
+                        for (int x = 0; x < game.getWidth(); x++) {
+                            total += game.getSquareAt(x, y).getStatus().ordinal();
+                        }
+                    }
+                    return ((long)game.getWidth() * game.getHeight() << 32) | (total & 0xFFFFFFFFL);
+                }
+            },
+            new GameBenchmark("BoardView.exportTo") {
+                private byte[] visible;
+                
+                @Override
+                protected void setUp(int width, int height, int mines, long seed)
+                {
+                    super.setUp(width, height, mines, seed);
+                    visible = new byte[width * height];
+                }
+                
+                @Override
+                protected long run()
+                {
+                    game.getBoardView().exportTo(visible, 0);
+                    return ((long)visible.length << 32) | (visible[visible.length - 1] & 0xFF);
+                }
+            },
+            new GameBenchmark("MinefieldStats.refresh") {
+                private MinefieldStats stats;
+                
+                @Override
+                protected void setUp(int width, int height, int mines, long seed)
+                {
+                    super.setUp(width, height, mines, seed);
+                    stats = new MinefieldStats(game.getMinefield());
+                }
+                
+                @Override
+                protected long run()
+                {
+                    stats.refresh();
+                    return (1L << 32) | stats.getHidden();
+                }
+            },
+            new GameBenchmark("MinefieldStats.getStaleLocations") {
+                @Override
+                protected long run()
+                {
+                    //Every space of a new game is stale.
+                    return (1L << 32) | game.getStaleLocations().size();
+                }
+            },
+            new GameBenchmark("Minefield.getAdjacentLocations") {
+                @Override
+                protected long run()
+                {
+                    Minefield field = game.getMinefield();
+                    //A sample of spaces spread across the minefield, including its edges.
+                    int step = Math.max(1, field.getSize() / 4096);
+                    long total = 0, operations = 0;
+                    for (int i = 0; i < field.getSize(); i += step) {
+                        total += field.getAdjacentLocations(field.indexToX(i), field.indexToY(i)).size();
+                        operations++;
+                    }
+                    return (operations << 32) | total;
+                }
+            }
+        };
+    }
+    
+    /**
+     * A benchmark which needs a new game, generated from the given seed, before each run.
+     */
+    protected abstract static class GameBenchmark extends Benchmark
+    {
+        protected GameLogic game;
+        
+        /**
+         * @param name The name of this benchmark, as reported
+         */
+        protected GameBenchmark(String name)
+        {
+            super(name);
+        }
+        
+        @Override
+        protected void setUp(int width, int height, int mines, long seed)
+        {
+            game = new GameLogic(GameLevel.CUSTOM, new Minefield(width, height, mines, seed));
+        }
+    }
+    
+    /**
+     * A benchmark which reveals one space in a new game.
+     */
+    protected abstract static class RevealBenchmark extends GameBenchmark
+    {
+        private int x, y;
+        
+        /**
+         * @param name The name of this benchmark, as reported
+         */
+        protected RevealBenchmark(String name)
+        {
+            super(name);
+        }
+        
+        /**
+         * @param field A new minefield
+         * @return The index of the space to reveal, or -1 if there is no suitable space
+         */
+        protected abstract int chooseSpace(Minefield field);
+        
+        @Override
+        protected void setUp(int width, int height, int mines, long seed)
+        {
+            super.setUp(width, height, mines, seed);
+            Minefield field = game.getMinefield();
+            int index = chooseSpace(field);
+            x = (index < 0) ? -1 : field.indexToX(index);
+            y = (index < 0) ? -1 : field.indexToY(index);
+        }
+        
+        @Override
+        protected long run()
+        {
+            if (x < 0) {
+                return 0;
+            }
+            game.revealAt(x, y);
+            return (1L << 32) | (game.getGameWon() ? 1 : 0);
+        }
+    }
+}
@@ -1,28 +1,46 @@
 /**
  * Stores details about a particular space in the minefield...
- * 
+ *
+ * The Minefield does not keep one FieldSpace object per space; instead it packs every space into
+ * a single byte of a row-major array. A FieldSpace is a lightweight view onto one of those bytes,
+ * and this class also defines the bit layout of the packed byte and the methods to decode it:
+ *
+ *      bit  0      - mine
+ *      bits 1..2   - SpaceStatus ordinal
+ *      bits 3..6   - quantity of neighbouring mines (0 to 8)
+ *      bit  7      - unused
+ *
+ * Whether a space is stale is not kept in the packed byte, but in the minefield's StaleSpaces bitset.
+ *
  * @author  Nicholas Parks Young
- * @version 2015-04-03
+ * @version 2026-10-16
  */
 public class FieldSpace
 {
-    private final boolean mine;
-    private SpaceStatus status;
-    private short qtyNeighbourMines;
-    private boolean stale;
+    //Bit layout of a packed space.
+    protected static final int MINE_BIT = 0x01;
+    protected static final int STATUS_SHIFT = 1;
+    protected static final int STATUS_MASK = 0x03 << STATUS_SHIFT;
+    protected static final int COUNT_SHIFT = 3;
+    protected static final int COUNT_MASK = 0x0F << COUNT_SHIFT;
+    
+    //Cached, as SpaceStatus.values() creates a new array every time it is called.
+    private static final SpaceStatus[] STATUSES = SpaceStatus.values();
+    
+    private final Minefield field;
+    private final int index;
     
     /**
      * Constructor for objects of type FieldSpace.
-     * Initially sets the space to Hidden and zero neighbouring mines.
-     * 
-     * @param isMine Whether this space will be a mine
+     * The view does not copy anything, so changes made through it are made to the minefield itself.
+     *
+     * @param field The minefield that holds the packed space
+     * @param index The row-major index of the space within the minefield
      */
-    protected FieldSpace(boolean isMine)
+    protected FieldSpace(Minefield field, int index)
     {
-        mine = isMine;
-        qtyNeighbourMines = 0;
-        stale = true;
-        status = SpaceStatus.HIDDEN;
+        this.field = field;
+        this.index = index;
     }
     
     /**
@@ -30,7 +48,7 @@ public class FieldSpace
      */
     protected void resetStale()
     {
-        stale = false;
+        field.resetStale(index);
     }
     
     /**
@@ -38,7 +56,7 @@ public class FieldSpace
      */
     protected boolean isStale()
     {
-        return stale;
+        return field.isStale(index);
     }
     
     /**
@@ -46,7 +64,7 @@ public class FieldSpace
      */
     protected boolean isMine()
     {
-        return mine;
+        return field.isMine(index);
     }
     
     /**
@@ -54,7 +72,7 @@ public class FieldSpace
      */
     protected short getQtyNeighbourMines()
     {
-        return qtyNeighbourMines;
+        return field.getQtyNeighbourMines(index);
     }
     
     /**
@@ -62,27 +80,21 @@ public class FieldSpace
      */
     protected SpaceStatus getStatus()
     {
-        return status;
+        return field.getStatus(index);
     }
     
     /**
      * Reveal this space (making getNeighbourMines() and isMine() accessible).
      * Returns true if neighbouring spaces should also be revealed.
-     * 
+     *
      * If the space is already revealed, then the command is ignored and
      * logically any neighbouring spaces have also already been revealed, so returns false.
-     * 
+     *
      * @return True if neighbouring spaces should be revealed
      */
     protected boolean reveal()
     {
-        if (status != SpaceStatus.REVEALED) {
-            status = SpaceStatus.REVEALED;
-            stale = true;
-            return (qtyNeighbourMines == 0);
-        } else {
-            return false;
-        }
+        return field.reveal(index);
     }
     
     /**
@@ -91,30 +103,64 @@ public class FieldSpace
      */
     protected void toggleStatus()
     {
-        switch (status) {
-            case HIDDEN:
-                status = SpaceStatus.FLAGGED;
-                stale = true;
-                break;
-            case FLAGGED:
-                status = SpaceStatus.QUESTIONED;
-                stale = true;
-                break;
-            case QUESTIONED:
-                status = SpaceStatus.HIDDEN;
-                stale = true;
-                break;
-            default:
-                ;   //do nothing
-        }
+        field.toggleStatus(index);
+    }
+    
+    /**
+     * @return The row-major index of this space within its minefield
+     */
+    protected int getIndex()
+    {
+        return index;
+    }
+    
+    /**
+     * @param packed A packed space
+     * @return True if the packed space is a mine
+     */
+    protected static boolean mineOf(int packed)
+    {
+        return (packed & MINE_BIT) != 0;
+    }
+    
+    /**
+     * @param packed A packed space
+     * @return The status of the packed space
+     */
+    protected static SpaceStatus statusOf(int packed)
+    {
+        return STATUSES[(packed & STATUS_MASK) >>> STATUS_SHIFT];
     }
-
+    
     /**
-     * Increments the quantity of mines this space believes it is next to.
+     * @param packed A packed space
+     * @return The quantity of mines neighbouring the packed space
      */
-    protected void incrementQtyNeighbourMines()
+    protected static short qtyNeighbourMinesOf(int packed)
     {
-        qtyNeighbourMines++;
+        return (short)((packed & COUNT_MASK) >>> COUNT_SHIFT);
     }
     
+    /**
+     * @param packed A packed space
+     * @param status The new status
+     * @return The packed space with its status replaced
+     */
+    protected static int withStatus(int packed, SpaceStatus status)
+    {
+        return (packed & ~STATUS_MASK) | (status.ordinal() << STATUS_SHIFT);
+    }
+    
+    /**
+     * @param packed A packed space
+     * @return The packed space as the player may see it: unchanged if it is revealed, otherwise with its mine
+     *         and quantity of neighbouring mines cleared, leaving only its status
+     */
+    protected static int visibleOf(int packed)
+    {
+        if ((packed & STATUS_MASK) == (SpaceStatus.REVEALED.ordinal() << STATUS_SHIFT)) {
+            return packed & (MINE_BIT | STATUS_MASK | COUNT_MASK);
+        }
+        return packed & STATUS_MASK;
+    }
 }
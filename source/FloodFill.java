@@ -0,0 +1,131 @@
+import java.util.Arrays;
+
+/**
+ * Reveals a space in a Minefield and, if it has no neighbouring mines, cascades outwards revealing
+ * its neighbours as well, and so on.
+ *
+ * The work queue is a plain array of space indices and the set of spaces already queued is a bitset,
+ * both kept for the lifetime of the minefield and reused by every call, so a cascade costs time in
+ * proportion to the quantity of spaces it reaches. Every space is queued at most once, so the queue
+ * never needs to hold more indices than there are spaces; it starts small and grows towards that
+ * limit only if a cascade needs it to, so that very large minefields don't pay for it up front.
+ *
+ * @author  Nicholas Parks Young
+ * @version 2026-10-16
+ */
+public class FloodFill
+{
+    private static final int INITIAL_QUEUE_SIZE = 4096;
+    
+    private final Minefield field;
+    private int[] queue;
+    private final long[] queued;
+    private final int[] adjacent = new int[8];
+    
+    /**
+     * Constructor for objects of type FloodFill.
+     *
+     * @param field The minefield this flood fill will reveal spaces in
+     */
+    protected FloodFill(Minefield field)
+    {
+        if (field == null) {
+            throw new IllegalArgumentException("field must not be null");
+        }
+        this.field = field;
+        queue = new int[Math.min(field.getSize(), INITIAL_QUEUE_SIZE)];
+        queued = new long[(int)(((long)field.getSize() + 63) >>> 6)];
+    }
+    
+    /**
+     * Reveals the space at index, and cascades outwards through any spaces with no neighbouring mines.
+     *
+     * @param index The index of the first space to reveal
+     * @return The quantity of spaces that were visited by the cascade
+     */
+    protected int revealFrom(int index)
+    {
+        queue[0] = index;
+        queued[index >>> 6] |= 1L << index;
+        int tail = cascade(0, 1);
+        clearQueued(tail);
+        return tail;
+    }
+    
+    /**
+     * Reveals several spaces in one cascade, as if each were revealed by revealFrom() in turn, but sharing
+     * one set of queued spaces, so that no space is visited twice however much their cascades overlap.
+     * A space which is already revealed, or was reached by the cascade from an earlier space, is skipped.
+     * The spaces which were not skipped are moved to the front of the array, in order.
+     *
+     * @param indices The indices of the spaces to reveal, in order
+     * @param qtyIndices How many of them there are
+     * @return The quantity of spaces which were not skipped
+     */
+    protected int revealFrom(int[] indices, int qtyIndices)
+    {
+        int tail = 0;
+        int qtyStarted = 0;
+        for (int i = 0; i < qtyIndices; i++) {
+            int index = indices[i];
+            long bit = 1L << index;
+            if ((queued[index >>> 6] & bit) != 0 || field.getStatus(index) == SpaceStatus.REVEALED) {
+                continue;
+            }
+            indices[qtyStarted++] = index;
+            queued[index >>> 6] |= bit;
+            if (tail == queue.length) {
+                queue = Arrays.copyOf(queue, (int)Math.min(field.getSize(), 2L * queue.length));
+            }
+            queue[tail] = index;
+            tail = cascade(tail, tail + 1);
+        }
+        clearQueued(tail);
+        return qtyStarted;
+    }
+    
+    /**
+     * Works through the queue until it is empty, revealing each space and queueing the neighbours of any
+     * with no neighbouring mines.
+     *
+     * @param head The position in the queue of the first space to reveal
+     * @param tail The position in the queue after the last space queued
+     * @return The position in the queue after the last space queued, once the cascade is finished
+     */
+    private int cascade(int head, int tail)
+    {
+        while (head < tail) {
+            int current = queue[head++];
+            //Reveal the current space and if it says to reveal neighbours, then queue them for processing.
+            if (field.reveal(current)) {
+                int qtyAdjacent = field.getAdjacentIndices(current, adjacent);
+                for (int i = 0; i < qtyAdjacent; i++) {
+                    int next = adjacent[i];
+                    //Don't re-add it if we've already queued it once.
+                    long bit = 1L << next;
+                    if ((queued[next >>> 6] & bit) == 0) {
+                        queued[next >>> 6] |= bit;
+                        if (tail == queue.length) {
+                            queue = Arrays.copyOf(queue, (int)Math.min(field.getSize(), 2L * queue.length));
+                        }
+                        queue[tail++] = next;
+                    }
+                }
+            }
+        }
+        return tail;
+    }
+    
+    /**
+     * Empties the set of queued spaces. Clears only the bits that were set, so the next cascade starts
+     * from an empty set without a full sweep.
+     *
+     * @param tail The position in the queue after the last space queued
+     */
+    private void clearQueued(int tail)
+    {
+        for (int i = 0; i < tail; i++) {
+            queued[queue[i] >>> 6] = 0;
+        }
+    }
+}
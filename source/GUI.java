@@ -1,16 +1,15 @@
 import java.awt.*;
 import java.awt.event.*;
 import javax.swing.*;
-import javax.swing.border.*;
-import java.util.concurrent.*;
-import java.util.Set;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
 
 /**
  * Implementation of a Graphical User Interface for the Javasweeper "Minesweeper" game implemented
  * by the GameLogic class.
  * 
  * @author  Nicholas Parks Young
- * @version 2015-04-03
+ * @version 2026-10-16
  */
 public class GUI
 {
@@ -18,14 +17,18 @@ public class GUI
     private static final String TITLE = "Javasweeper";
     private static final String VERSION = "1.0";
     
-    //Colours, borders and font sizes used in display of the minefield.
-    private static final Border WHITE_BORDER = new LineBorder(Color.WHITE, 1);
-    private static final Color HIDDEN_COLOR = new Color(34, 177, 76);
-    private static final Color REVEALED_COLOR = new Color(158, 237, 182);
-    private static final Color FLAGGED_COLOR = new Color(255, 174, 201);
-    private static final Color QUESTIONED_COLOR = new Color(255, 233, 113);
-    private static final Color ACTUAL_MINE_COLOR = new Color(128, 0, 0);
-    private static final int BASE_FONT_SIZE = 12;
+    //Changes to the game are drawn at most once per frame of this many milliseconds.
+    private static final int FRAME_MILLIS = 16;
+    
+    //The smallest the window is allowed to be.
+    private static final int MIN_WINDOW_WIDTH = 300;
+    private static final int MIN_WINDOW_HEIGHT = 200;
+    
+    //Minefields for the preset levels, generated in the background while the player chooses a level.
+    private static final BoardPool BOARD_POOL = new BoardPool(2);
+    
+    //Where the game in progress is saved, so that it can be carried on the next time the program is run.
+    private static final Path AUTOSAVE_FILE = Paths.get(System.getProperty("user.home"), ".javasweeper.sav");
     
     //The game engine this GUI is displaying
     private GameLogic gameEngine;
@@ -33,10 +36,19 @@ public class GUI
     private JFrame frame;
     //The three statistics labels
     private JLabel difficultyLabel, timerLabel, minesLeftLabel;
-    //Array containing all of the minefield squares/buttons
-    private JButton[][] minefieldButtons;
-    //Storage for the thread which refreshes the time elapsed asynchronously
-    private ScheduledFuture<?> statsRefresher;
+    //The component which draws the minefield, and the consumer which repaints stale regions of it
+    private MinefieldComponent minefieldComponent;
+    private RegionConsumer staleRegionRepainter;
+    //What has changed since the last frame was drawn, the timer which draws the next frame, and when the
+    //last frame was drawn, from System.nanoTime()
+    private boolean fieldStale, countersStale;
+    private Timer frameTimer;
+    private long lastFrameTime;
+    //The timer which shows the time elapsed each time it reaches a new second, and the time shown
+    private Timer clockTimer;
+    private long shownPlayTime = -1;
+    //Saves the game in the background after every move
+    private AutoSave autoSave;
     
     /**
      * The main entry point into this program. Run this function to play Javasweeper!
@@ -61,26 +73,171 @@ public class GUI
      */
     public GUI()
     {
-        //Allow player to choose what level of difficulty
-        GameLevel level = chooseLevel();
-        if (level == null) {
-            quitProgram();  //If they pressed cancel, kill the program.
+        //Offer to carry on the last game, if it was not finished.
+        gameEngine = chooseSavedGame();
+        if (gameEngine == null) {
+            //Allow player to choose what level of difficulty
+            GameLevel level = chooseLevel();
+            if (level == null) {
+                quitProgram();  //If they pressed cancel, kill the program.
+            }
+            
+            //create the game engine for that level of difficulty.
+            if (level.isCustom()) {
+                gameEngine = chooseCustomGame();
+                if (gameEngine == null) {
+                    quitProgram();  //If they pressed cancel, kill the program.
+                }
+            } else {
+                gameEngine = BOARD_POOL.newGame(level);
+            }
         }
-        
-        //create the game engine for that level of difficulty.
-        gameEngine = new GameLogic(level);
+        autoSave = new AutoSave(gameEngine, AUTOSAVE_FILE);
+        gameEngine.setUndoLimit(UndoJournal.DEFAULT_LIMIT);
         
         //create the GUI proper
-        makePrimaryFrame(gameEngine.getWidth(), gameEngine.getHeight());
-        
-        //Setup stats autorefresher - every 250ms should be enough.
-        Runnable statsRefresh = new Runnable() {
+        makeTimers();
+        makePrimaryFrame();
+        listenToGame();
+        startClock();
+    }
+    
+    /**
+     * Setup the timers which draw frames and tick the clock. Both are Swing timers, so they run on the
+     * event dispatch thread along with everything else that touches the GUI, and both only run when
+     * there is something to do: neither wakes up while nothing is changing.
+     */
+    private void makeTimers()
+    {
+        frameTimer = new Timer(FRAME_MILLIS, new ActionListener() {
             @Override
-            public void run() {
-                refreshStatsBar();
-            }};
-        ScheduledExecutorService executor = Executors.newScheduledThreadPool(1);
-        statsRefresher = executor.scheduleAtFixedRate(statsRefresh, 0, 250, TimeUnit.MILLISECONDS);
+            public void actionPerformed(ActionEvent e) {
+                drawFrame();
+            }});
+        frameTimer.setRepeats(false);
+        //As if a frame had been drawn just long enough ago for the first to be drawn straight away.
+        lastFrameTime = System.nanoTime() - (FRAME_MILLIS * 1000000L);
+        clockTimer = new Timer(1000, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                tickClock();
+            }});
+        clockTimer.setRepeats(false);
+    }
+    
+    /**
+     * Setup the listener which keeps the GUI up to date with the game engine: it is told about the changes
+     * made by every move, however the move was made - a click, a chord, or undo and redo.
+     */
+    private void listenToGame()
+    {
+        gameEngine.addGameListener(new GameListener() {
+            @Override
+            public void spacesChanged(GameLogic game, int[] indices, int qtyChanged) {
+                fieldStale = true;
+                requestFrame();
+            }
+            
+            @Override
+            public void countersChanged(GameLogic game) {
+                countersStale = true;
+                requestFrame();
+            }
+            
+            @Override
+            public void gameWon(GameLogic game) {
+                gameOverLater();
+            }
+            
+            @Override
+            public void gameLost(GameLogic game) {
+                gameOverLater();
+            }
+            
+            /**
+             * The game is told about during the move that ended it, so deal with it once the move is over.
+             */
+            private void gameOverLater() {
+                SwingUtilities.invokeLater(new Runnable() {
+                    @Override
+                    public void run() {
+                        gameOver();
+                    }});
+            }
+        });
+    }
+    
+    /**
+     * Asks for the changes to the game to be drawn in the next frame - straight away, if no frame has been
+     * drawn for FRAME_MILLIS, so that a single click is drawn as soon as possible. However many moves are
+     * made before then, the frame draws them all at once.
+     */
+    private void requestFrame()
+    {
+        if (!frameTimer.isRunning()) {
+            long sinceLastFrame = (System.nanoTime() - lastFrameTime) / 1000000;
+            //Clamped before narrowing, in case the clock has done anything odd.
+            long delay = Math.min(FRAME_MILLIS, Math.max(0, FRAME_MILLIS - sinceLastFrame));
+            frameTimer.setInitialDelay((int)delay);
+            frameTimer.start();
+        }
+    }
+    
+    /**
+     * Draws a frame: repaints the parts of the minefield that have changed, and updates the quantity of
+     * mines left, if it has changed.
+     */
+    private void drawFrame()
+    {
+        frameTimer.stop();
+        lastFrameTime = System.nanoTime();
+        if (fieldStale) {
+            fieldStale = false;
+            refreshField();
+        }
+        if (countersStale) {
+            countersStale = false;
+            refreshMinesLeft();
+        }
+    }
+    
+    /**
+     * Shows the time elapsed, and starts the clock ticking.
+     */
+    private void startClock()
+    {
+        clockTimer.stop();
+        tickClock();
+    }
+    
+    /**
+     * Shows the time elapsed, and sets the clock to tick again when it reaches the next second - unless
+     * the game is over, or the window is minimised, as then there is no point.
+     */
+    private void tickClock()
+    {
+        refreshTime();
+        boolean minimised = (frame.getExtendedState() & Frame.ICONIFIED) != 0;
+        if (gameEngine.getGameInProgress() && !minimised) {
+            clockTimer.setInitialDelay(1000 - (int)(gameEngine.getPlayMillis() % 1000));
+            clockTimer.start();
+        }
+    }
+    
+    /**
+     * The action to do when Ctrl+Z is pressed: undo the latest move.
+     */
+    private void undoMove()
+    {
+        gameEngine.undo();
+    }
+    
+    /**
+     * The action to do when Ctrl+Y is pressed: redo the latest move that was undone.
+     */
+    private void redoMove()
+    {
+        gameEngine.redo();
     }
     
     /**
@@ -92,7 +249,6 @@ public class GUI
     private void buttonLeftClick(int x, int y)
     {
         gameEngine.revealAt(x, y);
-        refreshEverything();
     }
     
     /**
@@ -104,28 +260,92 @@ public class GUI
     private void buttonRightClick(int x, int y)
     {
         gameEngine.toggleStatusOfSquare(x, y);
-        refreshEverything();
     }
     
     /**
-     * Setup the frame that contains the actual minefield GUI representation.
+     * The action to do when a revealed space is middle-clicked, or clicked with both buttons: reveal all
+     * its neighbours that are not flagged, if it has as many flags around it as neighbouring mines.
      * 
-     * @param width how wide the minefield is in spaces
-     * @param height how high the minefield is in spaces
-     * @return The created JPanel containing the grid of buttons.
+     * @param x the x-coordinate of the space that was clicked
+     * @param y the y-coordinate of the space that was clicked
      */
-    private JPanel makeFieldFrame(int width, int height)
+    private void buttonChordClick(int x, int y)
     {
-        JPanel minefieldPanel = new JPanel();
-        minefieldPanel.setLayout(new GridLayout(height, width));
+        gameEngine.chordAt(x, y);
+    }
+    
+    /**
+     * Setup the component that displays the minefield, and the single mouse listener which works out
+     * which space was clicked on and calls the buttonLeftClick, buttonRightClick or buttonChordClick
+     * method as appropriate.
+     * 
+     * A click only counts if the mouse button was pressed and released over the minefield. A left or right
+     * click only counts on a space which is not yet revealed, and a chord - a middle click, or both buttons
+     * pressed together - only on a space which is.
+     * 
+     * The component is placed in a scroll pane, so that minefields larger than the screen can be panned
+     * around, and only the visible part of the minefield is ever drawn.
+     * 
+     * @return The created scroll pane containing the minefield.
+     */
+    private JComponent makeFieldFrame()
+    {
+        minefieldComponent = new MinefieldComponent(gameEngine);
+        staleRegionRepainter = new RegionConsumer() {
+            @Override
+            public void accept(int x, int y, int width, int height) {
+                minefieldComponent.repaintSpaces(x, y, width, height);
+            }};
         
-        minefieldButtons = new JButton[width][height];
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                createMinefieldButton(minefieldPanel, x, y);
+        //Setup the listener so that the minefield will respond to left-, right- and middle-mouse clicks
+        minefieldComponent.addMouseListener(new MouseAdapter() {
+            private boolean buttonPressed = false;
+            private boolean chording = false;
+            
+            @Override
+            public void mousePressed(MouseEvent e)
+            {
+                buttonPressed = true;
+                int bothButtons = InputEvent.BUTTON1_DOWN_MASK | InputEvent.BUTTON3_DOWN_MASK;
+                if (SwingUtilities.isMiddleMouseButton(e) || (e.getModifiersEx() & bothButtons) == bothButtons) {
+                    chording = true;
+                }
             }
-        }
-        return minefieldPanel;
+            
+            @Override
+            public void mouseReleased(MouseEvent e)
+            {
+                Location location = minefieldComponent.getLocationAt(e.getX(), e.getY());
+                //Only act if the button was pressed over the minefield, and the game is not already over -
+                //the player may click again before the game over message comes up.
+                if (buttonPressed && location != null && gameEngine.getGameInProgress()) {
+                    boolean revealed = gameEngine.getSquareAt(location).getStatus() == SpaceStatus.REVEALED;
+                    if (chording) {
+                        if (revealed) {
+                            buttonChordClick(location.getX(), location.getY());
+                        }
+                    } else if (!revealed) {
+                        if (SwingUtilities.isRightMouseButton(e)) {
+                            //right mouse button is clicked
+                            buttonRightClick(location.getX(), location.getY());
+                        } else {
+                            //left mouse button clicked
+                            buttonLeftClick(location.getX(), location.getY());
+                        }
+                    }
+                }
+                //Releasing the first button of a chord finishes it, so releasing the other does nothing.
+                buttonPressed = false;
+                chording = false;
+            }
+            
+            @Override
+            public void mouseExited(MouseEvent e) {
+                buttonPressed = false;
+                chording = false;
+            }
+        });
+        return new JScrollPane(minefieldComponent);
     }
     
     /**
@@ -152,162 +372,104 @@ public class GUI
     
     /**
      * Setup the GUI, including subcomponents like the statistics bar and minefield display.
-     * 
-     * @param width how wide the minefield is in spaces
-     * @param height how high the minefield is in spaces
      */
-    private void makePrimaryFrame(int x, int y)
+    private void makePrimaryFrame()
     {
         //Deal with the root panel.
         frame = new JFrame(TITLE + " " + VERSION);
         Container pane = frame.getContentPane();
         pane.setLayout(new BorderLayout());
-        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        //Finish saving the game before quitting.
+        frame.setDefaultCloseOperation(JFrame.DO_NOTHING_ON_CLOSE);
+        frame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                autoSave.close();
+                quitProgram();
+            }
+            
+            @Override
+            public void windowIconified(WindowEvent e) {
+                clockTimer.stop();
+            }
+            
+            @Override
+            public void windowDeiconified(WindowEvent e) {
+                startClock();
+            }});
        
+        //Ctrl+Z and Ctrl+Y undo and redo moves, wherever the focus is.
+        JRootPane root = frame.getRootPane();
+        int menuMask = Toolkit.getDefaultToolkit().getMenuShortcutKeyMaskEx();
+        root.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(KeyEvent.VK_Z, menuMask), "undo");
+        root.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(KeyEvent.VK_Y, menuMask), "redo");
+        root.getActionMap().put("undo", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                undoMove();
+            }});
+        root.getActionMap().put("redo", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                redoMove();
+            }});
+        
         //Make the statistics panel
         pane.add(makeStatsFrame(), BorderLayout.NORTH);
         //Make the minefield panel
-        pane.add(makeFieldFrame(x, y), BorderLayout.CENTER);
+        pane.add(makeFieldFrame(), BorderLayout.CENTER);
         
         //get everything to appropriate initial values
         refreshEverything();
         
-        //restrict the minimum size of the window based on the field size.
-        frame.setMinimumSize(new Dimension(30*x, (30*y)+30));
+        //restrict the minimum size of the window, and don't let it start off bigger than the screen - the
+        //minefield can be scrolled and zoomed if it doesn't fit.
+        frame.setMinimumSize(new Dimension(MIN_WINDOW_WIDTH, MIN_WINDOW_HEIGHT));
+        frame.pack();
+        Rectangle screen = GraphicsEnvironment.getLocalGraphicsEnvironment().getMaximumWindowBounds();
+        frame.setSize(Math.min(frame.getWidth(), screen.width), Math.min(frame.getHeight(), screen.height));
         
         //display the GUI!
-        frame.pack();
+        frame.setLocationRelativeTo(null);
         frame.setVisible(true);
     }
     
     /**
-     * Creates an individual minefield space (as a button), sets up some initial values,
-     * and adds it to the panel passed to it. The button will also have a listener setup
-     * so it can respond to left- and right-clicks which will trigger the appropriate
-     * buttonLeftClick and buttonRightClick methods, provided the button itself is enabled.
-     * 
-     * All of the buttons will be stored in the appropriate location within the minefieldButtons[][]
-     * array, for later access. The x and y coordinates are passed to the button*Click() methods
-     * when the button is clicked, so that the methods know which button the user clicked on.
-     * 
-     * @param panel The parent container which the button should be added to.
-     * @param x The x-coordinate of the button.
-     * @param y The y-coordinate of the button.
+     * Updates the displayed minefield, by fetching the regions containing stale spaces from the game
+     * engine, and then asking for just those regions to be repainted.
      */
-    private void createMinefieldButton(Container panel, int x, int y)
+    private void refreshField()
     {
-        //Create the button and add it to the panel and the minefieldButtons array for later retrieval.
-        JButton button = new JButton();
-        panel.add(button);
-        minefieldButtons[x][y] = button;
-        
-        //Make the button look right.
-        button.setOpaque(true);
-        button.setBorder(WHITE_BORDER);
-        button.setBorderPainted(true);
-        button.setMargin(new Insets(0, 0, 0, 0));
-        button.setBackground(HIDDEN_COLOR);
-        button.setForeground(Color.BLACK);
-        button.setFont(new Font("Arial", Font.PLAIN, BASE_FONT_SIZE));
-        
-        //Setup the listener so that the button will respond to left- and right-mouse clicks
-        button.addMouseListener(new MouseAdapter() {
-            private boolean buttonPressed = false;
-            
-            @Override
-            public void mousePressed(MouseEvent e)
-            {
-                button.getModel().setArmed(true);
-                button.getModel().setPressed(true);
-                buttonPressed = true;
-            }
-            
-            @Override
-            public void mouseReleased (MouseEvent e)
-            {
-                button.getModel().setArmed(false);
-                button.getModel().setPressed(false);
-                //Only act if the button is pressed, and also enabled.
-                if (buttonPressed && button.isEnabled()) {
-                    if (SwingUtilities.isRightMouseButton(e)) {
-                        //right mouse button is clicked
-                        buttonRightClick(x, y);
-                    } else {
-                        //left mouse button clicked
-                        buttonLeftClick(x, y);
-                    }
-                }
-                buttonPressed = false;
-            }
-            
-            @Override
-            public void mouseExited(MouseEvent e) {
-                buttonPressed = false;
-            }
-            
-            @Override
-            public void mouseEntered(MouseEvent e) {
-                buttonPressed = true;
-            }
-        });
-
+        gameEngine.drainStaleRegions(staleRegionRepainter);
     }
     
     /**
-     * Updates the displayed minefield, by fetching a list of stale spaces from the game engine,
-     * and then iteratively updating the relevant buttons as appropriate.
+     * Refresh only the statistics bar
      */
-    private void refreshField()
+    private void refreshStatsBar()
     {
-        Set<Location> staleLocations = gameEngine.getStaleLocations();
-        for (Location sl : staleLocations) {
-            Square square = gameEngine.getSquareAt(sl);
-            switch (square.getStatus()) {
-                case HIDDEN:    //square is currently hidden
-                    minefieldButtons[sl.getX()][sl.getY()].setText("");
-                    minefieldButtons[sl.getX()][sl.getY()].setBackground(HIDDEN_COLOR);
-                    break;
-                case FLAGGED:   //square is currently flagged
-                    minefieldButtons[sl.getX()][sl.getY()].setText("F");
-                    minefieldButtons[sl.getX()][sl.getY()].setBackground(FLAGGED_COLOR);
-                    break;
-                case QUESTIONED:    //square is currently makred as questionable
-                    minefieldButtons[sl.getX()][sl.getY()].setText("?");
-                    minefieldButtons[sl.getX()][sl.getY()].setBackground(QUESTIONED_COLOR);
-                    break;
-                case REVEALED:  //square is revealed
-                default:
-                    //revealed squares can never be clicked
-                    minefieldButtons[sl.getX()][sl.getY()].setEnabled(false);
-                    minefieldButtons[sl.getX()][sl.getY()].setBackground(REVEALED_COLOR);
-                    
-                    if (square.isMine()) {
-                        //if the square is a mine, we stop here.
-                        minefieldButtons[sl.getX()][sl.getY()].setText("M");
-                        minefieldButtons[sl.getX()][sl.getY()].setBackground(ACTUAL_MINE_COLOR);
-                        minefieldButtons[sl.getX()][sl.getY()].setForeground(Color.WHITE);
-                    } else {
-                        //if its not a mine, show the adjacent mines number, except if its zero in which case
-                        //leave it blank.
-                        if (square.getQtyNeighbourMines() == 0) {
-                            minefieldButtons[sl.getX()][sl.getY()].setText("");
-                        } else {
-                            minefieldButtons[sl.getX()][sl.getY()].setText(Short.toString(square.getQtyNeighbourMines()));
-                            //As the number of neighbouring mines gets larger, also make the display font correspondingly larger.
-                            minefieldButtons[sl.getX()][sl.getY()].setFont(new Font("Arial", Font.PLAIN, BASE_FONT_SIZE + (square.getQtyNeighbourMines() * 2)));
-                        }
-                    }
-            }
+        difficultyLabel.setText("Difficulty: " + gameEngine.getLevel().toString() + ".");
+        refreshTime();
+        refreshMinesLeft();
+    }
+    
+    /**
+     * Refresh only the time elapsed, if the second it shows has changed.
+     */
+    private void refreshTime()
+    {
+        long playTime = gameEngine.getPlayTime();
+        if (playTime != shownPlayTime) {
+            shownPlayTime = playTime;
+            timerLabel.setText("Time Elapsed: " + playTime + "s.");
         }
     }
     
     /**
-     * Refresh only the statistics bar
+     * Refresh only the quantity of mines left.
      */
-    private void refreshStatsBar()
+    private void refreshMinesLeft()
     {
-        difficultyLabel.setText("Difficulty: " + gameEngine.getLevel().toString() + ".");
-        timerLabel.setText("Time Elapsed: " + gameEngine.getPlayTime() + "s.");
         minesLeftLabel.setText("Unflagged Mines: " + gameEngine.getQtyMinesRemaining() + ".");
     }
     
@@ -319,7 +481,7 @@ public class GUI
     {
         refreshField();
         refreshStatsBar();
-
+        
         //Check to see if the game has finished
         if (!gameEngine.getGameInProgress()) {
             gameOver();
@@ -329,12 +491,42 @@ public class GUI
     /**
      * Called when the game engine has reported that the game has finished. Stop the stats refresh timer
      * (so that the elapsed time displayed remains fixed), determine if the player won or lost and display
-     * an appropriate congratulatory or commiserative message, then terminate the program.
+     * an appropriate congratulatory or commiserative message, then terminate the program. A player who
+     * lost may undo the losing move instead, and carry on.
      */
     private void gameOver()
     {
-        //Stop the stats bar refresher - there's no point no as the game's over.
-        statsRefresher.cancel(false);
+        //Stop the clock - there's no point now as the game's over - and draw the last move before saying so.
+        clockTimer.stop();
+        drawFrame();
+        refreshTime();
+        
+        if (!gameEngine.getGameWon() && gameEngine.canUndo()) {
+            Object[] options = {"Undo", "Quit"};
+            int answer = JOptionPane.showOptionDialog(
+                frame,
+                "Too bad, you lost.",
+                "Game Over",
+                JOptionPane.DEFAULT_OPTION,
+                JOptionPane.INFORMATION_MESSAGE,
+                null,
+                options,
+                options[1]
+                );
+            if (answer == 0) {
+                gameEngine.undo();
+                startClock();
+                return;
+            }
+        }
+        
+        //A finished game cannot be carried on, so there is no point keeping it.
+        autoSave.close();
+        try {
+            SavedGame.delete(AUTOSAVE_FILE);
+        } catch (UncheckedIOException e) {
+            //It will be ignored next time anyway, as it is finished.
+        }
         
         //Determine if the player won or lost.
         String message;
@@ -344,18 +536,50 @@ public class GUI
             message = "Too bad, you lost.";
         }
         
-        //Tell the player if they won or lost.
-        JOptionPane.showMessageDialog(
-            frame,
-            message,
-            "Game Over",
-            JOptionPane.INFORMATION_MESSAGE
-            );
+        //Tell the player if they won or lost - unless they have already been told.
+        if (gameEngine.getGameWon() || !gameEngine.canUndo()) {
+            JOptionPane.showMessageDialog(
+                frame,
+                message,
+                "Game Over",
+                JOptionPane.INFORMATION_MESSAGE
+                );
+        }
         
         //All done.
         quitProgram();
     }
     
+    /**
+     * If there is a saved game which was not finished, asks the user whether to carry it on.
+     * 
+     * @return the saved game, or null if there is none or the user wants a new game
+     */
+    private GameLogic chooseSavedGame()
+    {
+        if (!Files.exists(AUTOSAVE_FILE)) {
+            return null;
+        }
+        GameLogic savedGame;
+        try {
+            savedGame = SavedGame.load(AUTOSAVE_FILE);
+        } catch (UncheckedIOException | IllegalArgumentException e) {
+            return null;    //Can't be carried on, so start a new game - which will replace it.
+        }
+        if (!savedGame.getGameInProgress()) {
+            return null;
+        }
+        
+        int answer = JOptionPane.showConfirmDialog(
+            null,
+            "Welcome back to " + TITLE + "!\nWould you like to carry on your last game?",
+            "Carry on?",
+            JOptionPane.YES_NO_OPTION,
+            JOptionPane.QUESTION_MESSAGE
+            );
+        return (answer == JOptionPane.YES_OPTION) ? savedGame : null;
+    }
+    
     /**
      * Displays a dialog box from which the user will choose what level of difficulty they want from
      * a list of available options. If the user cancels this dialog box, returns null.
@@ -385,4 +609,60 @@ public class GUI
         return null;
     }
     
+    /**
+     * Displays a dialog box in which the user chooses the width, height and quantity of mines for a
+     * custom game, and creates the game engine for it. If the numbers entered do not make a valid
+     * minefield, the user is told why and asked again. If the user cancels this dialog box, returns null.
+     * 
+     * @return the game engine for the custom game, or null
+     */
+    private GameLogic chooseCustomGame()
+    {
+        SpinnerNumberModel widthModel = new SpinnerNumberModel(GameLevel.HARD.getFieldWidth(), 1, Integer.MAX_VALUE, 1);
+        SpinnerNumberModel heightModel = new SpinnerNumberModel(GameLevel.HARD.getFieldHeight(), 1, Integer.MAX_VALUE, 1);
+        SpinnerNumberModel minesModel = new SpinnerNumberModel(GameLevel.HARD.getQuantityOfMines(), 1, Integer.MAX_VALUE, 1);
+        
+        JPanel panel = new JPanel(new GridLayout(3, 2, 5, 5));
+        panel.add(new JLabel("Width:"));
+        panel.add(new JSpinner(widthModel));
+        panel.add(new JLabel("Height:"));
+        panel.add(new JSpinner(heightModel));
+        panel.add(new JLabel("Mines:"));
+        panel.add(new JSpinner(minesModel));
+        
+        while (true) {
+            int answer = JOptionPane.showConfirmDialog(
+                null,
+                panel,
+                "Custom game",
+                JOptionPane.OK_CANCEL_OPTION,
+                JOptionPane.QUESTION_MESSAGE
+                );
+            if (answer != JOptionPane.OK_OPTION) {
+                return null;
+            }
+            
+            int width = widthModel.getNumber().intValue();
+            int height = heightModel.getNumber().intValue();
+            int mines = minesModel.getNumber().intValue();
+            
+            //Check the numbers make sense before trying to build a minefield out of them.
+            String problem = null;
+            if ((long)width * height > Minefield.MAX_SIZE) {
+                problem = "The minefield can have at most " + Minefield.MAX_SIZE + " spaces.";
+            } else if (mines > width * height) {
+                problem = "There are more mines than spaces in the minefield.";
+            }
+            
+            if (problem == null) {
+                try {
+                    return new GameLogic(width, height, mines);
+                } catch (OutOfMemoryError e) {
+                    problem = "There is not enough memory for a minefield that large.";
+                }
+            }
+            JOptionPane.showMessageDialog(null, problem, "Custom game", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+    
 }
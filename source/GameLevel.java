@@ -2,26 +2,28 @@
  * Enumeration of possible game levels and some related utility methods.
  * 
  * @author  Nicholas Parks Young
- * @version 2015-04-02
+ * @version 2026-10-16
  */
 public enum GameLevel
 {
-    SUPEREASY("Super Easy", 0, 9, 9, (short)4),
-    EASY("Easy", 1, 9, 9, (short)9), 
-    MODERATE("Moderate", 2, 16, 16, (short)40), 
-    HARD("Hard", 3, 30, 16, (short)99);   
+    SUPEREASY("Super Easy", 0, 9, 9, 4),
+    EASY("Easy", 1, 9, 9, 9), 
+    MODERATE("Moderate", 2, 16, 16, 40), 
+    HARD("Hard", 3, 30, 16, 99),
+    //The size and quantity of mines of a custom level are chosen by the player, so they are zero here.
+    CUSTOM("Custom", 4, 0, 0, 0);
     
     private String description;
     private int levelNumber;
     private int fieldWidth;
     private int fieldHeight;
-    private short quantityOfMines;
+    private int quantityOfMines;
     
     /**
      * Constructor for game level objects. Sets up the human-readable description
      * and the level number.
      */
-    private GameLevel(String description, int levelNumber, int fieldWidth, int fieldHeight, short quantityOfMines)
+    private GameLevel(String description, int levelNumber, int fieldWidth, int fieldHeight, int quantityOfMines)
     {
         this.description = description;
         this.levelNumber = levelNumber;
@@ -41,7 +43,7 @@ public enum GameLevel
     /**
      * @return the width of the number of mines in the minefield for this level
      */
-    public short getQuantityOfMines()
+    public int getQuantityOfMines()
     {
         return quantityOfMines;
     }
@@ -62,6 +64,14 @@ public enum GameLevel
         return description;
     }
     
+    /**
+     * @return True if this is the CUSTOM level, whose size and quantity of mines are chosen by the player.
+     */
+    public boolean isCustom()
+    {
+        return this == CUSTOM;
+    }
+    
     /**
      * @return level number as integer.
      */
@@ -0,0 +1,49 @@
+/**
+ * Told about the changes each move makes to a GameLogic, once the move is over - for example, to redraw
+ * the spaces that changed, update a display of the mines remaining, or send the changes over a network.
+ * Any number of listeners can share one game's changes, and none of them needs to poll the game or
+ * drain its stale spaces to find them.
+ *
+ * Undoing or redoing a move counts as a move. The listeners are called on the thread which made the move,
+ * in the order they were added, and must not make moves themselves.
+ *
+ * @author  Nicholas Parks Young
+ * @version 2026-10-16
+ */
+public interface GameListener
+{
+    /**
+     * Called once per move which changed the status of any spaces, with all the spaces it changed. Each
+     * space is listed once, however many times the move changed it.
+     *
+     * @param game The game
+     * @param indices The index of each space which changed, where the index of the space at X,Y is
+     *                (Y * game.getWidth()) + X. The array is reused for the next move, so it must not
+     *                be changed, nor kept after this method returns.
+     * @param qtyChanged How many of the indices are in use, from the start of the array
+     */
+    void spacesChanged(GameLogic game, int[] indices, int qtyChanged);
+    
+    /**
+     * Called once per move which changed the quantity of mines remaining or the quantity of spaces not yet
+     * revealed, after spacesChanged(). The new values can be had from the game.
+     *
+     * @param game The game
+     */
+    void countersChanged(GameLogic game);
+    
+    /**
+     * Called after the move which won the game, after spacesChanged() and countersChanged().
+     *
+     * @param game The game
+     */
+    void gameWon(GameLogic game);
+    
+    /**
+     * Called after the move which lost the game, after spacesChanged() and countersChanged(). If that move
+     * is undone, the game is in progress again.
+     *
+     * @param game The game
+     */
+    void gameLost(GameLogic game);
+}
@@ -1,6 +1,6 @@
-import java.util.LinkedList;
+import java.util.Collection;
 import java.util.Set;
-import java.util.ListIterator;
+import java.util.function.IntConsumer;
 
 /**
  * Primary API interface for the Javasweeper game engine.
@@ -11,16 +11,25 @@ import java.util.ListIterator;
  * such as revealing a space and determining if the player has won or lost.
  * 
  * @author  Nicholas Parks Young
- * @version 2015-04-03
+ * @version 2026-10-16
  */
 public class GameLogic
 {
     private Minefield field;
     private MinefieldStats stats;
+    private FloodFill floodFill;
     private GameLevel gameLevel;
     private boolean gameInProgress;
     private boolean gameWon;
     private long playTime = 0;
+    //The record of this game's moves, if it is being recorded.
+    private MoveLog.Recording recording;
+    //What hands the changes made by each move to the GameListeners, if there are any.
+    private ChangeFeed feed;
+    //Created when first asked for.
+    private BoardView boardView;
+    //The record of moves that can be undone and redone, if undo is enabled.
+    private UndoJournal undoJournal;
     
     /**
      * Constructor for objects of type GameLogic.
@@ -29,84 +38,446 @@ public class GameLogic
      * according to the passed in difficulty.
      * 
      * @param level The difficulty level desired for this game
+     * @throws IllegalArgumentException if level is GameLevel.CUSTOM - use GameLogic(int, int, int) instead
      */
     public GameLogic(GameLevel level)
     {
-        field = new Minefield(level.getFieldWidth(), level.getFieldHeight(), level.getQuantityOfMines());
+        this(presetLevel(level), level.getFieldWidth(), level.getFieldHeight(), level.getQuantityOfMines());
+    }
+    
+    /**
+     * Constructor for objects of type GameLogic.
+     * 
+     * Creates a new Javasweeper (minesweeper) game engine instance with a minefield of the given size,
+     * at the GameLevel.CUSTOM difficulty.
+     * 
+     * @param width The width of the minefield
+     * @param height The height of the minefield
+     * @param quantityOfMines How many mines to hide in the minefield
+     */
+    public GameLogic(int width, int height, int quantityOfMines)
+    {
+        this(GameLevel.CUSTOM, width, height, quantityOfMines);
+    }
+    
+    /**
+     * Checks that level is one of the preset levels, whose size and quantity of mines are known.
+     * 
+     * @param level The level to check
+     * @return level, unchanged
+     * @throws IllegalArgumentException if level is GameLevel.CUSTOM
+     */
+    private static GameLevel presetLevel(GameLevel level)
+    {
+        if (level.isCustom()) {
+            throw new IllegalArgumentException("custom games must be given a width, height and quantity of mines");
+        }
+        return level;
+    }
+    
+    /**
+     * Creates the minefield and everything that goes with it.
+     * 
+     * @param level The difficulty level of this game
+     * @param width The width of the minefield
+     * @param height The height of the minefield
+     * @param quantityOfMines How many mines to hide in the minefield
+     */
+    private GameLogic(GameLevel level, int width, int height, int quantityOfMines)
+    {
+        this(level, new Minefield(width, height, quantityOfMines));
+    }
+    
+    /**
+     * Creates a game engine instance which plays on a minefield that has already been prepared,
+     * e.g. one generated from a known seed for a benchmark or simulation.
+     * 
+     * @param level The difficulty level of this game
+     * @param field The minefield to play on, which should not have been played on yet
+     */
+    protected GameLogic(GameLevel level, Minefield field)
+    {
+        if (field == null) {
+            throw new IllegalArgumentException("field must not be null");
+        }
+        this.field = field;
         stats = new MinefieldStats(field);
-        stats.refresh();
+        floodFill = new FloodFill(field);
         
         gameInProgress = true;
         gameWon = false;
         gameLevel = level;
     }
-
+    
     /**
-     * Wrapper method for the revealAt(Location location) method for use with X,Y coordinates
+     * Creates a game engine instance which carries on a game that was saved.
      * 
-     * @param x The X-coordinate of the space to reveal
-     * @param y The Y-coordinate of the space to reveal
+     * @param level The difficulty level of this game
+     * @param field The minefield as it was when the game was saved
+     * @param gameInProgress True if the game had not finished
+     * @param gameWon True if the game had been won
+     * @param playMillis How long the game had been played for, in milliseconds
      */
-    public void revealAt(int x, int y)
+    protected GameLogic(GameLevel level, Minefield field, boolean gameInProgress, boolean gameWon, long playMillis)
     {
-        revealAt(new Location(x, y));
+        this(level, field);
+        this.gameInProgress = gameInProgress;
+        this.gameWon = gameWon;
+        stats.setRunningTime(playMillis);
+        playTime = playMillis / 1000;
     }
     
     /**
-     * Wrapper method for the revealAt(Location location) method for use with X,Y coordinates
+     * Wrapper method for the revealAt(int x, int y) method for use with Location objects
      *
      * @param location The location to reveal
-     * @throws IllegalStateException if the space you want to reveal is already revealed
+     * @throws IllegalStateException if the space you want to reveal is already revealed, or the game is over
      */
     public void revealAt(Location location)
     {
-        if (field.getObjectAt(location).getStatus() == SpaceStatus.REVEALED) {
+        revealAt(location.getX(), location.getY());
+    }
+    
+    /**
+     * Reveals the space at the coordinate X,Y. If it has no neighbouring mines, its neighbours are
+     * revealed as well, and so on. Afterwards, checks whether the player has won or lost.
+     * 
+     * @param x The X-coordinate of the space to reveal
+     * @param y The Y-coordinate of the space to reveal
+     * @throws IllegalStateException if the space you want to reveal is already revealed, or the game is over
+     */
+    public void revealAt(int x, int y)
+    {
+        int index = field.toIndex(x, y);
+        if (!gameInProgress) {
+            throw new IllegalStateException("Cannot make a move after the game is over");
+        }
+        if (field.getStatus(index) == SpaceStatus.REVEALED) {
             throw new IllegalStateException("Cannot reavel a location that is already revealed");
         }
+        if (undoJournal != null) {
+            undoJournal.beginMove(getState());
+        }
         
-        //We'll need this...
-        LinkedList<Location> spacesToReveal = new LinkedList<Location>();
-        LinkedList<Location> spacesRevealed = new LinkedList<Location>();
-        //Add the location we're revealing to the list of locations to be revealed.
-        spacesToReveal.add(location);
-        
-        while (!spacesToReveal.isEmpty()) {
-            //For each location in said list, reveal it.
-            ListIterator<Location> i = spacesToReveal.listIterator();
-            while (i.hasNext()) {
-                Location currentLocation = i.next();
-                //Remove the location from the list, so we don't get trapped in an infinite loop :S
-                i.remove();
-                spacesRevealed.add(currentLocation);
-                //Reveal the current location and if it says to reveal neighbours, then we'll add them
-                //to the list for processing recursively.
-                if (field.getObjectAt(currentLocation).reveal()) {
-                    for (Location recurseLocation : field.getAdjacentLocations(currentLocation)) {
-                        //Don't re-add it if we've already processed it once.
-                        if (!spacesRevealed.contains(recurseLocation)) {
-                            i.add(recurseLocation);
-                        }
-                    }
-                }
+        floodFill.revealFrom(index);
+        if (recording != null) {
+            recording.recordMove(index, true);
+        }
+        finishMove();
+    }
+    
+    /**
+     * Wrapper method for the chordAt(int x, int y) method for use with Location objects
+     *
+     * @param location The location to chord on
+     * @return True if any spaces were revealed
+     */
+    public boolean chordAt(Location location)
+    {
+        return chordAt(location.getX(), location.getY());
+    }
+    
+    /**
+     * Chords on the space at the coordinate X,Y: if it is a revealed space with as many flagged neighbours
+     * as it has neighbouring mines, every neighbour which is neither flagged nor revealed is revealed, as
+     * one move. If the flags are wrong, that may well reveal a mine. If the space is not revealed, or its
+     * neighbouring mines are not all flagged, nothing happens.
+     *
+     * @param x The X-coordinate of the space to chord on
+     * @param y The Y-coordinate of the space to chord on
+     * @return True if any spaces were revealed
+     * @throws IllegalStateException if the game is over
+     */
+    public boolean chordAt(int x, int y)
+    {
+        int index = field.toIndex(x, y);
+        if (!gameInProgress) {
+            throw new IllegalStateException("Cannot make a move after the game is over");
+        }
+        if (field.getStatus(index) != SpaceStatus.REVEALED) {
+            return false;
+        }
+        int[] adjacent = new int[8];
+        int qtyAdjacent = field.getAdjacentIndices(index, adjacent);
+        int qtyFlagged = 0;
+        int qtyToReveal = 0;
+        for (int i = 0; i < qtyAdjacent; i++) {
+            SpaceStatus status = field.getStatus(adjacent[i]);
+            if (status == SpaceStatus.FLAGGED) {
+                qtyFlagged++;
+            } else if (status != SpaceStatus.REVEALED) {
+                adjacent[qtyToReveal++] = adjacent[i];
             }
         }
-        
-        //Update the statistics, since we've just changed something.
-        stats.refresh();
+        if (qtyFlagged != field.getQtyNeighbourMines(index) || qtyToReveal == 0) {
+            return false;
+        }
+        makeMoves(null, 0, adjacent, qtyToReveal);
+        return true;
+    }
+    
+    /**
+     * Reveals many spaces as one move, as if revealAt() were called for each in turn - but with one
+     * combined cascade, and the game's statistics, autosave and undo history updated once at the end
+     * rather than once per space. Spaces which are already revealed, including by the cascade from an
+     * earlier space in the collection, are skipped. Revealing a mine ends the game, so any spaces after
+     * the first mine in the collection are skipped too.
+     *
+     * @param locations The locations to reveal, in order
+     * @return The quantity of spaces which were not skipped
+     * @throws IllegalStateException if the game is over
+     */
+    public int revealAll(Collection<Location> locations)
+    {
+        int[] reveals = new int[locations.size()];
+        int qtyReveals = 0;
+        for (Location location : locations) {
+            reveals[qtyReveals++] = field.toIndex(location.getX(), location.getY());
+        }
+        return makeMoves(null, 0, reveals, qtyReveals);
+    }
+    
+    /**
+     * Makes many moves as one, in the same way as revealAll(): first every toggle, in order, and then
+     * every reveal, in one combined cascade. A reveal of a space which is already revealed is skipped,
+     * rather than being an error.
+     *
+     * @param moves The moves to make
+     * @return The quantity of reveals which were not skipped
+     * @throws IllegalStateException if the game is over
+     */
+    public int applyBatch(Collection<Move> moves)
+    {
+        int[] toggles = new int[moves.size()];
+        int[] reveals = new int[moves.size()];
+        int qtyToggles = 0;
+        int qtyReveals = 0;
+        for (Move move : moves) {
+            int index = field.toIndex(move.getX(), move.getY());
+            if (move.isReveal()) {
+                reveals[qtyReveals++] = index;
+            } else {
+                toggles[qtyToggles++] = index;
+            }
+        }
+        return makeMoves(toggles, qtyToggles, reveals, qtyReveals);
+    }
+    
+    /**
+     * Makes a batch of moves as one move: toggles the status of some spaces, and then reveals others in one
+     * combined cascade. Each move is recorded separately in the MoveLog, if the game is being recorded - a
+     * reveal only if it was not skipped, so that replaying the log move by move gives the same game.
+     *
+     * @param toggles The indices of the spaces whose status is to be toggled, in order, or null if none
+     * @param qtyToggles How many of them there are
+     * @param reveals The indices of the spaces to reveal, in order; overwritten
+     * @param qtyReveals How many of them there are
+     * @return The quantity of reveals which were not skipped
+     * @throws IllegalStateException if the game is over
+     */
+    private int makeMoves(int[] toggles, int qtyToggles, int[] reveals, int qtyReveals)
+    {
+        if (!gameInProgress) {
+            throw new IllegalStateException("Cannot make a move after the game is over");
+        }
+        if (undoJournal != null) {
+            undoJournal.beginMove(getState());
+        }
+        for (int i = 0; i < qtyToggles; i++) {
+            field.toggleStatus(toggles[i]);
+            if (recording != null) {
+                recording.recordMove(toggles[i], false);
+            }
+        }
+        //Revealing a mine ends the game, so the reveals after the first mine are not made; and if the game
+        //is won before the mine is reached, neither is the mine.
+        int qtySafe = 0;
+        while (qtySafe < qtyReveals && !field.isMine(reveals[qtySafe])) {
+            qtySafe++;
+        }
+        int mine = (qtySafe < qtyReveals) ? reveals[qtySafe] : -1;
+        int qtyStarted = (qtySafe == 0) ? 0 : floodFill.revealFrom(reveals, qtySafe);
+        if (recording != null) {
+            for (int i = 0; i < qtyStarted; i++) {
+                recording.recordMove(reveals[i], true);
+            }
+        }
+        if (mine >= 0 && !allSafeSpacesRevealed()) {
+            floodFill.revealFrom(mine);
+            if (recording != null) {
+                recording.recordMove(mine, true);
+            }
+            qtyStarted++;
+        }
+        finishMove();
+        return qtyStarted;
+    }
+    
+    /**
+     * Called at the end of each move which may have revealed spaces: checks whether the player has won or
+     * lost, and brings the undo history and autosave up to date.
+     */
+    private void finishMove()
+    {
+        //The statistics have been kept up to date as we went - check that with -ea if you're suspicious.
+        assert stats.isConsistent() : "statistics do not match the minefield";
         
         //Check to see if the user has lost/won
-        if ((stats.getHidden() + stats.getFlagged() + stats.getQuestioned()) == stats.getMines()) {
+        if (allSafeSpacesRevealed()) {
             gameWon = true;
             gameInProgress = false;
             revealAllMines();
+            stopRecording();
         } else if (stats.getRevealedMines() > 0) {
             gameWon = false;
             gameInProgress = false;
             revealAllMines();
+            stopRecording();
+        }
+        if (undoJournal != null) {
+            undoJournal.endMove(getState());
+        }
+        if (feed != null) {
+            feed.moveMade();
         }
     }
     
     /**
+     * @return True if every space which is not a mine has been revealed
+     */
+    private boolean allSafeSpacesRevealed()
+    {
+        return getQtyUnrevealed() == stats.getMines();
+    }
+    
+    /**
+     * Turns undo and redo on or off, and sets how much is remembered. Each move remembers the spaces it
+     * changed, and when more than maxSpaces are remembered between all the moves, the oldest moves are
+     * forgotten.
+     * 
+     * @param maxSpaces The most changed spaces to remember, such as UndoJournal.DEFAULT_LIMIT, or 0 to
+     *                  turn undo off and forget every move
+     */
+    public void setUndoLimit(int maxSpaces)
+    {
+        if (maxSpaces < 0) {
+            throw new IllegalArgumentException("maxSpaces must not be negative");
+        }
+        if (maxSpaces == 0) {
+            if (undoJournal != null) {
+                undoJournal.detach();
+                undoJournal = null;
+            }
+        } else if (undoJournal == null) {
+            undoJournal = new UndoJournal(field, maxSpaces);
+        } else {
+            undoJournal.setLimit(maxSpaces);
+        }
+    }
+    
+    /**
+     * Undoes the latest move that has not been undone, including a move which ended the game. A game which
+     * is being recorded to a MoveLog stops being recorded, as the log cannot show moves being undone.
+     * 
+     * @return True if a move was undone, false if there was none to undo or undo is off
+     */
+    public boolean undo()
+    {
+        return (undoJournal != null) && restoreState(undoJournal.undo());
+    }
+    
+    /**
+     * Redoes the latest move that was undone. Making any other move first means it cannot be redone.
+     * 
+     * @return True if a move was redone, false if there was none to redo or undo is off
+     */
+    public boolean redo()
+    {
+        return (undoJournal != null) && restoreState(undoJournal.redo());
+    }
+    
+    /**
+     * @return True if there is a move that undo() would undo
+     */
+    public boolean canUndo()
+    {
+        return (undoJournal != null) && undoJournal.canUndo();
+    }
+    
+    /**
+     * @return True if there is a move that redo() would redo
+     */
+    public boolean canRedo()
+    {
+        return (undoJournal != null) && undoJournal.canRedo();
+    }
+    
+    /**
+     * @return UndoJournal.IN_PROGRESS and UndoJournal.WON, as appropriate for this game at the moment
+     */
+    private int getState()
+    {
+        return (gameInProgress ? UndoJournal.IN_PROGRESS : 0) | (gameWon ? UndoJournal.WON : 0);
+    }
+    
+    /**
+     * Puts the game back in the state it was in before or after a move that has just been undone or redone.
+     * 
+     * @param state UndoJournal.IN_PROGRESS and UndoJournal.WON, as appropriate, or -1 if there was no move
+     * @return True if there was a move
+     */
+    private boolean restoreState(int state)
+    {
+        if (state < 0) {
+            return false;
+        }
+        gameInProgress = (state & UndoJournal.IN_PROGRESS) != 0;
+        gameWon = (state & UndoJournal.WON) != 0;
+        stopRecording();
+        assert stats.isConsistent() : "statistics do not match the minefield";
+        if (feed != null) {
+            feed.moveMade();
+        }
+        return true;
+    }
+    
+    /**
+     * Starts recording this game's moves to a MoveLog. The game is added to the log when it is won or lost,
+     * or when stopRecording() is called.
+     * 
+     * @param log The log to add the game to
+     * @throws IllegalStateException if a move has already been made, or the game is already being recorded
+     */
+    public void recordTo(MoveLog log)
+    {
+        if (log == null) {
+            throw new IllegalArgumentException("log must not be null");
+        }
+        if (recording != null) {
+            throw new IllegalStateException("game is already being recorded");
+        }
+        if (stats.getHidden() != field.getSize()) {
+            throw new IllegalStateException("recording must start before the first move");
+        }
+        recording = log.startRecording(this);
+    }
+    
+    /**
+     * Stops recording this game's moves, and adds the game to its MoveLog as it stands - for example,
+     * when it is abandoned for a new game. Does nothing if the game is not being recorded.
+     */
+    public void stopRecording()
+    {
+        if (recording != null) {
+            recording.finish();
+            recording = null;
+        }
+    }
+    
+    /**
+     * Returns the locations of every space that has changed since the stale spaces were last fetched.
+     * This creates an object per stale space; drainStaleIndices() and drainStaleRegions() do not.
+     * 
      * @return List of stale locations, from the MinefieldStats class.
      */
     public Set<Location> getStaleLocations()
@@ -114,22 +485,48 @@ public class GameLogic
         return stats.getStaleLocations();
     }
     
+    /**
+     * Hands the index of every space that has changed since the stale spaces were last fetched to the
+     * consumer. The index of the space at X,Y is (Y * getWidth()) + X.
+     * 
+     * @param consumer The consumer of the stale indices
+     */
+    public void drainStaleIndices(IntConsumer consumer)
+    {
+        stats.drainStaleIndices(consumer);
+    }
+    
+    /**
+     * Hands rectangles which between them cover every space that has changed since the stale spaces were
+     * last fetched to the consumer. There is at most one rectangle per tile of StaleSpaces.TILE_SIZE spaces
+     * square, so a large change is handed over as a modest quantity of rectangles.
+     * 
+     * @param consumer The consumer of the stale regions
+     */
+    public void drainStaleRegions(RegionConsumer consumer)
+    {
+        stats.drainStaleRegions(consumer);
+    }
+    
     /**
      * Reveals all mines on the minefield.
      */
     private void revealAllMines()
     {
         //Find all the mines and tell them reveal themselves.
-        for (int y = 0; y < field.getHeight(); y++) {
-            for (int x = 0; x < field.getWidth(); x++) {
-                FieldSpace space = field.getObjectAt(x, y);
-                if (space.isMine()) {
-                    space.reveal();
-                }
+        for (int i = 0; i < field.getSize(); i++) {
+            if (field.isMine(i)) {
+                field.reveal(i);
             }
         }
-        //We've changed things, so refresh stats.
-        stats.refresh();
+    }
+    
+    /**
+     * @return The minefield this game is played on, for tools within the engine such as benchmarks
+     */
+    protected Minefield getMinefield()
+    {
+        return field;
     }
     
     /**
@@ -155,7 +552,46 @@ public class GameLogic
     }
     
     /**
-     * Returns an immutable, new Square object containing information about the requested space in the minefield
+     * @return How long this game has been played for, in milliseconds - or was, if it has finished
+     */
+    protected long getPlayMillis()
+    {
+        return gameInProgress ? stats.getRunningTime() : playTime * 1000;
+    }
+    
+    /**
+     * Adds a listener to be told about the changes made by every move from now on - see GameListener.
+     * 
+     * @param listener The listener
+     */
+    public void addGameListener(GameListener listener)
+    {
+        if (listener == null) {
+            throw new IllegalArgumentException("listener must not be null");
+        }
+        if (feed == null) {
+            feed = new ChangeFeed(this);
+        }
+        feed.addListener(listener);
+    }
+    
+    /**
+     * Stops telling a listener about changes. Does nothing if it was not listening.
+     * 
+     * @param listener The listener
+     */
+    public void removeGameListener(GameListener listener)
+    {
+        //With no listeners left, stop gathering changes altogether.
+        if (feed != null && feed.removeListener(listener)) {
+            feed.detach();
+            feed = null;
+        }
+    }
+    
+    /**
+     * Returns an immutable Square object containing information about the requested space in the minefield.
+     * Squares are shared, so this does not allocate anything
      * 
      * @param x The x-coordinate of the space to fetch a Square about
      * @param y The y-coordinate of the space to fetch a Square about
@@ -163,9 +599,7 @@ public class GameLogic
      */
     public Square getSquareAt(int x, int y)
     {
-        FieldSpace privateSpace = field.getObjectAt(x, y);
-        Square publicSquare = new Square(privateSpace.isMine(), privateSpace.getQtyNeighbourMines(), privateSpace.getStatus());
-        return publicSquare;
+        return Square.ofPacked(field.getPacked(field.toIndex(x, y)));
     }
     
     /**
@@ -179,6 +613,18 @@ public class GameLogic
         return getSquareAt(location.getX(), location.getY());
     }
     
+    /**
+     * @return A read-only view of the whole minefield as the player can see it, for reading many spaces
+     *         without allocating anything
+     */
+    public BoardView getBoardView()
+    {
+        if (boardView == null) {
+            boardView = new BoardView(field);
+        }
+        return boardView;
+    }
+    
     /**
      * @return The width of the minefield
      */
@@ -214,6 +660,22 @@ public class GameLogic
         return field.validLocation(location);
     }
     
+    /**
+     * @return The quantity of mines on the minefield
+     */
+    public int getQtyMines()
+    {
+        return stats.getMines();
+    }
+    
+    /**
+     * @return The quantity of spaces the player has not revealed yet, including those that are flagged
+     */
+    public int getQtyUnrevealed()
+    {
+        return stats.getHidden() + stats.getFlagged() + stats.getQuestioned();
+    }
+    
     /**
      * @return The quantity of mines on the minefield, minus the number of spaces flagged by the user
      */
@@ -248,6 +710,7 @@ public class GameLogic
      * Wrapper function for toggleStatusOfSquare(int x, int y) for use with Location objects
      * 
      * @param location The location of the space whose status is to be toggled
+     * @throws IllegalStateException if the game is over
      */
     public void toggleStatusOfSquare(Location location)
     {
@@ -260,14 +723,29 @@ public class GameLogic
      * 
      * @param x The x-coordinate of the space to reveal
      * @param y The y-coordinate of the space to reveal
+     * @throws IllegalStateException if the game is over
      */
     public void toggleStatusOfSquare(int x, int y)
     {
         //toggle the space
         FieldSpace privateSpace = field.getObjectAt(x, y);
+        if (!gameInProgress) {
+            throw new IllegalStateException("Cannot make a move after the game is over");
+        }
+        if (undoJournal != null) {
+            undoJournal.beginMove(getState());
+        }
         privateSpace.toggleStatus();
-        //changed something, so refresh stats
-        stats.refresh();
+        if (undoJournal != null) {
+            undoJournal.endMove(getState());
+        }
+        if (recording != null) {
+            recording.recordMove(field.toIndex(x, y), false);
+        }
+        assert stats.isConsistent() : "statistics do not match the minefield";
+        if (feed != null) {
+            feed.moveMade();
+        }
     }
     
 }
@@ -0,0 +1,170 @@
+/**
+ * One game read back from a MoveArchive: the minefield it was played on, and every move made in it, with
+ * the time each was made. The game can be replayed up to any move, or stepped through move by move.
+ *
+ * @author  Nicholas Parks Young
+ * @version 2026-10-16
+ */
+public class GameReplay
+{
+    private final GameLevel level;
+    private final int width, height;
+    private final int[] mines;
+    private final long startTime;
+    private final int[] moveIndices;
+    private final boolean[] moveReveals;
+    private final long[] moveTimes;
+    
+    /**
+     * Constructor for objects of type GameReplay.
+     *
+     * @param level The difficulty level of the game
+     * @param width The width of the minefield
+     * @param height The height of the minefield
+     * @param mines The index of every space which is a mine
+     * @param startTime When the game started, in milliseconds since the epoch
+     * @param moveIndices The index of the space each move was made on
+     * @param moveReveals Whether each move revealed its space, or toggled its status
+     * @param moveTimes When each move was made, in milliseconds since the epoch
+     */
+    protected GameReplay(GameLevel level, int width, int height, int[] mines, long startTime,
+                         int[] moveIndices, boolean[] moveReveals, long[] moveTimes)
+    {
+        this.level = level;
+        this.width = width;
+        this.height = height;
+        this.mines = mines;
+        this.startTime = startTime;
+        this.moveIndices = moveIndices;
+        this.moveReveals = moveReveals;
+        this.moveTimes = moveTimes;
+    }
+    
+    /**
+     * Creates the game as it was before its first move.
+     *
+     * @return The new game
+     */
+    public GameLogic newGame()
+    {
+        return new GameLogic(level, new Minefield(width, height, mines));
+    }
+    
+    /**
+     * Creates the game as it was after the given quantity of moves.
+     *
+     * @param qtyMoves How many moves to make - if this is more than were recorded, all of them are made
+     * @return The new game
+     */
+    public GameLogic replayTo(int qtyMoves)
+    {
+        GameLogic game = newGame();
+        applyMoves(game, 0, Math.min(qtyMoves, getQtyMoves()));
+        return game;
+    }
+    
+    /**
+     * Makes some of the recorded moves on a game, which should have had exactly the moves before them made
+     * already - for example, to step through a game from the position replayTo() jumped to.
+     *
+     * @param game The game to make the moves on
+     * @param from The first move to make, counting from zero
+     * @param to The move after the last move to make
+     */
+    public void applyMoves(GameLogic game, int from, int to)
+    {
+        if (from < 0 || to > getQtyMoves() || from > to) {
+            throw new IndexOutOfBoundsException("moves specified are outside of the game");
+        }
+        for (int n = from; n < to; n++) {
+            int x = moveIndices[n] % width;
+            int y = moveIndices[n] / width;
+            if (moveReveals[n]) {
+                game.revealAt(x, y);
+            } else {
+                game.toggleStatusOfSquare(x, y);
+            }
+        }
+    }
+    
+    /**
+     * @param n The number of a move, counting from zero
+     * @return That move
+     */
+    public Move getMove(int n)
+    {
+        checkMove(n);
+        int x = moveIndices[n] % width;
+        int y = moveIndices[n] / width;
+        return moveReveals[n] ? Move.reveal(x, y) : Move.toggle(x, y);
+    }
+    
+    /**
+     * @param n The number of a move, counting from zero
+     * @return When that move was made, in milliseconds since the epoch
+     */
+    public long getMoveTime(int n)
+    {
+        checkMove(n);
+        return moveTimes[n];
+    }
+    
+    /**
+     * @param n The number of a move
+     * @throws IndexOutOfBoundsException if there is no such move in the game
+     */
+    private void checkMove(int n)
+    {
+        if (n < 0 || n >= moveIndices.length) {
+            throw new IndexOutOfBoundsException("there is no move " + n + " in the game");
+        }
+    }
+    
+    /**
+     * @return How many moves were recorded
+     */
+    public int getQtyMoves()
+    {
+        return moveIndices.length;
+    }
+    
+    /**
+     * @return When the game started, in milliseconds since the epoch
+     */
+    public long getStartTime()
+    {
+        return startTime;
+    }
+    
+    /**
+     * @return The difficulty level of the game
+     */
+    public GameLevel getLevel()
+    {
+        return level;
+    }
+    
+    /**
+     * @return The width of the minefield
+     */
+    public int getWidth()
+    {
+        return width;
+    }
+    
+    /**
+     * @return The height of the minefield
+     */
+    public int getHeight()
+    {
+        return height;
+    }
+    
+    /**
+     * @return The quantity of mines on the minefield
+     */
+    public int getQtyMines()
+    {
+        return mines.length;
+    }
+}
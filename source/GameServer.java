@@ -0,0 +1,565 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Hosts games of Javasweeper over TCP, so that the engine can be run as a backend service for any quantity
+ * of players, each with their own game.
+ *
+ * Every connection is a session, which plays one game at a time. All the sessions are served by one
+ * thread, which waits on a Selector for whichever connections have something to read or room to write,
+ * so a session costs a few small buffers rather than a thread, and thousands can be held at once. The
+ * changes each move makes are taken from the game's GameListener feed and sent straight back. A custom
+ * minefield, which may be far bigger than any level's, is built on a separate thread, so that one player
+ * starting a huge game never holds up the others; the session's later messages wait until it is ready.
+ *
+ * Messages in both directions are framed as an int length, followed by that many bytes: a type byte and
+ * then the message's fields, big-endian. The client sends:
+ *     NEW_GAME   level ordinal (byte); for GameLevel.CUSTOM, then width, height and mines (ints)
+ *     REVEAL     x, y (ints)
+ *     TOGGLE     x, y (ints)
+ *     CHORD      x, y (ints)
+ *     SYNC       nothing - asks for the whole board again
+ * and the server answers each of them with any of these, always followed by DONE:
+ *     BOARD      width, height, mines remaining (ints), state (byte), then one space byte per space
+ *     CHANGES    quantity (int), then index (int) and space byte of each space which changed
+ *     COUNTERS   mines remaining, spaces unrevealed (ints)
+ *     GAME_OVER  1 if the game was won, 0 if it was lost (byte)
+ *     ERROR      what was wrong with the message, in UTF-8
+ *     DONE       nothing
+ * A space byte is the packed byte of the space, laid out as described in FieldSpace, as a BoardView gives
+ * it: a space which is not revealed has only its status set.
+ * The state of a game is SavedGame.IN_PROGRESS and SavedGame.WON, as appropriate.
+ *
+ * Run it from the command line with:
+ *     java GameServer [port]
+ *
+ * @author  Nicholas Parks Young
+ * @version 2026-10-16
+ */
+public class GameServer
+{
+    public static final int DEFAULT_PORT = 7470;
+    
+    //Messages from the client.
+    protected static final byte NEW_GAME = 1;
+    protected static final byte REVEAL = 2;
+    protected static final byte TOGGLE = 3;
+    protected static final byte CHORD = 4;
+    protected static final byte SYNC = 5;
+    //Messages from the server.
+    protected static final byte BOARD = 65;
+    protected static final byte CHANGES = 66;
+    protected static final byte COUNTERS = 67;
+    protected static final byte GAME_OVER = 68;
+    protected static final byte ERROR = 69;
+    protected static final byte DONE = 70;
+    
+    //The largest message a client may send, not counting its length.
+    private static final int MAX_MESSAGE_SIZE = 32;
+    //The largest minefield a client may ask for, so that no one client can use up the server's memory.
+    protected static final int MAX_SPACES = 1 << 20;
+    //Stop reading from a client which has this much waiting to be sent to it, until it catches up.
+    private static final int MAX_BACKLOG = 1 << 22;
+    
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final BoardPool boardPool;
+    private final ExecutorService builder;
+    //Sessions whose custom minefield the builder thread has finished with, to be answered by the server's.
+    private final Queue<Session> built;
+    private volatile boolean running;
+    //Only changed by the server's thread, but may be read by any.
+    private volatile int qtySessions;
+    private volatile long qtyMoves;
+    
+    /**
+     * Constructor for objects of type GameServer, which listens for connections straight away, but only
+     * serves them once run() is called.
+     *
+     * @param port The port to listen on, or 0 for any free port
+     * @throws UncheckedIOException if the port cannot be listened on
+     */
+    public GameServer(int port)
+    {
+        try {
+            selector = Selector.open();
+            server = ServerSocketChannel.open();
+            server.bind(new InetSocketAddress(port));
+            server.configureBlocking(false);
+            server.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not listen on port " + port, e);
+        }
+        //Many sessions may start a game at once, so keep more minefields ready than one player would need.
+        boardPool = new BoardPool(16);
+        builder = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "GameServer-builder");
+                thread.setDaemon(true);
+                return thread;
+            }});
+        built = new ConcurrentLinkedQueue<Session>();
+        running = true;
+    }
+    
+    /**
+     * Runs a server from the command line, until it is killed.
+     *
+     * @param args The port to listen on, optional
+     */
+    public static void main(String[] args)
+    {
+        GameServer server = new GameServer((args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_PORT);
+        System.out.println("Listening on port " + server.getPort());
+        server.run();
+    }
+    
+    /**
+     * Serves every session, on the calling thread, until close() is called.
+     *
+     * @throws UncheckedIOException if the selector fails
+     */
+    public void run()
+    {
+        try {
+            while (running) {
+                selector.select();
+                for (Session session = built.poll(); session != null; session = built.poll()) {
+                    try {
+                        session.finishNewGame();
+                    } catch (IOException e) {
+                        session.close();
+                    }
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Session session = (Session)key.attachment();
+                    try {
+                        if (key.isReadable()) {
+                            session.read();
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            session.flush();
+                        }
+                    } catch (IOException e) {
+                        session.close();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("game server failed", e);
+        } finally {
+            boardPool.shutdown();
+            builder.shutdownNow();
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof Session) {
+                    ((Session)key.attachment()).close();
+                }
+            }
+            try {
+                server.close();
+                selector.close();
+            } catch (IOException e) {
+                //Nothing more can be done about it.
+            }
+        }
+    }
+    
+    /**
+     * Stops serving, closing every session. Can be called from any thread; run() returns once it is done.
+     */
+    public void close()
+    {
+        running = false;
+        selector.wakeup();
+    }
+    
+    /**
+     * Accepts a new connection, if there is one, as a new session.
+     *
+     * @throws IOException if the connection cannot be set up
+     */
+    private void accept() throws IOException
+    {
+        SocketChannel channel = server.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        Session session = new Session(channel);
+        session.key = channel.register(selector, SelectionKey.OP_READ, session);
+        qtySessions++;
+    }
+    
+    /**
+     * @return The port the server is listening on
+     */
+    public int getPort()
+    {
+        return server.socket().getLocalPort();
+    }
+    
+    /**
+     * @return How many sessions are connected
+     */
+    public int getQtySessions()
+    {
+        return qtySessions;
+    }
+    
+    /**
+     * @return How many reveals, toggles and chords have been made, in every session
+     */
+    public long getQtyMoves()
+    {
+        return qtyMoves;
+    }
+    
+    /**
+     * One client's connection, and the game it is playing. Told about the changes made by each of the
+     * game's moves, so that they can be sent back.
+     */
+    private class Session implements GameListener
+    {
+        private final SocketChannel channel;
+        private SelectionKey key;
+        private final ByteBuffer in;
+        private ByteBuffer out;
+        private GameLogic game;
+        //While a custom minefield is being built: true, and then the game or what was wrong once it is done.
+        private boolean building;
+        private volatile GameLogic builtGame;
+        private volatile String buildProblem;
+        
+        /**
+         * @param channel The client's connection
+         */
+        private Session(SocketChannel channel)
+        {
+            this.channel = channel;
+            in = ByteBuffer.allocate(4 + MAX_MESSAGE_SIZE);
+            out = ByteBuffer.allocate(1024);
+        }
+        
+        /**
+         * Reads what the client has sent, and answers every complete message in it.
+         *
+         * @throws IOException if the connection fails
+         */
+        private void read() throws IOException
+        {
+            if (channel.read(in) < 0) {
+                close();
+                return;
+            }
+            answer();
+        }
+        
+        /**
+         * Answers every complete message waiting to be answered, unless a custom minefield is being built,
+         * and sends what it can of the answers.
+         *
+         * @throws IOException if the connection fails
+         */
+        private void answer() throws IOException
+        {
+            in.flip();
+            while (!building && in.remaining() >= 4) {
+                int length = in.getInt(in.position());
+                if (length < 1 || length > MAX_MESSAGE_SIZE) {
+                    //Not a client that speaks the protocol.
+                    close();
+                    return;
+                }
+                if (in.remaining() < 4 + length) {
+                    break;
+                }
+                in.position(in.position() + 4);
+                int end = in.position() + length;
+                ByteBuffer message = in.slice(in.position(), length);
+                in.position(end);
+                try {
+                    handle(message);
+                } catch (BufferUnderflowException e) {
+                    sendError("message is too short");
+                } catch (IllegalArgumentException | IllegalStateException | IndexOutOfBoundsException e) {
+                    sendError(e.getMessage());
+                }
+                if (!building) {
+                    frame(DONE, 0);
+                }
+            }
+            in.compact();
+            flush();
+        }
+        
+        /**
+         * Answers one message from the client.
+         *
+         * @param message The message, from its type byte on
+         */
+        private void handle(ByteBuffer message)
+        {
+            byte type = message.get();
+            if (type == NEW_GAME) {
+                newGame(message);
+                return;
+            }
+            if (type == SYNC) {
+                sendBoard();
+                return;
+            }
+            if (type != REVEAL && type != TOGGLE && type != CHORD) {
+                throw new IllegalArgumentException("unknown message type " + type);
+            }
+            if (game == null || !game.getGameInProgress()) {
+                throw new IllegalStateException("no game is in progress");
+            }
+            int x = message.getInt();
+            int y = message.getInt();
+            qtyMoves++;
+            //The changes are sent by the GameListener methods, as the move finishes.
+            if (type == REVEAL) {
+                game.revealAt(x, y);
+            } else if (type == TOGGLE) {
+                game.toggleStatusOfSquare(x, y);
+            } else {
+                game.chordAt(x, y);
+            }
+        }
+        
+        /**
+         * Starts a new game, abandoning any game in progress, and sends its board. A custom minefield is
+         * built first, on the builder thread.
+         *
+         * @param message The rest of a NEW_GAME message
+         */
+        private void newGame(ByteBuffer message)
+        {
+            int levelOrdinal = message.get();
+            if (levelOrdinal < 0 || levelOrdinal >= GameLevel.values().length) {
+                throw new IllegalArgumentException("unknown level " + levelOrdinal);
+            }
+            GameLevel level = GameLevel.values()[levelOrdinal];
+            if (level.isCustom()) {
+                int width = message.getInt();
+                int height = message.getInt();
+                int mines = message.getInt();
+                if (width <= 0 || height <= 0 || (long)width * height > MAX_SPACES) {
+                    throw new IllegalArgumentException("minefield must have between 1 and " + MAX_SPACES + " spaces");
+                }
+                build(width, height, mines);
+            } else {
+                startGame(boardPool.newGame(level));
+            }
+        }
+        
+        /**
+         * Builds a custom minefield on the builder thread, and has finishNewGame() called on the server's
+         * thread once it is done. Until then, no more of the client's messages are read.
+         *
+         * @param width The width of the minefield
+         * @param height The height of the minefield
+         * @param mines The quantity of mines
+         */
+        private void build(final int width, final int height, final int mines)
+        {
+            building = true;
+            builtGame = null;
+            buildProblem = null;
+            builder.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        builtGame = new GameLogic(width, height, mines);
+                    } catch (RuntimeException e) {
+                        buildProblem = String.valueOf(e.getMessage());
+                    }
+                    built.add(Session.this);
+                    selector.wakeup();
+                }});
+        }
+        
+        /**
+         * Called on the server's thread once a custom minefield has been built: starts its game, or says
+         * what was wrong, finishes the answer to the NEW_GAME message, and answers any messages after it.
+         *
+         * @throws IOException if the connection fails
+         */
+        private void finishNewGame() throws IOException
+        {
+            building = false;
+            if (!channel.isOpen()) {
+                return;
+            }
+            if (builtGame != null) {
+                startGame(builtGame);
+                builtGame = null;
+            } else {
+                sendError(buildProblem);
+            }
+            frame(DONE, 0);
+            answer();
+        }
+        
+        /**
+         * Starts a game, abandoning any game in progress, and sends its board.
+         *
+         * @param newGame The game to start
+         */
+        private void startGame(GameLogic newGame)
+        {
+            if (game != null) {
+                game.removeGameListener(this);
+            }
+            game = newGame;
+            game.addGameListener(this);
+            sendBoard();
+        }
+        
+        /**
+         * Sends the whole board of the game in progress.
+         */
+        private void sendBoard()
+        {
+            if (game == null) {
+                throw new IllegalStateException("no game has been started");
+            }
+            BoardView board = game.getBoardView();
+            frame(BOARD, 13 + board.getSize());
+            out.putInt(board.getWidth()).putInt(board.getHeight()).putInt(game.getQtyMinesRemaining());
+            out.put((byte)SavedGame.flagsOf(game));
+            board.exportTo(out);
+        }
+        
+        @Override
+        public void spacesChanged(GameLogic game, int[] indices, int qtyChanged)
+        {
+            BoardView board = game.getBoardView();
+            frame(CHANGES, 4 + (qtyChanged * 5));
+            out.putInt(qtyChanged);
+            for (int i = 0; i < qtyChanged; i++) {
+                out.putInt(indices[i]).put((byte)board.getVisibleAt(indices[i]));
+            }
+        }
+        
+        @Override
+        public void countersChanged(GameLogic game)
+        {
+            frame(COUNTERS, 8);
+            out.putInt(game.getQtyMinesRemaining()).putInt(game.getQtyUnrevealed());
+        }
+        
+        @Override
+        public void gameWon(GameLogic game)
+        {
+            frame(GAME_OVER, 1);
+            out.put((byte)1);
+        }
+        
+        @Override
+        public void gameLost(GameLogic game)
+        {
+            frame(GAME_OVER, 1);
+            out.put((byte)0);
+        }
+        
+        /**
+         * @param problem What was wrong with the client's message
+         */
+        private void sendError(String problem)
+        {
+            byte[] text = String.valueOf(problem).getBytes(StandardCharsets.UTF_8);
+            frame(ERROR, text.length);
+            out.put(text);
+        }
+        
+        /**
+         * Starts a message to the client, making sure there is room for it.
+         *
+         * @param type The type of message
+         * @param size The size of its fields, in bytes
+         */
+        private void frame(byte type, int size)
+        {
+            int needed = 5 + size;
+            if (out.remaining() < needed) {
+                ByteBuffer bigger = ByteBuffer.allocate(Math.max(out.capacity() * 2, out.position() + needed));
+                out.flip();
+                bigger.put(out);
+                out = bigger;
+            }
+            out.putInt(1 + size).put(type);
+        }
+        
+        /**
+         * Writes as much as the connection will take of what is waiting to be sent, and waits to be told
+         * when it will take more if that was not everything.
+         *
+         * @throws IOException if the connection fails
+         */
+        private void flush() throws IOException
+        {
+            out.flip();
+            channel.write(out);
+            out.compact();
+            if (!key.isValid()) {
+                return;
+            }
+            //Nothing more is read while a custom minefield is being built, as it could not be answered yet.
+            int read = building ? 0 : SelectionKey.OP_READ;
+            if (out.position() == 0) {
+                key.interestOps(read);
+            } else if (out.position() < MAX_BACKLOG) {
+                key.interestOps(read | SelectionKey.OP_WRITE);
+            } else {
+                key.interestOps(SelectionKey.OP_WRITE);
+            }
+        }
+        
+        /**
+         * Ends the session, abandoning its game.
+         */
+        private void close()
+        {
+            if (!channel.isOpen()) {
+                return;
+            }
+            if (game != null) {
+                game.removeGameListener(this);
+            }
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                //It is closed as far as we are concerned.
+            }
+            qtySessions--;
+        }
+    }
+}
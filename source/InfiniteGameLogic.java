@@ -0,0 +1,348 @@
+import java.nio.file.Path;
+
+/**
+ * API interface for the infinite mode of the Javasweeper game engine, in which the minefield has no
+ * edge to speak of and the player simply clears as much of it as they can before hitting a mine.
+ *
+ * The minefield is a ChunkedMinefield, so where the mines are is worked out from a seed and a density
+ * as the player goes, only the parts the player has changed are ever stored, and only a bounded amount
+ * of those is kept in memory; see ChunkedMinefield for how the rest is saved and restored. The seed and
+ * density can be shared as a game code - see getGameCode() - to let someone else play the same
+ * minefield. Coordinates run from zero to Integer.MAX_VALUE in both directions, and the player should
+ * start somewhere near the middle - see getStartLocation().
+ *
+ * A game started with the same seed, density and storage directory as an earlier one carries on where
+ * the earlier one was last saved: the quantities revealed and flagged, and whether a mine has been
+ * revealed, are counted afresh from the chunks it saved.
+ *
+ * @author  Nicholas Parks Young
+ * @version 2026-10-16
+ */
+public class InfiniteGameLogic
+{
+    //Below this density, the regions of spaces with no neighbouring mines join up into one endless
+    //region, and the first click would never finish revealing.
+    public static final double MIN_DENSITY = 0.12;
+    
+    private ChunkedMinefield field;
+    private boolean gameInProgress;
+    private long qtyRevealed;
+    private long qtyFlagged;
+    //Spaces waiting to be processed during a cascade, packed as (x << 32) | y.
+    private long[] queue;
+    
+    /**
+     * Constructor for objects of type InfiniteGameLogic.
+     *
+     * @param seed The seed which decides where all the mines are; the same seed always gives the same minefield
+     * @param density The fraction of spaces which are mines, from MIN_DENSITY to 1
+     * @param maxChunksInMemory The most chunks of MinefieldChunk.SIZE square to keep in memory at once
+     * @param storage An existing directory to save chunks in when they are evicted from memory, in a
+     *                subdirectory named after the game code
+     * @throws IllegalArgumentException if that subdirectory holds the chunks of a different minefield
+     */
+    public InfiniteGameLogic(long seed, double density, int maxChunksInMemory, Path storage)
+    {
+        this(new SeededMines(seed, density), maxChunksInMemory, storage);
+    }
+    
+    /**
+     * Constructor for objects of type InfiniteGameLogic, which plays the same minefield as the game
+     * another player got a game code from.
+     *
+     * @param gameCode A game code, as returned by getGameCode()
+     * @param maxChunksInMemory The most chunks of MinefieldChunk.SIZE square to keep in memory at once
+     * @param storage An existing directory to save chunks in when they are evicted from memory, in a
+     *                subdirectory named after the game code
+     * @throws IllegalArgumentException if it is not a valid game code, or its subdirectory holds the
+     *         chunks of a different minefield
+     */
+    public InfiniteGameLogic(String gameCode, int maxChunksInMemory, Path storage)
+    {
+        this(SeededMines.fromGameCode(gameCode), maxChunksInMemory, storage);
+    }
+    
+    /**
+     * @param mines Where the mines are
+     * @param maxChunksInMemory The most chunks of MinefieldChunk.SIZE square to keep in memory at once
+     * @param storage An existing directory to save chunks in when they are evicted from memory, in a
+     *                subdirectory named after the game code
+     */
+    private InfiniteGameLogic(SeededMines mines, int maxChunksInMemory, Path storage)
+    {
+        if (mines.getDensity() < MIN_DENSITY) {
+            throw new IllegalArgumentException("density must be between " + MIN_DENSITY + " and 1");
+        }
+        field = new ChunkedMinefield(mines, maxChunksInMemory, storage);
+        gameInProgress = true;
+        qtyRevealed = 0;
+        qtyFlagged = 0;
+        queue = new long[4096];
+        field.forEachSavedChunk(this::countSpaces);
+    }
+    
+    /**
+     * Adds the spaces of a chunk restored from an earlier game to the counters, and ends the game if one
+     * of them is a revealed mine.
+     *
+     * @param chunk The chunk to count
+     */
+    private void countSpaces(MinefieldChunk chunk)
+    {
+        for (int i = 0; i < MinefieldChunk.AREA; i++) {
+            int space = chunk.getPacked(i);
+            switch (FieldSpace.statusOf(space)) {
+                case REVEALED:
+                    qtyRevealed++;
+                    if (FieldSpace.mineOf(space)) {
+                        gameInProgress = false;
+                    }
+                    break;
+                case FLAGGED:
+                    qtyFlagged++;
+                    break;
+                default:
+                    ;   //do nothing
+            }
+        }
+    }
+    
+    /**
+     * Returns a location near the middle of the minefield which has no neighbouring mines, so that
+     * revealing it opens up an area to play from. If no such space is found nearby, the middle itself
+     * is returned.
+     *
+     * @return A good place to start
+     */
+    public Location getStartLocation()
+    {
+        int middle = 1 << 30;
+        //Search outwards in square rings, but not too far.
+        for (int radius = 0; radius < MinefieldChunk.SIZE; radius++) {
+            for (int y = middle - radius; y <= middle + radius; y++) {
+                int step = (y == middle - radius || y == middle + radius) ? 1 : Math.max(1, radius * 2);
+                for (int x = middle - radius; x <= middle + radius; x += step) {
+                    int space = field.getPacked(x, y);
+                    if (!FieldSpace.mineOf(space) && FieldSpace.qtyNeighbourMinesOf(space) == 0) {
+                        return new Location(x, y);
+                    }
+                }
+            }
+        }
+        return new Location(middle, middle);
+    }
+    
+    /**
+     * Wrapper method for the revealAt(int x, int y) method for use with Location objects
+     *
+     * @param location The location to reveal
+     * @throws IllegalStateException if the space you want to reveal is already revealed, or the game is over
+     */
+    public void revealAt(Location location)
+    {
+        revealAt(location.getX(), location.getY());
+    }
+    
+    /**
+     * Reveals the space at the coordinate X,Y. If it has no neighbouring mines, its neighbours are
+     * revealed as well, and so on, across as many chunks as it takes. If it is a mine, the game is over.
+     *
+     * @param x The X-coordinate of the space to reveal
+     * @param y The Y-coordinate of the space to reveal
+     * @throws IllegalStateException if the space you want to reveal is already revealed, or the game is over
+     */
+    public void revealAt(int x, int y)
+    {
+        if (!gameInProgress) {
+            throw new IllegalStateException("Cannot reveal a location after the game is over");
+        }
+        int space = field.getPacked(x, y);
+        if (FieldSpace.statusOf(space) == SpaceStatus.REVEALED) {
+            throw new IllegalStateException("Cannot reavel a location that is already revealed");
+        }
+        if (FieldSpace.mineOf(space)) {
+            reveal(x, y, space);
+            gameInProgress = false;
+            return;
+        }
+        
+        //Breadth-first, like FloodFill, but the minefield has no fixed size to keep a bitset for: instead
+        //each space is revealed as it is queued, so a revealed space is never queued twice.
+        int head = 0, tail = 0;
+        reveal(x, y, space);
+        if (FieldSpace.qtyNeighbourMinesOf(space) == 0) {
+            queue[tail++] = ((long)x << 32) | y;
+        }
+        while (head < tail) {
+            long packedLocation = queue[head++];
+            int centreX = (int)(packedLocation >>> 32);
+            int centreY = (int)packedLocation;
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    int neighbourX = centreX + dx;
+                    int neighbourY = centreY + dy;
+                    if ((dx == 0 && dy == 0) || !field.validLocation(neighbourX, neighbourY)) {
+                        continue;
+                    }
+                    int neighbour = field.getPacked(neighbourX, neighbourY);
+                    if (FieldSpace.statusOf(neighbour) == SpaceStatus.REVEALED) {
+                        continue;
+                    }
+                    reveal(neighbourX, neighbourY, neighbour);
+                    if (FieldSpace.qtyNeighbourMinesOf(neighbour) == 0) {
+                        if (tail == queue.length) {
+                            //Reuse the part of the queue already processed before growing it.
+                            System.arraycopy(queue, head, queue, 0, tail - head);
+                            tail -= head;
+                            head = 0;
+                            if (tail == queue.length) {
+                                long[] bigger = new long[queue.length * 2];
+                                System.arraycopy(queue, 0, bigger, 0, tail);
+                                queue = bigger;
+                            }
+                        }
+                        queue[tail++] = ((long)neighbourX << 32) | neighbourY;
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Reveals one space, keeping the counters up to date.
+     *
+     * @param x The X-coordinate of the space
+     * @param y The Y-coordinate of the space
+     * @param space The packed space as it was before revealing it
+     */
+    private void reveal(int x, int y, int space)
+    {
+        if (FieldSpace.statusOf(space) == SpaceStatus.FLAGGED) {
+            qtyFlagged--;
+        }
+        field.setStatus(x, y, SpaceStatus.REVEALED);
+        qtyRevealed++;
+    }
+    
+    /**
+     * Wrapper function for toggleStatusOfSquare(int x, int y) for use with Location objects
+     *
+     * @param location The location of the space whose status is to be toggled
+     */
+    public void toggleStatusOfSquare(Location location)
+    {
+        toggleStatusOfSquare(location.getX(), location.getY());
+    }
+    
+    /**
+     * Toggles the status of the space at the coordinate X,Y.
+     * Doesn't work on revealed spaces, and cannot be used to reveal a space - use revealAt() to reveal a space
+     *
+     * @param x The x-coordinate of the space to toggle
+     * @param y The y-coordinate of the space to toggle
+     */
+    public void toggleStatusOfSquare(int x, int y)
+    {
+        switch (FieldSpace.statusOf(field.getPacked(x, y))) {
+            case HIDDEN:
+                field.setStatus(x, y, SpaceStatus.FLAGGED);
+                qtyFlagged++;
+                break;
+            case FLAGGED:
+                field.setStatus(x, y, SpaceStatus.QUESTIONED);
+                qtyFlagged--;
+                break;
+            case QUESTIONED:
+                field.setStatus(x, y, SpaceStatus.HIDDEN);
+                break;
+            default:
+                ;   //do nothing
+        }
+    }
+    
+    /**
+     * Returns an immutable Square object containing information about the requested space in the minefield.
+     * Squares are shared, so this does not allocate anything
+     *
+     * @param x The x-coordinate of the space to fetch a Square about
+     * @param y The y-coordinate of the space to fetch a Square about
+     * @return A Square containing information about the minefield space at coordinate X,Y
+     */
+    public Square getSquareAt(int x, int y)
+    {
+        return Square.ofPacked(field.getPacked(x, y));
+    }
+    
+    /**
+     * Wrapper function for getSquareAt(int x, int y) for use with Location objects
+     *
+     * @param location The location of the space to fetch a Square about
+     * @return A Square containing information about the minefield space at Location
+     */
+    public Square getSquareAt(Location location)
+    {
+        return getSquareAt(location.getX(), location.getY());
+    }
+    
+    /**
+     * @param x The x-coordinate to check
+     * @param y The y-coordinate to check
+     * @return True if the coordinates X,Y are valid in the context of this minefield
+     */
+    public boolean validLocation(int x, int y)
+    {
+        return field.validLocation(x, y);
+    }
+    
+    /**
+     * Returns false if the player has revealed a mine, and true otherwise: an infinite game cannot be won.
+     *
+     * @return False if the game has ended, else true
+     */
+    public boolean getGameInProgress()
+    {
+        return gameInProgress;
+    }
+    
+    /**
+     * @return The quantity of spaces the player has revealed - their score, in other words
+     */
+    public long getQtyRevealed()
+    {
+        return qtyRevealed;
+    }
+    
+    /**
+     * @return The quantity of spaces the player has flagged
+     */
+    public long getQtyFlagged()
+    {
+        return qtyFlagged;
+    }
+    
+    /**
+     * @return A short code which stands for this minefield - its seed and density - from which another
+     *         player can start a game on the same minefield
+     */
+    public String getGameCode()
+    {
+        return field.getMines().getGameCode();
+    }
+    
+    /**
+     * @return How many chunks of the minefield are in memory at the moment
+     */
+    public int getQtyChunksInMemory()
+    {
+        return field.getQtyChunksInMemory();
+    }
+    
+    /**
+     * Writes every chunk the player has changed to the storage directory, so that a later game with the
+     * same seed, density and storage directory carries on from where this one is now.
+     */
+    public void save()
+    {
+        field.saveAll();
+    }
+}
@@ -0,0 +1,113 @@
+import java.io.PrintStream;
+
+/**
+ * A record of how many times each duration occurred, to within one part in SUB_BUCKETS. Durations are
+ * put in buckets by their highest set bit, and each of those is split evenly into SUB_BUCKETS more,
+ * so recording a duration is a few bit operations and an array increment.
+ *
+ * @author  Nicholas Parks Young
+ * @version 2026-10-16
+ */
+public class LatencyHistogram
+{
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    
+    private final long[] counts = new long[64 * SUB_BUCKETS];
+    private long total;
+    private long max;
+    
+    /**
+     * @param nanos A duration to record, in nanoseconds
+     */
+    protected void record(long nanos)
+    {
+        nanos = Math.max(0, nanos);
+        counts[bucketOf(nanos)]++;
+        total++;
+        max = Math.max(max, nanos);
+    }
+    
+    /**
+     * @return How many durations have been recorded
+     */
+    protected long getTotal()
+    {
+        return total;
+    }
+    
+    /**
+     * Adds the counts of another histogram to this one.
+     *
+     * @param other The other histogram
+     */
+    protected synchronized void add(LatencyHistogram other)
+    {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+        max = Math.max(max, other.max);
+    }
+    
+    /**
+     * @param nanos A duration
+     * @return The bucket it belongs in
+     */
+    private static int bucketOf(long nanos)
+    {
+        if (nanos < SUB_BUCKETS) {
+            return (int)nanos;
+        }
+        int bit = 63 - Long.numberOfLeadingZeros(nanos);
+        int sub = (int)(nanos >>> (bit - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return ((bit - SUB_BITS + 1) << SUB_BITS) + sub;
+    }
+    
+    /**
+     * @param bucket A bucket
+     * @return The largest duration which belongs in it
+     */
+    private static long upperBoundOf(int bucket)
+    {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int bit = (bucket >>> SUB_BITS) + SUB_BITS - 1;
+        long sub = bucket & (SUB_BUCKETS - 1);
+        return ((SUB_BUCKETS + sub + 1) << (bit - SUB_BITS)) - 1;
+    }
+    
+    /**
+     * @param fraction A fraction, from 0 to 1
+     * @return The duration which that fraction of recorded durations are no longer than
+     */
+    protected long percentile(double fraction)
+    {
+        long wanted = (long)Math.ceil(fraction * total);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= wanted && seen > 0) {
+                return Math.min(upperBoundOf(i), max);
+            }
+        }
+        return max;
+    }
+    
+    /**
+     * Prints a summary of the distribution.
+     *
+     * @param out Where to print it
+     * @param name The name of the operation timed
+     */
+    protected void print(PrintStream out, String name)
+    {
+        if (total == 0) {
+            return;
+        }
+        out.printf("%-21s n=%d p50=%.1fus p90=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus%n", name + ":", total,
+            percentile(0.5) / 1e3, percentile(0.9) / 1e3, percentile(0.99) / 1e3, percentile(0.999) / 1e3,
+            max / 1e3);
+    }
+}
@@ -2,7 +2,7 @@
  * Represent a location in a rectangular grid.
  *
  * @author  Nicholas Parks Young
- * @version 2015-04-01
+ * @version 2026-10-16
  */
 public class Location
 {
@@ -51,14 +51,15 @@ public class Location
     }
     
     /**
-     * Use the top 16 bits for the row value and the bottom for
-     * the column. Except for very big grids, this should give a
-     * unique hash code for each (row, col) pair.
+     * Combine both coordinates into one 64-bit value and mix it by multiplying with
+     * a large odd constant, keeping the top 32 bits. Unlike packing the coordinates
+     * into 16 bits each, this still spreads the hash codes evenly when a coordinate
+     * is 65536 or more.
      * @return A hashcode for the location.
      */
     public int hashCode()
     {
-        return (x << 16) + y;
+        return (int)(((((long)x << 32) | y) * 0x9E3779B97F4A7C15L) >>> 32);
     }
     
     /**
@@ -1,20 +1,32 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.LinkedList;
 import java.util.List;
 
 /**
  * Represent a rectangular grid of field positions.
- * Each position is able to store a single FieldSpace object, which contains the details of that space.
+ * Each position stores the details of a single space, packed into one byte (see FieldSpace for the
+ * layout). The bytes are stored row-major, so the space at X,Y has the index (Y * width) + X, and a
+ * scan which walks Y in the outer loop and X in the inner loop reads the array sequentially.
  * 
  * @author  Nicholas Parks Young
- * @version 2015-04-02
+ * @version 2026-10-16
  */
 public class Minefield
 {
-    //Once the minefield is setup, it will never change, only the status of the objects contained within will.
+    //The largest quantity of spaces a minefield may have - limited by the maximum size of a Java array.
+    public static final int MAX_SIZE = Integer.MAX_VALUE - 8;
+    
+    //Once the minefield is setup, its size and mines will never change, only the status of the spaces will.
     private final int width, height;
-    private final FieldSpace[][] field;
-    private final Random random;
+    private final byte[] field;
+    private final StaleSpaces staleSpaces;
+    //The statistics object which is told about every change of status, if any.
+    private MinefieldStats stats;
+    //Anything else which is told about every change of status.
+    private SpaceChangeListener[] listeners = new SpaceChangeListener[0];
     
     /**
      * Creates a new Minefield of the specified size, and hides quantityOfMines mines inside it.
@@ -23,7 +35,40 @@ public class Minefield
      * @param height The height of the minefield
      * @param quantityOfMines How many mines to hide in the minefield.
      */
-    protected Minefield(int width, int height, short quantityOfMines)
+    protected Minefield(int width, int height, int quantityOfMines)
+    {
+        //seed the RNG randomly, so that games will not always be the same! Not with the system time, as
+        //boards generated in the background can be made within the same millisecond.
+        this(width, height, quantityOfMines, ThreadLocalRandom.current().nextLong());
+    }
+    
+    /**
+     * Creates a new Minefield of the specified size, and hides quantityOfMines mines inside it at
+     * positions chosen by a random number generator with the given seed. The same seed and size always
+     * give the same minefield, which is useful for benchmarks and simulations.
+     * 
+     * @param width The width of the minefield
+     * @param height The height of the minefield
+     * @param quantityOfMines How many mines to hide in the minefield.
+     * @param seed The seed for the random number generator
+     */
+    protected Minefield(int width, int height, int quantityOfMines, long seed)
+    {
+        this(width, height, quantityOfMines, seed, null);
+    }
+    
+    /**
+     * Creates a new Minefield of the specified size, and hides quantityOfMines mines inside it at
+     * positions chosen by a random number generator with the given seed, keeping them out of the space
+     * at safeLocation and its neighbours so that revealing it opens up an area of the minefield.
+     * 
+     * @param width The width of the minefield
+     * @param height The height of the minefield
+     * @param quantityOfMines How many mines to hide in the minefield.
+     * @param seed The seed for the random number generator
+     * @param safeLocation The location to keep clear of mines, or null to put mines anywhere
+     */
+    protected Minefield(int width, int height, int quantityOfMines, long seed, Location safeLocation)
     {
         if (height <= 0) {
             throw new IllegalArgumentException("height was smaller than or equal to zero");
@@ -31,14 +76,86 @@ public class Minefield
         if (width <= 0) {
             throw new IllegalArgumentException("width was smaller than or equal to zero");
         }
+        if ((long)width * height > MAX_SIZE) {
+            throw new IllegalArgumentException("width multiplied by height was greater than MAX_SIZE");
+        }
         
-        //seed the RNG with system time, so that games will not always be the same!
-        random = new Random(System.currentTimeMillis());  
+        this.width = width;
+        this.height = height;
+        //every space starts off hidden, with no neighbouring mines, and stale so that it is displayed.
+        field = new byte[width * height];
+        staleSpaces = new StaleSpaces(width, height);
+        if (safeLocation != null && !validLocation(safeLocation)) {
+            throw new IllegalArgumentException("safeLocation is outside of minefield");
+        }
+        hideMines(quantityOfMines, safeLocation, new Random(seed));
+    }
+    
+    /**
+     * Creates a new Minefield of the specified size, with mines at exactly the given spaces - for example,
+     * to replay a game that was recorded earlier.
+     * 
+     * @param width The width of the minefield
+     * @param height The height of the minefield
+     * @param mineIndices The index of every space which is a mine
+     */
+    protected Minefield(int width, int height, int[] mineIndices)
+    {
+        if (height <= 0) {
+            throw new IllegalArgumentException("height was smaller than or equal to zero");
+        }
+        if (width <= 0) {
+            throw new IllegalArgumentException("width was smaller than or equal to zero");
+        }
+        if ((long)width * height > MAX_SIZE) {
+            throw new IllegalArgumentException("width multiplied by height was greater than MAX_SIZE");
+        }
+        if (mineIndices.length == 0) {
+            throw new IllegalArgumentException("quantityOfMines (to make) was less than one");
+        }
+        
+        this.width = width;
+        this.height = height;
+        field = new byte[width * height];
+        staleSpaces = new StaleSpaces(width, height);
+        for (int index : mineIndices) {
+            if (index < 0 || index >= field.length) {
+                throw new IndexOutOfBoundsException("mine specified is outside of minefield");
+            }
+            if ((field[index] & FieldSpace.MINE_BIT) != 0) {
+                throw new IllegalArgumentException("the same mine was specified twice");
+            }
+            field[index] |= FieldSpace.MINE_BIT;
+        }
+        countNeighbourMines();
+    }
+    
+    /**
+     * Creates a Minefield of the specified size from the packed bytes (see FieldSpace) of every space,
+     * in row-major order - for example, as saved by SavedGame. Only the mine and status of each space are
+     * used; the quantities of neighbouring mines are worked out again.
+     * 
+     * @param width The width of the minefield
+     * @param height The height of the minefield
+     * @param spaces The packed spaces, which the minefield takes over and changes
+     */
+    protected Minefield(int width, int height, byte[] spaces)
+    {
+        if (height <= 0) {
+            throw new IllegalArgumentException("height was smaller than or equal to zero");
+        }
+        if (width <= 0) {
+            throw new IllegalArgumentException("width was smaller than or equal to zero");
+        }
+        if ((long)width * height != spaces.length) {
+            throw new IllegalArgumentException("quantity of spaces did not match width multiplied by height");
+        }
         
         this.width = width;
         this.height = height;
-        field = new FieldSpace[width][height];
-        hideMines(quantityOfMines);
+        field = spaces;
+        staleSpaces = new StaleSpaces(width, height);
+        countNeighbourMines();
     }
     
     /**
@@ -85,16 +202,44 @@ public class Minefield
     }
     
     /**
-     * @return A random location that currently contains no object (i.e. is null).
+     * @return The quantity of spaces in the minefield
      */
-    private Location randomFreeLocation()
+    protected int getSize()
     {
-        Location newLocation;
-        do {
-            newLocation = new Location(random.nextInt(width), random.nextInt(height));
-        } while (getObjectAt(newLocation) != null);
-        assert validLocation(newLocation) : "selected location was not actually valid";
-        return newLocation;
+        return field.length;
+    }
+    
+    /**
+     * Converts an X,Y co-ordinate into the row-major index of that space.
+     * 
+     * @param x The X-coordinate
+     * @param y The Y-coordinate
+     * @return The index of the space at X,Y
+     */
+    protected int toIndex(int x, int y)
+    {
+        if (!validLocation(x, y)) {
+            throw new IndexOutOfBoundsException("location specified is outside of minefield");
+        }
+        return (y * width) + x;
+    }
+    
+    /**
+     * @param index The index of a space
+     * @return The X-coordinate of the space at index
+     */
+    protected int indexToX(int index)
+    {
+        return index % width;
+    }
+    
+    /**
+     * @param index The index of a space
+     * @return The Y-coordinate of the space at index
+     */
+    protected int indexToY(int index)
+    {
+        return index / width;
     }
     
     /**
@@ -109,7 +254,7 @@ public class Minefield
     }
     
     /**
-     * Returns the FieldSpace stored at the coordinates X,Y.
+     * Returns a FieldSpace view of the space stored at the coordinates X,Y.
      * 
      * @param x The X-coordinate
      * @param y The Y-coordinate
@@ -117,10 +262,186 @@ public class Minefield
      */
     protected FieldSpace getObjectAt(int x, int y)
     {
-        if (!validLocation(x, y)) {
-            throw new IndexOutOfBoundsException("location specified is outside of minefield");
+        return new FieldSpace(this, toIndex(x, y));
+    }
+    
+    /**
+     * Returns the packed byte (see FieldSpace) of the space at index, as an unsigned value.
+     * 
+     * @param index The index of the space
+     * @return The packed space
+     */
+    protected int getPacked(int index)
+    {
+        return field[index] & 0xFF;
+    }
+    
+    /**
+     * Returns a read-only view of the packed bytes of every space, in row-major order, which can be
+     * written straight to a channel without copying. It reflects later changes to the minefield.
+     * 
+     * @return The packed spaces
+     */
+    protected ByteBuffer getPackedSpaces()
+    {
+        return ByteBuffer.wrap(field).asReadOnlyBuffer();
+    }
+    
+    /**
+     * @param index The index of the space
+     * @return True if the space is a mine
+     */
+    protected boolean isMine(int index)
+    {
+        return FieldSpace.mineOf(field[index]);
+    }
+    
+    /**
+     * @param index The index of the space
+     * @return The current status of the space
+     */
+    protected SpaceStatus getStatus(int index)
+    {
+        return FieldSpace.statusOf(field[index]);
+    }
+    
+    /**
+     * @param index The index of the space
+     * @return Quantity of mines neighbouring the space
+     */
+    protected short getQtyNeighbourMines(int index)
+    {
+        return FieldSpace.qtyNeighbourMinesOf(field[index]);
+    }
+    
+    /**
+     * @param index The index of the space
+     * @return True if the space has changed since its stale flag was last reset
+     */
+    protected boolean isStale(int index)
+    {
+        return staleSpaces.isStale(index);
+    }
+    
+    /**
+     * Clears the stale flag of the space at index.
+     * 
+     * @param index The index of the space
+     */
+    protected void resetStale(int index)
+    {
+        staleSpaces.reset(index);
+    }
+    
+    /**
+     * @return The set of stale spaces in this minefield
+     */
+    protected StaleSpaces getStaleSpaces()
+    {
+        return staleSpaces;
+    }
+    
+    /**
+     * Reveal the space at index. Returns true if neighbouring spaces should also be revealed.
+     * If the space is already revealed, then the command is ignored and returns false.
+     * 
+     * @param index The index of the space
+     * @return True if neighbouring spaces should be revealed
+     */
+    protected boolean reveal(int index)
+    {
+        int packed = field[index];
+        if (FieldSpace.statusOf(packed) != SpaceStatus.REVEALED) {
+            setStatus(index, SpaceStatus.REVEALED);
+            return (FieldSpace.qtyNeighbourMinesOf(packed) == 0);
+        } else {
+            return false;
+        }
+    }
+    
+    /**
+     * Toggles the space at index between the HIDDEN, FLAGGED and QUESTIONED statuses - if it is
+     * not already REVEALED status.
+     * 
+     * @param index The index of the space
+     */
+    protected void toggleStatus(int index)
+    {
+        switch (getStatus(index)) {
+            case HIDDEN:
+                setStatus(index, SpaceStatus.FLAGGED);
+                break;
+            case FLAGGED:
+                setStatus(index, SpaceStatus.QUESTIONED);
+                break;
+            case QUESTIONED:
+                setStatus(index, SpaceStatus.HIDDEN);
+                break;
+            default:
+                ;   //do nothing
         }
-        return field[x][y];
+    }
+    
+    /**
+     * Changes the status of the space at index, and marks it as stale.
+     * All changes of status go through this method, so that the statistics can be kept up to date.
+     * 
+     * @param index The index of the space
+     * @param status The new status
+     */
+    protected void setStatus(int index, SpaceStatus status)
+    {
+        int packed = field[index];
+        field[index] = (byte)FieldSpace.withStatus(packed, status);
+        staleSpaces.mark(index);
+        if (stats != null) {
+            stats.spaceChanged(index, FieldSpace.statusOf(packed), status, FieldSpace.mineOf(packed));
+        }
+        for (SpaceChangeListener listener : listeners) {
+            listener.spaceChanged(index, FieldSpace.statusOf(packed), status);
+        }
+    }
+    
+    /**
+     * Adds a listener to be told about every change of status in this minefield, after the statistics.
+     * 
+     * @param listener The listener
+     */
+    protected void addChangeListener(SpaceChangeListener listener)
+    {
+        if (listener == null) {
+            throw new IllegalArgumentException("listener must not be null");
+        }
+        listeners = Arrays.copyOf(listeners, listeners.length + 1);
+        listeners[listeners.length - 1] = listener;
+    }
+    
+    /**
+     * Stops telling a listener about changes of status. Does nothing if it was not listening.
+     * 
+     * @param listener The listener
+     */
+    protected void removeChangeListener(SpaceChangeListener listener)
+    {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                SpaceChangeListener[] fewer = new SpaceChangeListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, fewer, 0, i);
+                System.arraycopy(listeners, i + 1, fewer, i, fewer.length - i);
+                listeners = fewer;
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Sets the statistics object which should be told about every change of status in this minefield.
+     * 
+     * @param stats The statistics object
+     */
+    protected void setStats(MinefieldStats stats)
+    {
+        this.stats = stats;
     }
     
     /**
@@ -133,7 +454,7 @@ public class Minefield
     {
         return getAdjacentLocations(location.getX(), location.getY());
     }
-
+    
     /**
      * Get a list containing all valid locations adjacent to the given X,Y co-ordinate
      * Includes diagonal locations, but not the original location.
@@ -167,71 +488,129 @@ public class Minefield
     }
     
     /**
-     * Wrapper method for the place(FieldSpace objectToPlace, int x, int y) method for use with Location objects
+     * Writes the indices of all valid spaces adjacent to the space at index into the given array,
+     * and returns how many were written. Includes diagonal spaces, but not the original space.
+     * Unlike getAdjacentLocations(), this allocates nothing, so it is suitable for use in tight loops.
      * 
-     * @param objectToPlace The object to place at location
-     * @param location the Location to place the object at
+     * @param index The index of the space we want adjacent spaces to
+     * @param adjacent An array of at least 8 elements, into which the adjacent indices are written
+     * @return The quantity of adjacent indices written into the array
      */
-    private void place(FieldSpace objectToPlace, Location location)
+    protected int getAdjacentIndices(int index, int[] adjacent)
     {
-        place(objectToPlace, location.getX(), location.getY());
-    }
-    
-    /**
-     * Wrapper method for the place(FieldSpace objectToPlace, int x, int y) method for use with Location objects
-     * 
-     * @param objectToPlace The object to place at (X,Y)
-     * @param x The X-coordinate to place the object at
-     * @param y The Y-coordinate to place the object at
-     */
-    private void place(FieldSpace objectToPlace, int x, int y)
-    {
-        if (!validLocation(x, y)) {
-            throw new IndexOutOfBoundsException("location specified is outside of minefield");
+        int x = indexToX(index);
+        int y = indexToY(index);
+        boolean left = x > 0;
+        boolean right = x < width - 1;
+        int qty = 0;
+        if (y > 0) {
+            int above = index - width;
+            if (left) adjacent[qty++] = above - 1;
+            adjacent[qty++] = above;
+            if (right) adjacent[qty++] = above + 1;
         }
-        if (objectToPlace == null) {
-            throw new IllegalArgumentException("cannot set cell to null");
+        if (left) adjacent[qty++] = index - 1;
+        if (right) adjacent[qty++] = index + 1;
+        if (y < height - 1) {
+            int below = index + width;
+            if (left) adjacent[qty++] = below - 1;
+            adjacent[qty++] = below;
+            if (right) adjacent[qty++] = below + 1;
         }
-        field[x][y] = objectToPlace;
+        return qty;
     }
     
     /**
      * Create a given quantity of mines and hide them randomly throughout the Minefield.
-     * Also fill in the non-mine FieldSpace objects, and update them with their quantity of neighbouring mines.
+     * Also update the non-mine spaces with their quantity of neighbouring mines.
+     * 
+     * The mines are chosen by selection sampling: each space in turn is made a mine with probability
+     * (mines still to place) / (spaces still to consider), which picks a uniformly random set of spaces
+     * in a single pass. Unlike repeatedly picking random spaces until a free one turns up, this takes
+     * the same time whatever the density of mines - even if every space is to be a mine.
      * 
      * @param quantityOfMines The quantity of mines to hide in this minefield.
+     * @param safeLocation The space which, with its neighbours, must not be a mine, or null
+     * @param random The random number generator to choose the spaces with
      */
-    private void hideMines(short quantityOfMines)
+    private void hideMines(int quantityOfMines, Location safeLocation, Random random)
     {
-        List<Location> mineLocations = new LinkedList<Location>();
+        //The block of spaces to keep clear, which is empty if there is no safe location.
+        int safeLeft = 0, safeRight = -1, safeTop = 0, safeBottom = -1;
+        if (safeLocation != null) {
+            safeLeft = Math.max(0, safeLocation.getX() - 1);
+            safeRight = Math.min(width - 1, safeLocation.getX() + 1);
+            safeTop = Math.max(0, safeLocation.getY() - 1);
+            safeBottom = Math.min(height - 1, safeLocation.getY() + 1);
+        }
+        int qtyCandidates = field.length - ((safeRight - safeLeft + 1) * (safeBottom - safeTop + 1));
+        int safeStart = safeTop * width, safeEnd = (safeBottom + 1) * width;
         
         if (quantityOfMines <= 0) {
             throw new IllegalArgumentException("quantityOfMines (to make) was less than one");
         }
-        
-        //Place the mines, and record where we put them.
-        for (short i = 0; i < quantityOfMines; i++) {
-            Location mineLocation = this.randomFreeLocation();
-            mineLocations.add(mineLocation);
-            this.place(new FieldSpace(true), mineLocation);
+        if (quantityOfMines > qtyCandidates) {
+            throw new IllegalArgumentException("quantityOfMines (to make) was greater than the quantity of spaces");
         }
         
-        //Now we fill out all the other spaces...
-        for (int x = 0; x < this.getWidth(); x++) {
-            for (int y = 0; y < this.getHeight(); y++) {
-                //Make sure not to overwrite the mines!
-                if (this.getObjectAt(x, y) == null) {
-                    this.place(new FieldSpace(false), x, y);
+        //Place the mines.
+        int minesLeft = quantityOfMines;
+        for (int i = 0; i < field.length && minesLeft > 0; i++) {
+            if (i >= safeStart && i < safeEnd) {
+                int x = i % width;
+                if (x >= safeLeft && x <= safeRight) {
+                    continue;
                 }
             }
+            if (random.nextInt(qtyCandidates) < minesLeft) {
+                field[i] |= FieldSpace.MINE_BIT;
+                minesLeft--;
+            }
+            qtyCandidates--;
         }
+        assert minesLeft == 0 : "selection sampling did not place every mine";
         
-        //and finally update all spaces neighbouring a mine to have the correct NeighboursQuantity.
-        for (Location mineLoc : mineLocations) {
-            List<Location> adjacentLocations = this.getAdjacentLocations(mineLoc);
-            for (Location adjacentLocation : adjacentLocations) {
-                this.getObjectAt(adjacentLocation).incrementQtyNeighbourMines();
+        //and finally update all spaces to have the correct NeighboursQuantity.
+        countNeighbourMines();
+    }
+    
+    /**
+     * Sets the quantity of neighbouring mines of every space, in one sweep over the minefield.
+     * Each row is combined with the rows above and below it, so each space is read three times
+     * rather than nine.
+     */
+    private void countNeighbourMines()
+    {
+        for (int y = 0; y < height; y++) {
+            int rowStart = y * width;
+            //columnMines is the quantity of mines in the column of up to three spaces centred on (x, y).
+            int previousColumn = 0;
+            int currentColumn = columnMines(rowStart, y);
+            for (int x = 0; x < width; x++) {
+                int nextColumn = (x + 1 < width) ? columnMines(rowStart + x + 1, y) : 0;
+                int index = rowStart + x;
+                int qty = previousColumn + currentColumn + nextColumn - (field[index] & FieldSpace.MINE_BIT);
+                field[index] = (byte)((field[index] & ~FieldSpace.COUNT_MASK) | (qty << FieldSpace.COUNT_SHIFT));
+                previousColumn = currentColumn;
+                currentColumn = nextColumn;
             }
         }
     }
+    
+    /**
+     * @param index The index of a space
+     * @param y The Y-coordinate of that space
+     * @return The quantity of mines in the space at index and the spaces directly above and below it
+     */
+    private int columnMines(int index, int y)
+    {
+        int qty = field[index] & FieldSpace.MINE_BIT;
+        if (y > 0) {
+            qty += field[index - width] & FieldSpace.MINE_BIT;
+        }
+        if (y < height - 1) {
+            qty += field[index + width] & FieldSpace.MINE_BIT;
+        }
+        return qty;
+    }
 }
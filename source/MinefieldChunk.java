@@ -0,0 +1,184 @@
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * One fixed-size square chunk of a ChunkedMinefield.
+ *
+ * The spaces of a chunk are packed one byte each, row-major, exactly like the spaces of a Minefield
+ * (see FieldSpace for the layout). Where the mines are is never saved anywhere: it is a pure function
+ * of the minefield's seed and each space's coordinates (see SeededMines), so a chunk can always be
+ * regenerated. A chunk is only created once the player changes one of its spaces, and the only thing
+ * that has to be saved when it is evicted from memory is the status of each space.
+ *
+ * @author  Nicholas Parks Young
+ * @version 2026-10-16
+ */
+public class MinefieldChunk
+{
+    //Chunks are SIZE spaces wide and high.
+    protected static final int SHIFT = 6;
+    protected static final int SIZE = 1 << SHIFT;
+    protected static final int MASK = SIZE - 1;
+    protected static final int AREA = SIZE * SIZE;
+    
+    private final int chunkX, chunkY;
+    private final byte[] spaces;
+    //True if the player has changed the status of any space in this chunk, and true if they have done so
+    //since the statuses were last saved.
+    private boolean touched;
+    private boolean unsaved;
+    
+    /**
+     * Generates a chunk, with all of its spaces hidden.
+     *
+     * @param mines Where the mines are in the minefield
+     * @param chunkX The x-coordinate of the chunk, in chunks
+     * @param chunkY The y-coordinate of the chunk, in chunks
+     */
+    protected MinefieldChunk(SeededMines mines, int chunkX, int chunkY)
+    {
+        this.chunkX = chunkX;
+        this.chunkY = chunkY;
+        spaces = new byte[AREA];
+        touched = false;
+        unsaved = false;
+        
+        //Hash each space once, along with the ring of spaces around the chunk which the neighbour counts
+        //along its edges depend on, rather than hashing every neighbour of every space.
+        int span = SIZE + 2;
+        boolean[] isMine = new boolean[span * span];
+        long left = ((long)chunkX << SHIFT) - 1;
+        long top = ((long)chunkY << SHIFT) - 1;
+        for (int y = 0; y < span; y++) {
+            for (int x = 0; x < span; x++) {
+                isMine[(y * span) + x] = mines.isMine(left + x, top + y);
+            }
+        }
+        
+        for (int y = 0; y < SIZE; y++) {
+            for (int x = 0; x < SIZE; x++) {
+                int centre = ((y + 1) * span) + x + 1;
+                int qty = 0;
+                for (int dy = -span; dy <= span; dy += span) {
+                    for (int dx = -1; dx <= 1; dx++) {
+                        if ((dx != 0 || dy != 0) && isMine[centre + dy + dx]) {
+                            qty++;
+                        }
+                    }
+                }
+                int packed = qty << FieldSpace.COUNT_SHIFT;
+                if (isMine[centre]) {
+                    packed |= FieldSpace.MINE_BIT;
+                }
+                spaces[(y << SHIFT) | x] = (byte)packed;
+            }
+        }
+    }
+    
+    /**
+     * @return The x-coordinate of this chunk, in chunks
+     */
+    protected int getChunkX()
+    {
+        return chunkX;
+    }
+    
+    /**
+     * @return The y-coordinate of this chunk, in chunks
+     */
+    protected int getChunkY()
+    {
+        return chunkY;
+    }
+    
+    /**
+     * @param local The row-major index of a space within this chunk
+     * @return The packed byte (see FieldSpace) of that space, as an unsigned value
+     */
+    protected int getPacked(int local)
+    {
+        return spaces[local] & 0xFF;
+    }
+    
+    /**
+     * Changes the status of a space within this chunk.
+     *
+     * @param local The row-major index of a space within this chunk
+     * @param status The new status
+     */
+    protected void setStatus(int local, SpaceStatus status)
+    {
+        spaces[local] = (byte)FieldSpace.withStatus(spaces[local], status);
+        touched = true;
+        unsaved = true;
+    }
+    
+    /**
+     * @return True if the player has changed the status of any space in this chunk
+     */
+    protected boolean isTouched()
+    {
+        return touched;
+    }
+    
+    /**
+     * @return True if the player has changed the status of any space since the statuses were last saved
+     */
+    protected boolean isUnsaved()
+    {
+        return unsaved;
+    }
+    
+    /**
+     * Packs the status of every space into two bits and compresses the result. A chunk the player has
+     * finished with - every safe space revealed - compresses to a few dozen bytes.
+     *
+     * @return The compressed statuses of this chunk's spaces
+     */
+    protected byte[] saveStatuses()
+    {
+        byte[] statuses = new byte[AREA / 4];
+        for (int i = 0; i < AREA; i++) {
+            int status = (spaces[i] & FieldSpace.STATUS_MASK) >>> FieldSpace.STATUS_SHIFT;
+            statuses[i >>> 2] |= status << ((i & 3) << 1);
+        }
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        deflater.setInput(statuses);
+        deflater.finish();
+        byte[] buffer = new byte[statuses.length + 64];
+        int length = deflater.deflate(buffer);
+        deflater.end();
+        byte[] compressed = new byte[length];
+        System.arraycopy(buffer, 0, compressed, 0, length);
+        unsaved = false;
+        return compressed;
+    }
+    
+    /**
+     * Restores the statuses of this chunk's spaces from the output of saveStatuses().
+     *
+     * @param compressed The compressed statuses
+     * @throws IllegalArgumentException if the data is not a valid set of statuses
+     */
+    protected void loadStatuses(byte[] compressed)
+    {
+        byte[] statuses = new byte[AREA / 4];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            if (inflater.inflate(statuses) != statuses.length) {
+                throw new IllegalArgumentException("chunk data was truncated");
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("chunk data was corrupt", e);
+        } finally {
+            inflater.end();
+        }
+        for (int i = 0; i < AREA; i++) {
+            int status = (statuses[i >>> 2] >>> ((i & 3) << 1)) & 3;
+            spaces[i] = (byte)((spaces[i] & ~FieldSpace.STATUS_MASK) | (status << FieldSpace.STATUS_SHIFT));
+        }
+        touched = true;
+    }
+}
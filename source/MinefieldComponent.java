@@ -0,0 +1,514 @@
+import java.awt.*;
+import java.awt.event.*;
+import java.awt.image.BufferedImage;
+import javax.swing.*;
+
+/**
+ * A single Swing component which draws the whole minefield of a GameLogic engine.
+ *
+ * Rather than creating one component per space, this paints the spaces straight from the engine's
+ * state, and only paints the spaces that fall inside the area Swing asks it to repaint - so when it is
+ * placed in a JScrollPane, only the visible window of the minefield is ever drawn, however large the
+ * minefield is.
+ *
+ * The minefield can be zoomed in and out, by holding down Control and turning the mouse wheel, or with
+ * Control and plus/minus. The zoom is the size of each space in pixels, and may be less than one. As the
+ * spaces get smaller, less detail is drawn: first the text goes, then the grid lines, and when the spaces
+ * are very small the minefield is drawn from a cached overview image instead, in which each pixel is the
+ * average colour of a block of spaces. The overview is only built when it is first needed, and after that
+ * only the blocks containing spaces that have changed are recalculated.
+ *
+ * This component does not respond to clicks itself. Use getLocationAt() to find out which space a point
+ * on the component falls in.
+ *
+ * @author  Nicholas Parks Young
+ * @version 2026-10-16
+ */
+public class MinefieldComponent extends JComponent implements Scrollable
+{
+    private static final long serialVersionUID = 1L;
+    
+    //Colours and font sizes used in display of the minefield.
+    private static final Color GRID_COLOR = Color.WHITE;
+    private static final Color HIDDEN_COLOR = new Color(34, 177, 76);
+    private static final Color REVEALED_COLOR = new Color(158, 237, 182);
+    private static final Color FLAGGED_COLOR = new Color(255, 174, 201);
+    private static final Color QUESTIONED_COLOR = new Color(255, 233, 113);
+    private static final Color ACTUAL_MINE_COLOR = new Color(128, 0, 0);
+    private static final int BASE_FONT_SIZE = 12;
+    
+    //The zoom, in pixels per space, the component starts at; the font sizes above are for this zoom.
+    private static final double DEFAULT_SCALE = 30;
+    //The largest zoom allowed, and the factor each step of zooming in or out changes the zoom by.
+    private static final double MAX_SCALE = 64;
+    private static final double ZOOM_STEP = 1.25;
+    //Below these zooms, text is not drawn, grid lines are not drawn, and the overview image is used.
+    private static final double TEXT_SCALE = 12;
+    private static final double GRID_SCALE = 5;
+    private static final double OVERVIEW_SCALE = 4;
+    //The minimum size, in pixels, the whole minefield may be zoomed out to.
+    private static final int MIN_FIELD_PIXELS = 512;
+    //The largest the overview image may be, in pixels, in either direction.
+    private static final int MAX_OVERVIEW_PIXELS = 2048;
+    
+    //The game engine this component is displaying
+    private final GameLogic gameEngine;
+    //Current zoom, in pixels per space, and the range it may be set within.
+    private double scale;
+    private final double minScale;
+    private final double maxScale;
+    //Fonts for the text drawn in spaces at the current zoom, indexed by quantity of neighbouring mines.
+    private Font[] fonts;
+    
+    //The overview image (null until first needed), how many spaces wide and high each of its pixels is,
+    //and a bitset of its pixels which need recalculating.
+    private BufferedImage overview;
+    private final int overviewBlock;
+    private final int overviewWidth;
+    private final int overviewHeight;
+    private final long[] dirtyBlocks;
+    private boolean anyDirtyBlocks;
+    
+    /**
+     * Constructor for objects of type MinefieldComponent.
+     *
+     * @param gameEngine The game engine whose minefield this component will display
+     */
+    public MinefieldComponent(GameLogic gameEngine)
+    {
+        if (gameEngine == null) {
+            throw new IllegalArgumentException("gameEngine must not be null");
+        }
+        this.gameEngine = gameEngine;
+        
+        int longestSide = Math.max(gameEngine.getWidth(), gameEngine.getHeight());
+        minScale = Math.min(1.0, (double)MIN_FIELD_PIXELS / longestSide);
+        //Don't let the component grow too big for Swing's int coordinates.
+        maxScale = Math.max(minScale, Math.min(MAX_SCALE, (Integer.MAX_VALUE / 2.0) / longestSide));
+        
+        overviewBlock = (longestSide + MAX_OVERVIEW_PIXELS - 1) / MAX_OVERVIEW_PIXELS;
+        overviewWidth = (gameEngine.getWidth() + overviewBlock - 1) / overviewBlock;
+        overviewHeight = (gameEngine.getHeight() + overviewBlock - 1) / overviewBlock;
+        dirtyBlocks = new long[(int)(((long)overviewWidth * overviewHeight + 63) >>> 6)];
+        
+        setOpaque(true);
+        setScale(Math.min(DEFAULT_SCALE, maxScale));
+        setupZoomControls();
+    }
+    
+    /**
+     * Sets up the mouse wheel and keyboard shortcuts for zooming. Turning the mouse wheel without Control
+     * held down is passed on to the enclosing scroll pane, so that it still scrolls the minefield.
+     */
+    private void setupZoomControls()
+    {
+        addMouseWheelListener(new MouseWheelListener() {
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e)
+            {
+                if (e.isControlDown()) {
+                    zoom(Math.pow(ZOOM_STEP, -e.getPreciseWheelRotation()), e.getPoint());
+                } else if (getParent() != null) {
+                    getParent().dispatchEvent(SwingUtilities.convertMouseEvent(MinefieldComponent.this, e, getParent()));
+                }
+            }
+        });
+        
+        InputMap inputs = getInputMap(WHEN_IN_FOCUSED_WINDOW);
+        inputs.put(KeyStroke.getKeyStroke(KeyEvent.VK_EQUALS, InputEvent.CTRL_DOWN_MASK), "zoomIn");
+        inputs.put(KeyStroke.getKeyStroke(KeyEvent.VK_ADD, InputEvent.CTRL_DOWN_MASK), "zoomIn");
+        inputs.put(KeyStroke.getKeyStroke(KeyEvent.VK_MINUS, InputEvent.CTRL_DOWN_MASK), "zoomOut");
+        inputs.put(KeyStroke.getKeyStroke(KeyEvent.VK_SUBTRACT, InputEvent.CTRL_DOWN_MASK), "zoomOut");
+        getActionMap().put("zoomIn", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e)
+            {
+                zoom(ZOOM_STEP, null);
+            }
+        });
+        getActionMap().put("zoomOut", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e)
+            {
+                zoom(1 / ZOOM_STEP, null);
+            }
+        });
+    }
+    
+    /**
+     * Multiplies the zoom by factor, keeping the point anchor where it is on the screen.
+     * If the anchor is null, the centre of the visible area is kept where it is instead.
+     *
+     * @param factor The factor to multiply the zoom by
+     * @param anchor The point on this component to keep still, or null
+     */
+    public void zoom(double factor, Point anchor)
+    {
+        double oldScale = scale;
+        setScale(Math.max(minScale, Math.min(maxScale, scale * factor)));
+        if (scale == oldScale) {
+            return;
+        }
+        
+        final Rectangle visible = getVisibleRect();
+        if (anchor == null) {
+            anchor = new Point(visible.x + visible.width / 2, visible.y + visible.height / 2);
+        }
+        //The anchor's position within the viewport must stay the same, so move the view by however much
+        //the anchor has moved on the component.
+        double ratio = scale / oldScale;
+        final int newX = (int)Math.round(anchor.x * ratio) - (anchor.x - visible.x);
+        final int newY = (int)Math.round(anchor.y * ratio) - (anchor.y - visible.y);
+        
+        revalidate();
+        repaint();
+        //The new size only takes effect when the scroll pane is laid out again, so scroll afterwards.
+        SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                scrollRectToVisible(new Rectangle(newX, newY, visible.width, visible.height));
+            }});
+    }
+    
+    /**
+     * Sets the zoom, and everything that depends on it.
+     *
+     * @param newScale The new zoom, in pixels per space
+     */
+    private void setScale(double newScale)
+    {
+        scale = newScale;
+        setPreferredSize(new Dimension(columnToPixel(gameEngine.getWidth()), rowToPixel(gameEngine.getHeight())));
+        
+        //As the number of neighbouring mines gets larger, the display font gets correspondingly larger.
+        fonts = new Font[9];
+        for (int i = 0; i < fonts.length; i++) {
+            fonts[i] = new Font("Arial", Font.PLAIN, (int)Math.round((BASE_FONT_SIZE + (i * 2)) * scale / DEFAULT_SCALE));
+        }
+    }
+    
+    /**
+     * Finds the space that is drawn at the point X,Y on this component.
+     *
+     * @param x The x-coordinate of the point, in pixels
+     * @param y The y-coordinate of the point, in pixels
+     * @return The location of the space drawn at that point, or null if there isn't one
+     */
+    public Location getLocationAt(int x, int y)
+    {
+        int column = pixelToColumn(x);
+        int row = pixelToRow(y);
+        if (x < 0 || y < 0 || !gameEngine.validLocation(column, row)) {
+            return null;
+        }
+        return new Location(column, row);
+    }
+    
+    /**
+     * Asks Swing to repaint the space at X,Y, and nothing else, the next time it paints.
+     * Also marks that space's block of the overview image as needing to be recalculated.
+     *
+     * @param x The x-coordinate of the space
+     * @param y The y-coordinate of the space
+     */
+    public void repaintSpace(int x, int y)
+    {
+        repaintSpaces(x, y, 1, 1);
+    }
+    
+    /**
+     * Asks Swing to repaint the given rectangle of spaces, and nothing else, the next time it paints.
+     * Also marks the blocks of the overview image covering those spaces as needing to be recalculated.
+     *
+     * @param x The x-coordinate of the left-most column of spaces
+     * @param y The y-coordinate of the top row of spaces
+     * @param width The quantity of columns to repaint
+     * @param height The quantity of rows to repaint
+     */
+    public void repaintSpaces(int x, int y, int width, int height)
+    {
+        if (overview != null) {
+            for (int by = y / overviewBlock; by <= (y + height - 1) / overviewBlock; by++) {
+                for (int bx = x / overviewBlock; bx <= (x + width - 1) / overviewBlock; bx++) {
+                    int block = (by * overviewWidth) + bx;
+                    dirtyBlocks[block >>> 6] |= 1L << block;
+                }
+            }
+            anyDirtyBlocks = true;
+        }
+        int left = columnToPixel(x);
+        int top = rowToPixel(y);
+        repaint(left, top, Math.max(1, columnToPixel(x + width) - left), Math.max(1, rowToPixel(y + height) - top));
+    }
+    
+    /**
+     * Paints the spaces that intersect the area Swing has asked to be repainted.
+     *
+     * @param g The graphics context to paint with
+     */
+    @Override
+    protected void paintComponent(Graphics g)
+    {
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        
+        if (scale < OVERVIEW_SCALE) {
+            paintOverview(g, clip);
+            return;
+        }
+        
+        //Work out which spaces fall within the clip, and only paint those.
+        int firstColumn = Math.max(0, pixelToColumn(clip.x));
+        int lastColumn = Math.min(gameEngine.getWidth() - 1, pixelToColumn(clip.x + clip.width - 1));
+        int firstRow = Math.max(0, pixelToRow(clip.y));
+        int lastRow = Math.min(gameEngine.getHeight() - 1, pixelToRow(clip.y + clip.height - 1));
+        
+        FontMetrics[] metrics = new FontMetrics[fonts.length];
+        for (int y = firstRow; y <= lastRow; y++) {
+            int top = rowToPixel(y);
+            int bottom = rowToPixel(y + 1);
+            for (int x = firstColumn; x <= lastColumn; x++) {
+                int left = columnToPixel(x);
+                int right = columnToPixel(x + 1);
+                paintSpace(g, gameEngine.getSquareAt(x, y), left, top, right - left, bottom - top, metrics);
+            }
+        }
+    }
+    
+    /**
+     * Paints a single space, in as much detail as the current zoom allows.
+     *
+     * @param g The graphics context to paint with
+     * @param square The square to paint
+     * @param left The left edge of the space, in pixels
+     * @param top The top edge of the space, in pixels
+     * @param width The width of the space, in pixels
+     * @param height The height of the space, in pixels
+     * @param metrics Cache of the metrics of each font, filled in as they are needed
+     */
+    private void paintSpace(Graphics g, Square square, int left, int top, int width, int height, FontMetrics[] metrics)
+    {
+        Color foreground = Color.BLACK;
+        String text;
+        int fontIndex = 0;
+        
+        switch (square.getStatus()) {
+            case HIDDEN:    //square is currently hidden
+                text = "";
+                break;
+            case FLAGGED:   //square is currently flagged
+                text = "F";
+                break;
+            case QUESTIONED:    //square is currently makred as questionable
+                text = "?";
+                break;
+            case REVEALED:  //square is revealed
+            default:
+                if (square.isMine()) {
+                    foreground = Color.WHITE;
+                    text = "M";
+                } else {
+                    //if its not a mine, show the adjacent mines number, except if its zero in which case
+                    //leave it blank.
+                    fontIndex = square.getQtyNeighbourMines();
+                    text = (fontIndex == 0) ? "" : Integer.toString(fontIndex);
+                }
+        }
+        
+        if (scale >= GRID_SCALE) {
+            //The grid lines are the space's one pixel border.
+            g.setColor(GRID_COLOR);
+            g.drawRect(left, top, width - 1, height - 1);
+            g.setColor(colorOf(square));
+            g.fillRect(left + 1, top + 1, width - 2, height - 2);
+        } else {
+            g.setColor(colorOf(square));
+            g.fillRect(left, top, width, height);
+        }
+        
+        if (scale >= TEXT_SCALE && !text.isEmpty()) {
+            if (metrics[fontIndex] == null) {
+                metrics[fontIndex] = g.getFontMetrics(fonts[fontIndex]);
+            }
+            FontMetrics fm = metrics[fontIndex];
+            g.setFont(fonts[fontIndex]);
+            g.setColor(foreground);
+            g.drawString(text,
+                left + (width - fm.stringWidth(text)) / 2,
+                top + (height - fm.getHeight()) / 2 + fm.getAscent());
+        }
+    }
+    
+    /**
+     * Paints the part of the overview image that falls within the clip, scaled to the current zoom.
+     * Builds the overview first if this is the first time it is needed, or brings it up to date if
+     * any spaces have changed since it was last used.
+     *
+     * @param g The graphics context to paint with
+     * @param clip The area to paint
+     */
+    private void paintOverview(Graphics g, Rectangle clip)
+    {
+        if (overview == null) {
+            overview = new BufferedImage(overviewWidth, overviewHeight, BufferedImage.TYPE_INT_RGB);
+            for (int by = 0; by < overviewHeight; by++) {
+                for (int bx = 0; bx < overviewWidth; bx++) {
+                    overview.setRGB(bx, by, blockColor(bx, by));
+                }
+            }
+            anyDirtyBlocks = false;
+        } else if (anyDirtyBlocks) {
+            for (int word = 0; word < dirtyBlocks.length; word++) {
+                long bits = dirtyBlocks[word];
+                while (bits != 0) {
+                    int block = (word << 6) + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    int bx = block % overviewWidth;
+                    int by = block / overviewWidth;
+                    overview.setRGB(bx, by, blockColor(bx, by));
+                }
+                dirtyBlocks[word] = 0;
+            }
+            anyDirtyBlocks = false;
+        }
+        
+        double blockScale = scale * overviewBlock;
+        int firstX = Math.max(0, (int)(clip.x / blockScale));
+        int firstY = Math.max(0, (int)(clip.y / blockScale));
+        int lastX = Math.min(overviewWidth, (int)Math.ceil((clip.x + clip.width) / blockScale));
+        int lastY = Math.min(overviewHeight, (int)Math.ceil((clip.y + clip.height) / blockScale));
+        if (firstX < lastX && firstY < lastY) {
+            g.drawImage(overview,
+                (int)Math.floor(firstX * blockScale), (int)Math.floor(firstY * blockScale),
+                (int)Math.floor(lastX * blockScale), (int)Math.floor(lastY * blockScale),
+                firstX, firstY, lastX, lastY, null);
+        }
+    }
+    
+    /**
+     * @param blockX The x-coordinate of a pixel of the overview
+     * @param blockY The y-coordinate of a pixel of the overview
+     * @return The average colour, as RGB, of the spaces that pixel of the overview stands for
+     */
+    private int blockColor(int blockX, int blockY)
+    {
+        int firstX = blockX * overviewBlock;
+        int firstY = blockY * overviewBlock;
+        int lastX = Math.min(gameEngine.getWidth(), firstX + overviewBlock);
+        int lastY = Math.min(gameEngine.getHeight(), firstY + overviewBlock);
+        int red = 0, green = 0, blue = 0, qty = 0;
+        for (int y = firstY; y < lastY; y++) {
+            for (int x = firstX; x < lastX; x++) {
+                Color c = colorOf(gameEngine.getSquareAt(x, y));
+                red += c.getRed();
+                green += c.getGreen();
+                blue += c.getBlue();
+                qty++;
+            }
+        }
+        return ((red / qty) << 16) | ((green / qty) << 8) | (blue / qty);
+    }
+    
+    /**
+     * @param square A square of the minefield
+     * @return The background colour that square is drawn with
+     */
+    private static Color colorOf(Square square)
+    {
+        switch (square.getStatus()) {
+            case HIDDEN:
+                return HIDDEN_COLOR;
+            case FLAGGED:
+                return FLAGGED_COLOR;
+            case QUESTIONED:
+                return QUESTIONED_COLOR;
+            case REVEALED:
+            default:
+                return square.isMine() ? ACTUAL_MINE_COLOR : REVEALED_COLOR;
+        }
+    }
+    
+    /**
+     * @param x An x-coordinate on this component, in pixels
+     * @return The column of spaces drawn at that x-coordinate
+     */
+    private int pixelToColumn(int x)
+    {
+        return (int)Math.floor(x / scale);
+    }
+    
+    /**
+     * @param y A y-coordinate on this component, in pixels
+     * @return The row of spaces drawn at that y-coordinate
+     */
+    private int pixelToRow(int y)
+    {
+        return (int)Math.floor(y / scale);
+    }
+    
+    /**
+     * @param column A column of spaces
+     * @return The x-coordinate of the left edge of that column, in pixels
+     */
+    private int columnToPixel(int column)
+    {
+        return (int)Math.ceil(column * scale);
+    }
+    
+    /**
+     * @param row A row of spaces
+     * @return The y-coordinate of the top edge of that row, in pixels
+     */
+    private int rowToPixel(int row)
+    {
+        return (int)Math.ceil(row * scale);
+    }
+    
+    /**
+     * @return The size of the viewport this component would like when in a scroll pane.
+     */
+    @Override
+    public Dimension getPreferredScrollableViewportSize()
+    {
+        return getPreferredSize();
+    }
+    
+    /**
+     * Scrolling by one unit moves by one space.
+     */
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction)
+    {
+        return Math.max(1, (int)Math.round(scale));
+    }
+    
+    /**
+     * Scrolling by one block moves by most of the visible area, leaving one space of overlap.
+     */
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction)
+    {
+        int extent = (orientation == SwingConstants.HORIZONTAL) ? visibleRect.width : visibleRect.height;
+        return Math.max(1, extent - (int)Math.round(scale));
+    }
+    
+    /**
+     * The minefield is never stretched to fit the viewport - it is always drawn at the current zoom.
+     */
+    @Override
+    public boolean getScrollableTracksViewportWidth()
+    {
+        return false;
+    }
+    
+    /**
+     * The minefield is never stretched to fit the viewport - it is always drawn at the current zoom.
+     */
+    @Override
+    public boolean getScrollableTracksViewportHeight()
+    {
+        return false;
+    }
+}
@@ -1,33 +1,34 @@
 import java.util.Set;
 import java.util.LinkedHashSet;
+import java.util.function.IntConsumer;
 
 /**
- * This class, on command, analyzes the Minefield class passed to it in its constructor
- * and creates statistics reflecting that analysis and stores that information until
- * the next refresh.
- * 
- * As an efficiency measure (since it can detect these things whilst compiling the statistics)
- * it also creates a list of locations that are stale - i.e. they have changed since they
- * were last analysed. The list of stale spaces is forgotten after it is accessed, to ensure
- * that spaces are not refreshed by higher-up code unnecessarily.
- * 
+ * This class keeps statistics about the Minefield class passed to it in its constructor.
+ * The minefield is analysed once when this object is created; after that, the Minefield reports
+ * every change of status to spaceChanged() and the statistics are updated incrementally, so keeping
+ * them current costs a constant amount of time per changed space rather than a rescan of the field.
+ *
+ * It also hands out the minefield's stale spaces - i.e. those that have changed since they were last
+ * fetched. Stale spaces are forgotten after they are fetched, to ensure that spaces are not refreshed
+ * by higher-up code unnecessarily.
+ *
  * @author  Nicholas Parks Young
- * @version 2015-04-03
+ * @version 2026-10-16
  */
 public class MinefieldStats
 {
     private int qtyFlagged;
     private int qtyQuestioned;
     private int qtyHidden;
-    private short qtyMines;
-    private short qtyRevealedMines;
+    private int qtyMines;
+    private int qtyRevealedMines;
     private long startTime;
     private Minefield field;
-    private LinkedHashSet<Location> staleLocations;
     
     /**
-     * Constructor for objects of type MinefieldStats
-     * 
+     * Constructor for objects of type MinefieldStats.
+     * Analyses the whole minefield, and registers with it to be told about subsequent changes.
+     *
      * @param field The minefield this object will analyse
      */
     protected MinefieldStats(Minefield field)
@@ -35,29 +36,52 @@ public class MinefieldStats
         if (field == null) {
             throw new IllegalArgumentException("field must not be null");
         }
-        qtyFlagged = 0;
-        qtyQuestioned = 0;
-        qtyMines = 0;
-        qtyHidden = 0;
-        qtyRevealedMines = 0;
         startTime = System.currentTimeMillis();
         this.field = field;
-        staleLocations = new LinkedHashSet<Location>();
+        refresh();
+        field.setStats(this);
     }
-
+    
     /**
-     * Returns a Set of Locations where the space at that location was marked as stale the
-     * last time the minefield was analysed. When the set is returned by this method, it is
-     * forgotten by this class as the locations are no longer stale. Therefore subsequent
-     * invocations of this method (without calling refresh() first) will return an empty set.
-     * 
+     * Returns a Set of Locations where the space at that location has changed since the stale spaces
+     * were last fetched. Once returned, the locations are no longer stale. Therefore subsequent
+     * invocations of this method (without changing the minefield in between) will return an empty set.
+     *
+     * This creates a Location object for every stale space - drainStaleIndices() and drainStaleRegions()
+     * do the same job without allocating anything.
+     *
      * @return List of stale locations
      */
     protected Set<Location> getStaleLocations()
     {
-        LinkedHashSet<Location> currentList = staleLocations;
-        staleLocations = new LinkedHashSet<Location>();
-        return currentList;
+        final Set<Location> staleLocations = new LinkedHashSet<Location>();
+        drainStaleIndices(new IntConsumer() {
+            @Override
+            public void accept(int index) {
+                staleLocations.add(new Location(field.indexToX(index), field.indexToY(index)));
+            }});
+        return staleLocations;
+    }
+    
+    /**
+     * Hands the index of every stale space to the consumer; the spaces are then no longer stale.
+     *
+     * @param consumer The consumer of the stale indices
+     */
+    protected void drainStaleIndices(IntConsumer consumer)
+    {
+        field.getStaleSpaces().drainIndices(consumer);
+    }
+    
+    /**
+     * Hands rectangles which between them cover every stale space to the consumer; the spaces are then
+     * no longer stale.
+     *
+     * @param consumer The consumer of the stale regions
+     */
+    protected void drainStaleRegions(RegionConsumer consumer)
+    {
+        field.getStaleSpaces().drainRegions(consumer);
     }
     
     /**
@@ -68,6 +92,17 @@ public class MinefieldStats
         return System.currentTimeMillis() - startTime;
     }
     
+    /**
+     * Winds the clock back, so that it is as if this stats object was created the given time ago - for
+     * example, to carry on the timing of a game that was saved.
+     * 
+     * @param millis The running time, in milliseconds
+     */
+    protected void setRunningTime(long millis)
+    {
+        startTime = System.currentTimeMillis() - millis;
+    }
+    
     /**
      * @return Quantity of flagged spaces present in the minefield
      */
@@ -103,14 +138,59 @@ public class MinefieldStats
     /**
      * @return Quantity of mines present in the minefield, which have also been revealed
      */
-    protected short getRevealedMines()
+    protected int getRevealedMines()
     {
         return qtyRevealedMines;
     }
     
     /**
-     * Call this method to update the statistics stored by this object, and also
-     * to create a new list of stale locations.
+     * Called by the Minefield whenever the status of one of its spaces changes, to update the statistics.
+     *
+     * @param index The index of the space that changed
+     * @param oldStatus The status of the space before the change
+     * @param newStatus The status of the space after the change
+     * @param mine True if the space is a mine
+     */
+    protected void spaceChanged(int index, SpaceStatus oldStatus, SpaceStatus newStatus, boolean mine)
+    {
+        adjustCounters(oldStatus, mine, -1);
+        adjustCounters(newStatus, mine, +1);
+    }
+    
+    /**
+     * Adds delta to the counters that a space of the given status contributes to.
+     *
+     * @param status The status of the space
+     * @param mine True if the space is a mine
+     * @param delta The amount to add, +1 or -1
+     */
+    private void adjustCounters(SpaceStatus status, boolean mine, int delta)
+    {
+        switch (status) {
+            case HIDDEN:
+                qtyHidden += delta;
+                break;
+            case FLAGGED:
+                qtyFlagged += delta;
+                break;
+            case QUESTIONED:
+                qtyQuestioned += delta;
+                break;
+            case REVEALED:
+                if (mine) {
+                    qtyRevealedMines += delta;
+                }
+                break;
+            default:
+                ;   //do nothing
+        }
+    }
+    
+    /**
+     * Throws away the statistics and recalculates them from scratch by analysing every space
+     * in the minefield.
+     *
+     * This is not needed during normal play, as the statistics are kept up to date incrementally.
      */
     protected void refresh()
     {
@@ -121,49 +201,59 @@ public class MinefieldStats
         qtyRevealedMines = 0;
         qtyHidden = 0;
         
-        //For every space in the minefield...
-        for (int y = 0; y < field.getHeight(); y++) {
-            for (int x = 0; x < field.getWidth(); x++) {
-                //fetch the space
-                FieldSpace space = field.getObjectAt(x, y);
-                
-                //If the space is stale, add its location to the list of stale locations
-                if (space.isStale()) {
-                    //Avoid re-adding to the list of stale Locations if its already in it
-                    Location l = new Location(x, y);
-                    if (!staleLocations.contains(l)) {
-                        staleLocations.add(l);
-                    }
-                    //Tell the space that its not stale anymore.
-                    space.resetStale();
-                }
-
-                if (space.isMine()) {
-                    //If the space is a mine, increment the mine counter.
-                    qtyMines++;
-                    if (space.getStatus() == SpaceStatus.REVEALED) {
-                        //if it is already revealed, increment the revealed mine counter.
-                        qtyRevealedMines++;
+        //For every space in the minefield, in storage order...
+        for (int i = 0; i < field.getSize(); i++) {
+            //fetch the packed space
+            int space = field.getPacked(i);
+            boolean mine = FieldSpace.mineOf(space);
+            
+            if (mine) {
+                //If the space is a mine, increment the mine counter.
+                qtyMines++;
+            }
+            adjustCounters(FieldSpace.statusOf(space), mine, +1);
+        }
+    }
+    
+    /**
+     * Debugging aid: recounts every space in the minefield and compares the result with the
+     * incrementally maintained statistics. This is a full scan of the minefield, so it is intended
+     * to be used in assertions only, e.g. assert stats.isConsistent();
+     *
+     * @return True if the statistics match the current contents of the minefield
+     */
+    protected boolean isConsistent()
+    {
+        int flagged = 0, questioned = 0, hidden = 0, mines = 0, revealedMines = 0;
+        for (int i = 0; i < field.getSize(); i++) {
+            int space = field.getPacked(i);
+            boolean mine = FieldSpace.mineOf(space);
+            if (mine) {
+                mines++;
+            }
+            switch (FieldSpace.statusOf(space)) {
+                case HIDDEN:
+                    hidden++;
+                    break;
+                case FLAGGED:
+                    flagged++;
+                    break;
+                case QUESTIONED:
+                    questioned++;
+                    break;
+                case REVEALED:
+                    if (mine) {
+                        revealedMines++;
                     }
-                }
-
-                switch (space.getStatus()) {
-                    case HIDDEN:
-                        //space is hidden
-                        qtyHidden++;
-                        break;
-                    case FLAGGED:
-                        //space is flagged
-                        qtyFlagged++;
-                        break;
-                    case QUESTIONED:
-                        //space is questioned
-                        qtyQuestioned++;
-                        break;
-                    default:
-                        ;   //do nothing  
-                }
+                    break;
+                default:
+                    ;   //do nothing
             }
         }
+        return flagged == qtyFlagged
+            && questioned == qtyQuestioned
+            && hidden == qtyHidden
+            && mines == qtyMines
+            && revealedMines == qtyRevealedMines;
     }
 }
@@ -0,0 +1,83 @@
+/**
+ * An immutable description of one move a player can make: revealing a space, or toggling its status.
+ *
+ * @author  Nicholas Parks Young
+ * @version 2026-10-16
+ */
+public final class Move
+{
+    private final int x, y;
+    private final boolean reveal;
+    
+    /**
+     * Constructor for the immutable object Move.
+     *
+     * @param x The x-coordinate of the space to move on
+     * @param y The y-coordinate of the space to move on
+     * @param reveal True to reveal the space, false to toggle its status
+     */
+    private Move(int x, int y, boolean reveal)
+    {
+        this.x = x;
+        this.y = y;
+        this.reveal = reveal;
+    }
+    
+    /**
+     * @param x The x-coordinate of the space to reveal
+     * @param y The y-coordinate of the space to reveal
+     * @return A move which reveals the space at X,Y
+     */
+    public static Move reveal(int x, int y)
+    {
+        return new Move(x, y, true);
+    }
+    
+    /**
+     * @param x The x-coordinate of the space whose status is to be toggled
+     * @param y The y-coordinate of the space whose status is to be toggled
+     * @return A move which toggles the status of the space at X,Y
+     */
+    public static Move toggle(int x, int y)
+    {
+        return new Move(x, y, false);
+    }
+    
+    /**
+     * @return The x-coordinate of the space this move is on
+     */
+    public int getX()
+    {
+        return x;
+    }
+    
+    /**
+     * @return The y-coordinate of the space this move is on
+     */
+    public int getY()
+    {
+        return y;
+    }
+    
+    /**
+     * @return True if this move reveals a space, false if it toggles the status of a space
+     */
+    public boolean isReveal()
+    {
+        return reveal;
+    }
+    
+    /**
+     * Makes this move in a game.
+     *
+     * @param game The game to make this move in
+     */
+    public void applyTo(GameLogic game)
+    {
+        if (reveal) {
+            game.revealAt(x, y);
+        } else {
+            game.toggleStatusOfSquare(x, y);
+        }
+    }
+}
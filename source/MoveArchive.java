@@ -0,0 +1,276 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads back an archive of games written by MoveLog, so that they can be replayed or analysed.
+ *
+ * The archive is memory-mapped rather than read in, so opening even a very large archive costs little
+ * more than one quick pass over it to find where each game starts; after that, any game can be fetched
+ * straight away, and any move of it replayed with GameReplay. The archive must be smaller than 2GB, the
+ * most that Java can map in one go - that is a few million games.
+ *
+ * A partly written game at the end of the archive, left there if the program writing it stopped
+ * suddenly, is ignored.
+ *
+ * Run it from the command line to print a summary of an archive, and how fast its games replay:
+ *     java MoveArchive FILE
+ *
+ * @author  Nicholas Parks Young
+ * @version 2026-10-16
+ */
+public class MoveArchive
+{
+    private final MappedByteBuffer data;
+    //Where each game starts, and how many moves it has.
+    private int[] gameOffsets;
+    private int[] gameMoves;
+    private int qtyGames;
+    private long qtyMoves;
+    private int completeLength;
+    
+    /**
+     * Constructor for objects of type MoveArchive.
+     *
+     * @param file The archive to read
+     * @throws UncheckedIOException if the archive cannot be read
+     * @throws IllegalArgumentException if the file is not a move log, is corrupt or is too large
+     */
+    public MoveArchive(Path file)
+    {
+        if (file == null) {
+            throw new IllegalArgumentException("file must not be null");
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("move log is too large to map");
+            }
+            //The mapping stays valid after the channel is closed.
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not read move log " + file, e);
+        }
+        gameOffsets = new int[1024];
+        gameMoves = new int[1024];
+        index();
+    }
+    
+    /**
+     * Checks the header, and finds where each whole game starts.
+     */
+    private void index()
+    {
+        int limit = data.limit();
+        if (limit < MoveLog.MAGIC.length + 1) {
+            throw new IllegalArgumentException("file is not a move log");
+        }
+        for (int i = 0; i < MoveLog.MAGIC.length; i++) {
+            if (data.get(i) != MoveLog.MAGIC[i]) {
+                throw new IllegalArgumentException("file is not a move log");
+            }
+        }
+        if (data.get(MoveLog.MAGIC.length) != MoveLog.VERSION) {
+            throw new IllegalArgumentException("move log is of an unknown version");
+        }
+        
+        Decoder in = new Decoder(data, MoveLog.MAGIC.length + 1);
+        completeLength = in.position;
+        try {
+            while (in.position < limit) {
+                int start = in.position;
+                in.readVarint();
+                in.readVarint();
+                in.readVarint();
+                long qtyMines = in.readVarint();
+                in.readVarint();
+                for (long m = 0; m < qtyMines; m++) {
+                    in.readVarint();
+                }
+                int moves = 0;
+                while (in.readVarint() != 0) {
+                    in.readVarint();
+                    moves++;
+                }
+                addGame(start, moves);
+                completeLength = in.position;
+            }
+        } catch (IndexOutOfBoundsException e) {
+            //A partly written game at the end, which is left out.
+        }
+    }
+    
+    /**
+     * @param offset Where the game starts
+     * @param moves How many moves it has
+     */
+    private void addGame(int offset, int moves)
+    {
+        if (qtyGames == gameOffsets.length) {
+            int[] biggerOffsets = new int[qtyGames * 2];
+            int[] biggerMoves = new int[qtyGames * 2];
+            System.arraycopy(gameOffsets, 0, biggerOffsets, 0, qtyGames);
+            System.arraycopy(gameMoves, 0, biggerMoves, 0, qtyGames);
+            gameOffsets = biggerOffsets;
+            gameMoves = biggerMoves;
+        }
+        gameOffsets[qtyGames] = offset;
+        gameMoves[qtyGames] = moves;
+        qtyGames++;
+        qtyMoves += moves;
+    }
+    
+    /**
+     * @return How many whole games there are in the archive
+     */
+    public int getQtyGames()
+    {
+        return qtyGames;
+    }
+    
+    /**
+     * @return How many moves there are in the archive, in every game
+     */
+    public long getQtyMoves()
+    {
+        return qtyMoves;
+    }
+    
+    /**
+     * @param game The number of a game, counting from zero in the order they were archived
+     * @return How many moves were made in that game
+     */
+    public int getQtyMoves(int game)
+    {
+        checkGame(game);
+        return gameMoves[game];
+    }
+    
+    /**
+     * @return The size of the archive, not counting any partly written game at the end, in bytes
+     */
+    protected long getCompleteLength()
+    {
+        return completeLength;
+    }
+    
+    /**
+     * Reads one game from the archive. This reads only that game, however large the archive is.
+     *
+     * @param game The number of a game, counting from zero in the order they were archived
+     * @return The game, ready to replay
+     */
+    public GameReplay getGame(int game)
+    {
+        checkGame(game);
+        Decoder in = new Decoder(data, gameOffsets[game]);
+        GameLevel level = GameLevel.values()[(int)in.readVarint()];
+        int width = (int)in.readVarint();
+        int height = (int)in.readVarint();
+        int[] mines = new int[(int)in.readVarint()];
+        long startTime = in.readVarint();
+        int previous = -1;
+        for (int m = 0; m < mines.length; m++) {
+            previous += (int)in.readVarint() + 1;
+            mines[m] = previous;
+        }
+        
+        int qtyMoves = gameMoves[game];
+        int[] moveIndices = new int[qtyMoves];
+        boolean[] moveReveals = new boolean[qtyMoves];
+        long[] moveTimes = new long[qtyMoves];
+        long time = startTime;
+        for (int n = 0; n < qtyMoves; n++) {
+            long move = in.readVarint();
+            moveIndices[n] = (int)(move >>> 1) - 1;
+            moveReveals[n] = (move & 1) == 0;
+            time += in.readVarint();
+            moveTimes[n] = time;
+        }
+        return new GameReplay(level, width, height, mines, startTime, moveIndices, moveReveals, moveTimes);
+    }
+    
+    /**
+     * @param game The number of a game
+     * @throws IndexOutOfBoundsException if there is no such game in the archive
+     */
+    private void checkGame(int game)
+    {
+        if (game < 0 || game >= qtyGames) {
+            throw new IndexOutOfBoundsException("there is no game " + game + " in the archive");
+        }
+    }
+    
+    /**
+     * Prints a summary of an archive, and replays every game in it to time how fast that is.
+     *
+     * @param args The archive
+     */
+    public static void main(String[] args)
+    {
+        if (args.length < 1) {
+            System.out.println("Usage: java MoveArchive FILE");
+            return;
+        }
+        long start = System.nanoTime();
+        MoveArchive archive = new MoveArchive(Paths.get(args[0]));
+        long opened = System.nanoTime();
+        int wins = 0;
+        for (int g = 0; g < archive.getQtyGames(); g++) {
+            if (archive.getGame(g).replayTo(Integer.MAX_VALUE).getGameWon()) {
+                wins++;
+            }
+        }
+        long replayed = System.nanoTime();
+        
+        int games = Math.max(1, archive.getQtyGames());
+        double seconds = (replayed - opened) / 1e9;
+        System.out.printf("Archive:  %d bytes, %d games, %d moves (%.1f bytes/game, %.2f bytes/move)%n",
+            archive.getCompleteLength(), archive.getQtyGames(), archive.getQtyMoves(),
+            (double)archive.getCompleteLength() / games,
+            (double)archive.getCompleteLength() / Math.max(1, archive.getQtyMoves()));
+        System.out.printf("Opened:   %.1f ms%n", (opened - start) / 1e6);
+        System.out.printf("Replayed: %.2f s (%.0f games/s, %.0f moves/s), %d won%n",
+            seconds, archive.getQtyGames() / seconds, archive.getQtyMoves() / seconds, wins);
+    }
+    
+    /**
+     * Reads varints from the mapped archive, starting from a given position. Each reader keeps its own
+     * position, so several threads can read the archive at once.
+     */
+    private static class Decoder
+    {
+        private final MappedByteBuffer data;
+        private int position;
+        
+        /**
+         * @param data The mapped archive
+         * @param position Where to start reading
+         */
+        private Decoder(MappedByteBuffer data, int position)
+        {
+            this.data = data;
+            this.position = position;
+        }
+        
+        /**
+         * @return The next varint
+         * @throws IndexOutOfBoundsException if the archive ends part way through it
+         */
+        private long readVarint()
+        {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = data.get(position++);
+                value |= (long)(b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("move log is corrupt");
+        }
+    }
+}
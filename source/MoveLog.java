@@ -0,0 +1,354 @@
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An append-only archive of recorded games, in a compact binary format which MoveArchive reads back.
+ *
+ * The file starts with the four bytes "JSML" and a version byte, followed by one record per game:
+ *     level, width, height, quantity of mines, start time   - varints
+ *     the gap before each mine                              - one varint per mine
+ *     one entry per move: ((index + 1) << 1) | toggle, and the milliseconds since the previous move
+ *     0                                                     - the end of the game
+ * All numbers are unsigned LEB128 varints: seven bits per byte, with the top bit set on every byte but
+ * the last. The mine layout is stored rather than a seed, so that archives can still be replayed if the
+ * way minefields are generated ever changes; as gaps between mines are mostly small, it costs about a
+ * byte per mine. A move on a preset level usually takes three or four bytes.
+ *
+ * Each game is put together in memory by a Recording, and only appended to the file once it is complete,
+ * so the file only ever holds whole games - apart from, perhaps, a partly written game at the end if the
+ * program stopped while writing. That is cut off when the archive is next opened for writing, as is a
+ * header which was not written in full.
+ *
+ * A MoveLog may be shared by several threads, each recording its own games.
+ *
+ * @author  Nicholas Parks Young
+ * @version 2026-10-16
+ */
+public class MoveLog
+{
+    protected static final byte[] MAGIC = {'J', 'S', 'M', 'L'};
+    protected static final int VERSION = 1;
+    //Completed games are gathered up in a buffer this big, so that small games are not written one by one.
+    private static final int BUFFER_SIZE = 1 << 16;
+    
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private long qtyGames;
+    
+    /**
+     * Constructor for objects of type MoveLog, which appends to the given archive, creating it if it
+     * does not already exist.
+     *
+     * @param file The archive
+     * @throws UncheckedIOException if the archive cannot be opened
+     * @throws IllegalArgumentException if the file is not a move log
+     */
+    public MoveLog(Path file)
+    {
+        if (file == null) {
+            throw new IllegalArgumentException("file must not be null");
+        }
+        long completeLength;
+        FileChannel opened = null;
+        try {
+            opened = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                      StandardOpenOption.WRITE);
+            completeLength = findCompleteLength(opened);
+            opened.truncate(completeLength);
+            opened.position(completeLength);
+        } catch (IOException | RuntimeException e) {
+            if (opened != null) {
+                try {
+                    opened.close();
+                } catch (IOException closeFailure) {
+                    e.addSuppressed(closeFailure);
+                }
+            }
+            if (e instanceof IOException) {
+                throw new UncheckedIOException("could not open move log " + file, (IOException)e);
+            }
+            throw (RuntimeException)e;
+        }
+        channel = opened;
+        buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        if (completeLength == 0) {
+            buffer.put(MAGIC).put((byte)VERSION);
+        }
+    }
+    
+    /**
+     * Reads through an existing archive to find where its last whole game ends. This reads the file as a
+     * stream rather than mapping it, because a file that is mapped cannot be truncated on some systems.
+     *
+     * @param channel The archive
+     * @return The length of the archive without any partly written game at the end
+     * @throws IOException if the archive cannot be read
+     * @throws IllegalArgumentException if the file is not a move log
+     */
+    private static long findCompleteLength(FileChannel channel) throws IOException
+    {
+        //A file too short to hold the header was cut off while the header was being written - perhaps
+        //leaving zeros rather than the header's first bytes - so it holds nothing worth keeping.
+        if (channel.size() < MAGIC.length + 1) {
+            return 0;
+        }
+        CountingInput in = new CountingInput(Channels.newInputStream(channel.position(0)));
+        long completeLength = 0;
+        try {
+            for (byte magic : MAGIC) {
+                if (in.read() != magic) {
+                    throw new IllegalArgumentException("file is not a move log");
+                }
+            }
+            if (in.read() != VERSION) {
+                throw new IllegalArgumentException("move log is of an unknown version");
+            }
+            completeLength = in.position;
+            while (true) {
+                in.readVarint();
+                in.readVarint();
+                in.readVarint();
+                long qtyMines = in.readVarint();
+                in.readVarint();
+                for (long m = 0; m < qtyMines; m++) {
+                    in.readVarint();
+                }
+                while (in.readVarint() != 0) {
+                    in.readVarint();
+                }
+                completeLength = in.position;
+            }
+        } catch (EOFException e) {
+            //Reached the end of the file, part way through a game or not.
+            return completeLength;
+        }
+    }
+    
+    /**
+     * Starts recording a game. The game should not have been played on yet.
+     *
+     * @param game The game to record
+     * @return The recording, to which the game's moves are added
+     */
+    protected Recording startRecording(GameLogic game)
+    {
+        return new Recording(this, game);
+    }
+    
+    /**
+     * Adds a completed game to the archive.
+     *
+     * @param bytes The record of the game
+     * @param length How many bytes of the array are used
+     */
+    private synchronized void append(byte[] bytes, int length)
+    {
+        if (!channel.isOpen()) {
+            throw new IllegalStateException("move log has been closed");
+        }
+        int offset = 0;
+        while (offset < length) {
+            if (!buffer.hasRemaining()) {
+                writeBuffer();
+            }
+            int qty = Math.min(buffer.remaining(), length - offset);
+            buffer.put(bytes, offset, qty);
+            offset += qty;
+        }
+        qtyGames++;
+    }
+    
+    /**
+     * Writes out everything in the buffer.
+     */
+    private void writeBuffer()
+    {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not write to move log", e);
+        } finally {
+            buffer.clear();
+        }
+    }
+    
+    /**
+     * Writes every completed game out to the file.
+     */
+    public synchronized void flush()
+    {
+        if (channel.isOpen()) {
+            writeBuffer();
+        }
+    }
+    
+    /**
+     * Writes every completed game out to the file and closes it. Games still being recorded are lost.
+     */
+    public synchronized void close()
+    {
+        if (!channel.isOpen()) {
+            return;
+        }
+        writeBuffer();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not close move log", e);
+        }
+    }
+    
+    /**
+     * @return How many games have been added to the archive by this object
+     */
+    public synchronized long getQtyGames()
+    {
+        return qtyGames;
+    }
+    
+    /**
+     * Reads an archive as a stream, keeping count of how far it has got.
+     */
+    private static class CountingInput
+    {
+        private final InputStream in;
+        private long position;
+        
+        /**
+         * @param in The stream to read
+         */
+        private CountingInput(InputStream in)
+        {
+            this.in = new BufferedInputStream(in, BUFFER_SIZE);
+        }
+        
+        /**
+         * @return The next byte
+         * @throws IOException if the stream cannot be read, or EOFException at the end of it
+         */
+        private int read() throws IOException
+        {
+            int value = in.read();
+            if (value < 0) {
+                throw new EOFException();
+            }
+            position++;
+            return value;
+        }
+        
+        /**
+         * @return The next varint
+         * @throws IOException if the stream cannot be read, or EOFException at the end of it
+         */
+        private long readVarint() throws IOException
+        {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = read();
+                value |= (long)(b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("move log is corrupt");
+        }
+    }
+    
+    /**
+     * The record of one game, built up in memory as it is played and added to the archive at the end.
+     */
+    protected static class Recording
+    {
+        private final MoveLog log;
+        private byte[] bytes;
+        private int length;
+        private long lastMoveTime;
+        private boolean finished;
+        
+        /**
+         * Starts the record of a game with its level, size, start time and mines.
+         *
+         * @param log The archive to add the game to
+         * @param game The game to record
+         */
+        private Recording(MoveLog log, GameLogic game)
+        {
+            this.log = log;
+            Minefield field = game.getMinefield();
+            bytes = new byte[64 + game.getQtyMines() * 2];
+            lastMoveTime = System.currentTimeMillis();
+            writeVarint(game.getLevel().ordinal());
+            writeVarint(field.getWidth());
+            writeVarint(field.getHeight());
+            writeVarint(game.getQtyMines());
+            writeVarint(lastMoveTime);
+            int previous = -1;
+            for (int i = 0; i < field.getSize(); i++) {
+                if (field.isMine(i)) {
+                    writeVarint(i - previous - 1);
+                    previous = i;
+                }
+            }
+        }
+        
+        /**
+         * Adds a move to the record.
+         *
+         * @param index The index of the space moved on
+         * @param reveal True if the space was revealed, false if its status was toggled
+         */
+        protected void recordMove(int index, boolean reveal)
+        {
+            if (finished) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            writeVarint(((index + 1L) << 1) | (reveal ? 0 : 1));
+            //The clock can go backwards; record that as no time at all.
+            writeVarint(Math.max(0, now - lastMoveTime));
+            lastMoveTime = now;
+        }
+        
+        /**
+         * Ends the record and adds it to the archive. Further moves are ignored.
+         */
+        protected void finish()
+        {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            writeVarint(0);
+            log.append(bytes, length);
+            bytes = null;
+        }
+        
+        /**
+         * @param value A number, which must not be negative, to add to the record as a varint
+         */
+        private void writeVarint(long value)
+        {
+            if (length + 10 > bytes.length) {
+                byte[] bigger = new byte[bytes.length * 2];
+                System.arraycopy(bytes, 0, bigger, 0, length);
+                bytes = bigger;
+            }
+            while ((value & ~0x7FL) != 0) {
+                bytes[length++] = (byte)((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[length++] = (byte)value;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+import java.util.SplittableRandom;
+
+/**
+ * A way of playing Javasweeper without a person, for the Simulation to play games with.
+ *
+ * A strategy object is only ever used by one thread at a time, and is told when each new game starts,
+ * so it may keep whatever it likes about the game in progress.
+ *
+ * @author  Nicholas Parks Young
+ * @version 2026-10-16
+ */
+public interface MoveStrategy
+{
+    /**
+     * Called at the start of each game, before any move is asked for.
+     *
+     * @param game The new game
+     * @param random The random number generator to make any random choices with
+     */
+    void startGame(GameLogic game, SplittableRandom random);
+    
+    /**
+     * Chooses the next move in the current game, which is still in progress.
+     *
+     * @return The move to make
+     */
+    Move nextMove();
+}
@@ -0,0 +1,326 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates minefields which can be cleared from the first click without ever having to guess.
+ *
+ * The first click is always in the middle of the minefield - see getStartLocation() - and no mine is
+ * put there or next to it, so it opens up an area. A candidate minefield is accepted if the Solver, starting
+ * from that click, can work out every remaining safe space. Optionally, it must also have a 3BV - the least
+ * quantity of clicks that clears it - within a given band, as a measure of difficulty.
+ *
+ * Most candidates fail, so candidates are generated and checked speculatively on several threads at once;
+ * as soon as one thread finds a minefield that passes, the others are cancelled. If none passes within the
+ * latency budget, an ordinary minefield with a safe first click is used instead, so the player never waits
+ * longer than the budget.
+ *
+ * @author  Nicholas Parks Young
+ * @version 2026-10-16
+ */
+public class NoGuessGenerator
+{
+    private final ExecutorService executor;
+    private final int parallelism;
+    private final long budgetMillis;
+    private final SplittableRandom seeds;
+    private int min3BV, max3BV;
+    private final AtomicInteger qtyGenerated, qtyFallbacks;
+    
+    /**
+     * Constructor for objects of type NoGuessGenerator, which uses one thread per processor.
+     *
+     * @param budgetMillis The longest to spend looking for a minefield, in milliseconds
+     */
+    public NoGuessGenerator(long budgetMillis)
+    {
+        this(budgetMillis, Runtime.getRuntime().availableProcessors());
+    }
+    
+    /**
+     * Constructor for objects of type NoGuessGenerator.
+     *
+     * @param budgetMillis The longest to spend looking for a minefield, in milliseconds
+     * @param parallelism How many candidate minefields to check at once
+     */
+    public NoGuessGenerator(long budgetMillis, int parallelism)
+    {
+        if (budgetMillis < 0) {
+            throw new IllegalArgumentException("budgetMillis must not be negative");
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least one");
+        }
+        this.budgetMillis = budgetMillis;
+        this.parallelism = parallelism;
+        //Daemon threads, so that a generator nobody shut down does not keep the program running.
+        executor = Executors.newFixedThreadPool(parallelism, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "NoGuessGenerator");
+                thread.setDaemon(true);
+                return thread;
+            }});
+        seeds = new SplittableRandom();
+        min3BV = 0;
+        max3BV = Integer.MAX_VALUE;
+        qtyGenerated = new AtomicInteger();
+        qtyFallbacks = new AtomicInteger();
+    }
+    
+    /**
+     * Restricts the minefields generated to those whose 3BV is within a band. A narrow band makes it
+     * more likely that no minefield is found within the budget.
+     *
+     * @param min3BV The least 3BV
+     * @param max3BV The greatest 3BV
+     */
+    public void setDifficultyBand(int min3BV, int max3BV)
+    {
+        if (min3BV > max3BV) {
+            throw new IllegalArgumentException("min3BV was greater than max3BV");
+        }
+        this.min3BV = min3BV;
+        this.max3BV = max3BV;
+    }
+    
+    /**
+     * Creates a game at one of the preset levels on a minefield which needs no guessing, with the first
+     * click already made.
+     *
+     * @param level The difficulty level desired for this game
+     * @return The new game
+     * @throws IllegalArgumentException if level is GameLevel.CUSTOM - use newGame(int, int, int) instead
+     */
+    public GameLogic newGame(GameLevel level)
+    {
+        if (level.isCustom()) {
+            throw new IllegalArgumentException("custom games must be given a width, height and quantity of mines");
+        }
+        return newGame(level, level.getFieldWidth(), level.getFieldHeight(), level.getQuantityOfMines());
+    }
+    
+    /**
+     * Creates a custom game on a minefield which needs no guessing, with the first click already made.
+     *
+     * @param width The width of the minefield
+     * @param height The height of the minefield
+     * @param quantityOfMines How many mines to hide in the minefield
+     * @return The new game
+     */
+    public GameLogic newGame(int width, int height, int quantityOfMines)
+    {
+        return newGame(GameLevel.CUSTOM, width, height, quantityOfMines);
+    }
+    
+    /**
+     * @param level The difficulty level of the game
+     * @param width The width of the minefield
+     * @param height The height of the minefield
+     * @param quantityOfMines How many mines to hide in the minefield
+     * @return A new game, with the first click already made
+     */
+    private GameLogic newGame(GameLevel level, int width, int height, int quantityOfMines)
+    {
+        GameLogic game = new GameLogic(level, generate(width, height, quantityOfMines));
+        game.revealAt(getStartLocation(width, height));
+        return game;
+    }
+    
+    /**
+     * @param width The width of a minefield
+     * @param height The height of a minefield
+     * @return Where the first click is made on minefields from this generator
+     */
+    protected static Location getStartLocation(int width, int height)
+    {
+        return new Location(width / 2, height / 2);
+    }
+    
+    /**
+     * Generates a minefield which needs no guessing after a first click at getStartLocation(), or if none
+     * is found within the budget, a minefield with no mine at or next to that location.
+     *
+     * @param width The width of the minefield
+     * @param height The height of the minefield
+     * @param quantityOfMines How many mines to hide in the minefield
+     * @return A new minefield, which nobody has played on
+     */
+    protected Minefield generate(final int width, final int height, final int quantityOfMines)
+    {
+        final Location start = getStartLocation(width, height);
+        int qtySafe = (Math.min(width - 1, start.getX() + 1) - Math.max(0, start.getX() - 1) + 1)
+                    * (Math.min(height - 1, start.getY() + 1) - Math.max(0, start.getY() - 1) + 1);
+        if (quantityOfMines > ((long)width * height) - qtySafe) {
+            //Too crowded to keep the first click clear, let alone avoid guessing.
+            qtyFallbacks.incrementAndGet();
+            return new Minefield(width, height, quantityOfMines, nextSeed());
+        }
+        
+        final int min = min3BV, max = max3BV;
+        List<Callable<Long>> searches = new ArrayList<Callable<Long>>(parallelism);
+        for (int i = 0; i < parallelism; i++) {
+            final long searchSeed = nextSeed();
+            searches.add(new Callable<Long>() {
+                @Override
+                public Long call() throws InterruptedException {
+                    SplittableRandom random = new SplittableRandom(searchSeed);
+                    while (true) {
+                        long seed = random.nextLong();
+                        if (isNoGuess(new Minefield(width, height, quantityOfMines, seed, start), start, min, max)) {
+                            return seed;
+                        }
+                    }
+                }});
+        }
+        
+        long seed;
+        try {
+            //Returns the first result, and cancels the searches still going.
+            seed = executor.invokeAny(searches, budgetMillis, TimeUnit.MILLISECONDS);
+            qtyGenerated.incrementAndGet();
+        } catch (TimeoutException | ExecutionException e) {
+            seed = nextSeed();
+            qtyFallbacks.incrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            seed = nextSeed();
+            qtyFallbacks.incrementAndGet();
+        }
+        //The minefield that was checked has been played on, so make a fresh copy from the same seed.
+        return new Minefield(width, height, quantityOfMines, seed, start);
+    }
+    
+    /**
+     * @return A seed for a new minefield or search
+     */
+    private synchronized long nextSeed()
+    {
+        return seeds.nextLong();
+    }
+    
+    /**
+     * Plays a minefield using only deductions from the Solver, to find out if it can be cleared without
+     * guessing. This plays on the minefield, so it cannot be used afterwards.
+     *
+     * @param field A minefield nobody has played on
+     * @param start Where to make the first click
+     * @param min3BV The least acceptable 3BV
+     * @param max3BV The greatest acceptable 3BV
+     * @return True if the minefield can be cleared without guessing and its 3BV is in the band
+     * @throws InterruptedException if the thread is interrupted, because the search has been cancelled
+     */
+    protected static boolean isNoGuess(Minefield field, Location start, int min3BV, int max3BV)
+        throws InterruptedException
+    {
+        if (min3BV > 0 || max3BV < Integer.MAX_VALUE) {
+            int difficulty = get3BV(field);
+            if (difficulty < min3BV || difficulty > max3BV) {
+                return false;
+            }
+        }
+        GameLogic game = new GameLogic(GameLevel.CUSTOM, field);
+        game.revealAt(start);
+        Solver solver = new Solver(game);
+        while (game.getGameInProgress()) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            solver.update();
+            Set<Location> safe = solver.getSafeLocations();
+            if (safe.isEmpty()) {
+                return false;
+            }
+            for (Location location : safe) {
+                if (game.getGameInProgress() && game.getSquareAt(location).getStatus() != SpaceStatus.REVEALED) {
+                    game.revealAt(location);
+                }
+            }
+        }
+        return game.getGameWon();
+    }
+    
+    /**
+     * Works out the 3BV of a minefield: the least quantity of clicks that reveals every safe space. That is
+     * one click per opening - a connected area of spaces with no neighbouring mines, which reveals itself and
+     * its border in one go - and one click for every other safe space not on the border of an opening.
+     *
+     * @param field A minefield
+     * @return Its 3BV
+     */
+    protected static int get3BV(Minefield field)
+    {
+        int size = field.getSize();
+        boolean[] covered = new boolean[size];
+        int[] queue = new int[64];
+        int[] adjacent = new int[8];
+        int clicks = 0;
+        for (int i = 0; i < size; i++) {
+            if (covered[i] || field.isMine(i) || field.getQtyNeighbourMines(i) != 0) {
+                continue;
+            }
+            //A new opening: flood it, covering its border too.
+            clicks++;
+            covered[i] = true;
+            int head = 0, tail = 0;
+            queue[tail++] = i;
+            while (head < tail) {
+                int qtyAdjacent = field.getAdjacentIndices(queue[head++], adjacent);
+                for (int a = 0; a < qtyAdjacent; a++) {
+                    int neighbour = adjacent[a];
+                    if (covered[neighbour]) {
+                        continue;
+                    }
+                    covered[neighbour] = true;
+                    if (field.getQtyNeighbourMines(neighbour) == 0) {
+                        if (tail == queue.length) {
+                            int[] bigger = new int[queue.length * 2];
+                            System.arraycopy(queue, 0, bigger, 0, tail);
+                            queue = bigger;
+                        }
+                        queue[tail++] = neighbour;
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            if (!covered[i] && !field.isMine(i)) {
+                clicks++;
+            }
+        }
+        return clicks;
+    }
+    
+    /**
+     * @return How many minefields have been generated which need no guessing
+     */
+    public int getQtyGenerated()
+    {
+        return qtyGenerated.get();
+    }
+    
+    /**
+     * @return How many times no such minefield was found within the budget, so an ordinary one was used
+     */
+    public int getQtyFallbacks()
+    {
+        return qtyFallbacks.get();
+    }
+    
+    /**
+     * Stops the generator's threads. It cannot be used afterwards.
+     */
+    public void shutdown()
+    {
+        executor.shutdownNow();
+    }
+}
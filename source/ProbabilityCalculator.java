@@ -0,0 +1,722 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Works out the exact probability of every hidden space of a game being a mine, given what the player
+ * can see, for when the deterministic rules of the Solver cannot decide.
+ *
+ * The hidden spaces next to revealed numbers - the frontier - are split into components, such that no
+ * revealed number touches two components. Each component's arrangements of mines which agree with all its
+ * numbers are counted by a backtracking search, separately for each quantity of mines in the component,
+ * and for each space how many of those arrangements have a mine there. The components are independent
+ * apart from sharing the total quantity of mines, so combining them is a matter of convolving their counts;
+ * each total is then weighted by the number of ways to place the rest of the mines among the hidden spaces
+ * away from the frontier. This replaces enumerating every arrangement of the whole frontier, which grows
+ * exponentially with its size, with a sum of much smaller searches.
+ *
+ * Components are searched in parallel on a ForkJoinPool, and a large component's search is itself split
+ * into independent subtrees.
+ *
+ * Probabilities are calculated with doubles, scaled so that they do not overflow, so they are exact to
+ * within rounding.
+ *
+ * @author  Nicholas Parks Young
+ * @version 2026-10-16
+ */
+public class ProbabilityCalculator
+{
+    //How many levels of a component's search tree are split into separate tasks, and how many spaces
+    //must be left below a level for it to be worth splitting.
+    private static final int SPLIT_DEPTH = 4;
+    private static final int MIN_SPLIT_REMAINING = 16;
+    
+    private final GameLogic game;
+    private final Solver solver;
+    private final ForkJoinPool pool;
+    private final int width, height;
+    private final double[] probabilities;
+    
+    /**
+     * Constructor for objects of type ProbabilityCalculator, which uses the common ForkJoinPool.
+     *
+     * @param game The game to calculate probabilities for
+     */
+    public ProbabilityCalculator(GameLogic game)
+    {
+        this(game, ForkJoinPool.commonPool());
+    }
+    
+    /**
+     * Constructor for objects of type ProbabilityCalculator.
+     *
+     * @param game The game to calculate probabilities for
+     * @param pool The pool to search the components of the frontier on
+     */
+    public ProbabilityCalculator(GameLogic game, ForkJoinPool pool)
+    {
+        if (game == null) {
+            throw new IllegalArgumentException("game must not be null");
+        }
+        if (pool == null) {
+            throw new IllegalArgumentException("pool must not be null");
+        }
+        this.game = game;
+        this.pool = pool;
+        solver = new Solver(game);
+        width = game.getWidth();
+        height = game.getHeight();
+        probabilities = new double[width * height];
+    }
+    
+    /**
+     * @param x The x-coordinate of a space
+     * @param y The y-coordinate of a space
+     * @return The probability that the space at X,Y is a mine, as of the last calculation: 0 for revealed
+     *         spaces, and NaN if the revealed spaces contradict one another
+     */
+    public double getProbability(int x, int y)
+    {
+        if (!game.validLocation(x, y)) {
+            throw new IndexOutOfBoundsException("location specified is outside of minefield");
+        }
+        return probabilities[(y * width) + x];
+    }
+    
+    /**
+     * @return The hidden space least likely to be a mine, as of the last calculation, or null if there are
+     *         no hidden spaces
+     */
+    public Location getSafestLocation()
+    {
+        int safest = -1;
+        for (int i = 0; i < probabilities.length; i++) {
+            if (solver.getKnowledge(i) != Solver.REVEALED
+                && (safest < 0 || probabilities[i] < probabilities[safest])) {
+                safest = i;
+            }
+        }
+        return (safest < 0) ? null : new Location(safest % width, safest / width);
+    }
+    
+    /**
+     * Calculates the probability of every space being a mine, from the spaces revealed so far.
+     */
+    public void calculate()
+    {
+        solver.update();
+        int minesLeft = game.getQtyMines() - solver.getQtyKnownMines();
+        
+        //Number the frontier: unknown spaces next to a revealed space.
+        int[] frontierId = new int[width * height];
+        int qtyFrontier = 0, qtyUnknown = 0;
+        for (int i = 0; i < frontierId.length; i++) {
+            frontierId[i] = -1;
+            byte knowledge = solver.getKnowledge(i);
+            probabilities[i] = (knowledge == Solver.MINE) ? 1 : 0;
+            if (knowledge == Solver.UNKNOWN) {
+                qtyUnknown++;
+                if (hasNeighbour(i, Solver.REVEALED)) {
+                    frontierId[i] = qtyFrontier++;
+                }
+            }
+        }
+        int qtyInterior = qtyUnknown - qtyFrontier;
+        int[] frontierIndex = new int[qtyFrontier];
+        for (int i = 0; i < frontierId.length; i++) {
+            if (frontierId[i] >= 0) {
+                frontierIndex[frontierId[i]] = i;
+            }
+        }
+        
+        //Each revealed space with unknown neighbours is a constraint; join up the spaces it touches.
+        List<int[]> constraints = new ArrayList<int[]>();
+        int[] parent = new int[qtyFrontier];
+        for (int i = 0; i < qtyFrontier; i++) {
+            parent[i] = i;
+        }
+        int[] neighbours = new int[8];
+        for (int i = 0; i < frontierId.length; i++) {
+            if (solver.getKnowledge(i) != Solver.REVEALED) {
+                continue;
+            }
+            int qtyCells = 0;
+            int need = solver.getQtyNeighbourMines(i);
+            int x = i % width, y = i / width;
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    int neighbourX = x + dx, neighbourY = y + dy;
+                    if ((dx == 0 && dy == 0) || neighbourX < 0 || neighbourY < 0
+                        || neighbourX >= width || neighbourY >= height) {
+                        continue;
+                    }
+                    int neighbour = (neighbourY * width) + neighbourX;
+                    if (solver.getKnowledge(neighbour) == Solver.MINE) {
+                        need--;
+                    } else if (frontierId[neighbour] >= 0) {
+                        neighbours[qtyCells++] = frontierId[neighbour];
+                    }
+                }
+            }
+            if (qtyCells == 0) {
+                continue;
+            }
+            //A constraint is stored as {need, cell, cell, ...}
+            int[] constraint = new int[qtyCells + 1];
+            constraint[0] = need;
+            System.arraycopy(neighbours, 0, constraint, 1, qtyCells);
+            constraints.add(constraint);
+            for (int c = 1; c < qtyCells; c++) {
+                union(parent, neighbours[0], neighbours[c]);
+            }
+        }
+        
+        //Gather the spaces and constraints of each component, and count them all at once.
+        List<Component> components = splitComponents(frontierIndex, parent, constraints);
+        List<CountTask> tasks = new ArrayList<CountTask>();
+        for (Component component : components) {
+            tasks.add(new CountTask(component, minesLeft));
+        }
+        if (!tasks.isEmpty()) {
+            pool.invoke(new RecursiveTask<Void>() {
+                @Override
+                protected Void compute()
+                {
+                    invokeAll(tasks);
+                    return null;
+                }
+            });
+        }
+        List<Counts> counts = new ArrayList<Counts>();
+        for (CountTask task : tasks) {
+            counts.add(task.join());
+        }
+        
+        combine(components, counts, minesLeft, qtyInterior, qtyFrontier);
+    }
+    
+    /**
+     * Combines the counts of each component into the probability of each space being a mine.
+     *
+     * @param components The components of the frontier
+     * @param counts The counts of each component, in the same order
+     * @param minesLeft The quantity of mines not known to be mines
+     * @param qtyInterior The quantity of unknown spaces not on the frontier
+     * @param qtyFrontier The quantity of spaces on the frontier
+     */
+    private void combine(List<Component> components, List<Counts> counts, int minesLeft, int qtyInterior,
+                         int qtyFrontier)
+    {
+        //The weight of every way for the frontier to contain t mines is the number of ways to place the
+        //remaining mines in the interior - C(qtyInterior, minesLeft - t) - scaled to the largest.
+        double[] weight = interiorWeights(qtyInterior, minesLeft, qtyFrontier);
+        
+        //prefix[c] is the distribution of mines among components before c, suffix[c] among those after it.
+        int qtyComponents = counts.size();
+        double[][] prefix = new double[qtyComponents + 1][];
+        double[][] suffix = new double[qtyComponents + 1][];
+        prefix[0] = new double[] {1};
+        suffix[qtyComponents] = new double[] {1};
+        for (int c = 0; c < qtyComponents; c++) {
+            prefix[c + 1] = convolve(prefix[c], counts.get(c).byMines);
+        }
+        for (int c = qtyComponents - 1; c >= 0; c--) {
+            suffix[c] = convolve(counts.get(c).byMines, suffix[c + 1]);
+        }
+        
+        double[] total = prefix[qtyComponents];
+        double normaliser = 0, interiorMines = 0;
+        for (int t = 0; t < total.length; t++) {
+            normaliser += total[t] * weight[t];
+            if (qtyInterior > 0) {
+                interiorMines += total[t] * weight[t] * (minesLeft - t) / qtyInterior;
+            }
+        }
+        if (!(normaliser > 0)) {
+            //No arrangement of mines agrees with what has been revealed.
+            for (int i = 0; i < probabilities.length; i++) {
+                if (solver.getKnowledge(i) != Solver.REVEALED) {
+                    probabilities[i] = Double.NaN;
+                }
+            }
+            return;
+        }
+        
+        for (int c = 0; c < qtyComponents; c++) {
+            Component component = components.get(c);
+            Counts componentCounts = counts.get(c);
+            double[] others = convolve(prefix[c], suffix[c + 1]);
+            //spread[m] is the weight of all the ways the rest of the minefield goes with m mines in this component.
+            double[] spread = new double[componentCounts.byMines.length];
+            for (int m = 0; m < spread.length; m++) {
+                for (int s = 0; s < others.length; s++) {
+                    spread[m] += others[s] * weight[m + s];
+                }
+            }
+            int stride = component.qtyCells + 1;
+            for (int j = 0; j < component.qtyCells; j++) {
+                double mineWeight = 0;
+                for (int m = 0; m < spread.length; m++) {
+                    mineWeight += componentCounts.cellMines[(j * stride) + m] * spread[m];
+                }
+                probabilities[component.cells[j]] = mineWeight / normaliser;
+            }
+        }
+        
+        double interiorProbability = interiorMines / normaliser;
+        for (int i = 0; i < probabilities.length; i++) {
+            if (solver.getKnowledge(i) == Solver.UNKNOWN && !hasNeighbour(i, Solver.REVEALED)) {
+                probabilities[i] = interiorProbability;
+            }
+        }
+    }
+    
+    /**
+     * Works out C(qtyInterior, minesLeft - t) for every t from 0 to qtyFrontier, scaled so that the largest
+     * is 1, by stepping from one binomial coefficient to the next in log space.
+     *
+     * @param qtyInterior The quantity of unknown spaces not on the frontier
+     * @param minesLeft The quantity of mines not known to be mines
+     * @param qtyFrontier The quantity of spaces on the frontier
+     * @return The weights, indexed by t
+     */
+    private static double[] interiorWeights(int qtyInterior, int minesLeft, int qtyFrontier)
+    {
+        double[] logWeight = new double[qtyFrontier + 1];
+        double largest = Double.NEGATIVE_INFINITY;
+        double logC = Double.NaN;
+        for (int t = qtyFrontier; t >= 0; t--) {
+            int k = minesLeft - t;
+            if (k < 0 || k > qtyInterior) {
+                logWeight[t] = Double.NEGATIVE_INFINITY;
+                continue;
+            }
+            if (Double.isNaN(logC)) {
+                logC = logBinomial(qtyInterior, k);
+            } else {
+                //C(n, k) = C(n, k - 1) * (n - k + 1) / k
+                logC += Math.log((double)(qtyInterior - k + 1) / k);
+            }
+            logWeight[t] = logC;
+            largest = Math.max(largest, logC);
+        }
+        double[] weight = new double[qtyFrontier + 1];
+        for (int t = 0; t <= qtyFrontier; t++) {
+            weight[t] = Math.exp(logWeight[t] - largest);
+        }
+        return weight;
+    }
+    
+    /**
+     * @param n The size of the set
+     * @param k The size of the subsets
+     * @return The natural logarithm of C(n, k)
+     */
+    private static double logBinomial(int n, int k)
+    {
+        k = Math.min(k, n - k);
+        double log = 0;
+        for (int i = 1; i <= k; i++) {
+            log += Math.log((double)(n - k + i) / i);
+        }
+        return log;
+    }
+    
+    /**
+     * @param a A distribution of mines
+     * @param b Another distribution of mines
+     * @return The distribution of the sum of mines from both
+     */
+    private static double[] convolve(double[] a, double[] b)
+    {
+        double[] result = new double[a.length + b.length - 1];
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] != 0) {
+                for (int j = 0; j < b.length; j++) {
+                    result[i + j] += a[i] * b[j];
+                }
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * @param index The index of a space
+     * @param kind What the neighbour should be known to be
+     * @return True if any neighbour of the space is known to be kind
+     */
+    private boolean hasNeighbour(int index, byte kind)
+    {
+        int x = index % width, y = index / width;
+        for (int dy = -1; dy <= 1; dy++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                int neighbourX = x + dx, neighbourY = y + dy;
+                if ((dx != 0 || dy != 0) && neighbourX >= 0 && neighbourY >= 0 && neighbourX < width
+                    && neighbourY < height && solver.getKnowledge((neighbourY * width) + neighbourX) == kind) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * @param parent The union-find forest
+     * @param i An element
+     * @return The root of the tree containing i
+     */
+    private static int find(int[] parent, int i)
+    {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+    
+    /**
+     * Joins the trees containing two elements.
+     *
+     * @param parent The union-find forest
+     * @param a An element
+     * @param b Another element
+     */
+    private static void union(int[] parent, int a, int b)
+    {
+        parent[find(parent, a)] = find(parent, b);
+    }
+    
+    /**
+     * Gathers the spaces and constraints of each component of the frontier. The spaces of a component are
+     * put in breadth-first order through the constraints, so that constraints are completed early in the
+     * search and it can give up on impossible arrangements sooner.
+     *
+     * @param frontierIndex The index of each frontier space in the minefield
+     * @param parent The union-find forest joining frontier spaces which share a constraint
+     * @param constraints The constraints, as {need, cell, cell, ...} with cells numbered as in frontierIndex
+     * @return The components
+     */
+    private static List<Component> splitComponents(int[] frontierIndex, int[] parent, List<int[]> constraints)
+    {
+        int qtyFrontier = frontierIndex.length;
+        //The constraints on each frontier space.
+        int[] qtyCellConstraints = new int[qtyFrontier];
+        for (int[] constraint : constraints) {
+            for (int c = 1; c < constraint.length; c++) {
+                qtyCellConstraints[constraint[c]]++;
+            }
+        }
+        int[][] cellConstraints = new int[qtyFrontier][];
+        for (int i = 0; i < qtyFrontier; i++) {
+            cellConstraints[i] = new int[qtyCellConstraints[i]];
+            qtyCellConstraints[i] = 0;
+        }
+        for (int k = 0; k < constraints.size(); k++) {
+            int[] constraint = constraints.get(k);
+            for (int c = 1; c < constraint.length; c++) {
+                cellConstraints[constraint[c]][qtyCellConstraints[constraint[c]]++] = k;
+            }
+        }
+        
+        List<Component> components = new ArrayList<Component>();
+        int[] localId = new int[qtyFrontier];
+        int[] constraintLocalId = new int[constraints.size()];
+        Arrays.fill(localId, -1);
+        Arrays.fill(constraintLocalId, -1);
+        int[] order = new int[qtyFrontier];
+        int[] componentConstraints = new int[constraints.size()];
+        for (int start = 0; start < qtyFrontier; start++) {
+            if (localId[start] >= 0) {
+                continue;
+            }
+            //Breadth-first through shared constraints.
+            int qtyCells = 0, qtyConstraints = 0, head = 0;
+            order[qtyCells] = start;
+            localId[start] = qtyCells++;
+            while (head < qtyCells) {
+                int cell = order[head++];
+                for (int k : cellConstraints[cell]) {
+                    if (constraintLocalId[k] >= 0) {
+                        continue;
+                    }
+                    constraintLocalId[k] = qtyConstraints;
+                    componentConstraints[qtyConstraints++] = k;
+                    int[] constraint = constraints.get(k);
+                    for (int c = 1; c < constraint.length; c++) {
+                        if (localId[constraint[c]] < 0) {
+                            order[qtyCells] = constraint[c];
+                            localId[constraint[c]] = qtyCells++;
+                        }
+                    }
+                }
+            }
+            assert find(parent, start) == find(parent, order[qtyCells - 1]) : "component was not connected";
+            
+            Component component = new Component(qtyCells, qtyConstraints);
+            for (int j = 0; j < qtyCells; j++) {
+                component.cells[j] = frontierIndex[order[j]];
+                int[] own = cellConstraints[order[j]];
+                component.cellConstraints[j] = new int[own.length];
+                for (int c = 0; c < own.length; c++) {
+                    component.cellConstraints[j][c] = constraintLocalId[own[c]];
+                }
+            }
+            for (int k = 0; k < qtyConstraints; k++) {
+                int[] constraint = constraints.get(componentConstraints[k]);
+                component.need[k] = constraint[0];
+                component.size[k] = constraint.length - 1;
+            }
+            components.add(component);
+        }
+        return components;
+    }
+    
+    /**
+     * The spaces and constraints of one component of the frontier.
+     */
+    private static class Component
+    {
+        private final int qtyCells;
+        //The index in the minefield of each space, and the constraints on it.
+        private final int[] cells;
+        private final int[][] cellConstraints;
+        //The quantity of mines each constraint needs, and the quantity of spaces it covers.
+        private final int[] need;
+        private final int[] size;
+        
+        /**
+         * @param qtyCells The quantity of spaces in the component
+         * @param qtyConstraints The quantity of constraints in the component
+         */
+        private Component(int qtyCells, int qtyConstraints)
+        {
+            this.qtyCells = qtyCells;
+            cells = new int[qtyCells];
+            cellConstraints = new int[qtyCells][];
+            need = new int[qtyConstraints];
+            size = new int[qtyConstraints];
+        }
+    }
+    
+    /**
+     * The result of counting the arrangements of mines in (part of) a component.
+     */
+    private static class Counts
+    {
+        //byMines[m] is the quantity of arrangements with m mines, and cellMines[(j * (qtyCells + 1)) + m]
+        //how many of those have a mine at space j.
+        private final double[] byMines;
+        private final double[] cellMines;
+        
+        /**
+         * @param qtyCells The quantity of spaces in the component
+         */
+        private Counts(int qtyCells)
+        {
+            byMines = new double[qtyCells + 1];
+            cellMines = new double[qtyCells * (qtyCells + 1)];
+        }
+        
+        /**
+         * Adds another set of counts for the same component to this one.
+         *
+         * @param other The other counts
+         */
+        private void add(Counts other)
+        {
+            for (int m = 0; m < byMines.length; m++) {
+                byMines[m] += other.byMines[m];
+            }
+            for (int i = 0; i < cellMines.length; i++) {
+                cellMines[i] += other.cellMines[i];
+            }
+        }
+        
+        /**
+         * Divides every count by the same amount, so that the largest of byMines is 1. This does not change
+         * any probability, and stops products of counts from many components overflowing.
+         */
+        private void scale()
+        {
+            double largest = 0;
+            for (double count : byMines) {
+                largest = Math.max(largest, count);
+            }
+            if (largest > 0) {
+                for (int m = 0; m < byMines.length; m++) {
+                    byMines[m] /= largest;
+                }
+                for (int i = 0; i < cellMines.length; i++) {
+                    cellMines[i] /= largest;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Counts the arrangements of mines in a component that agree with all of its constraints, by a
+     * depth-first search which assigns mine or safe to each space in turn. The first few levels of the
+     * search tree are split into separate tasks.
+     */
+    private static class CountTask extends RecursiveTask<Counts>
+    {
+        private static final long serialVersionUID = 1L;
+        
+        private final Component component;
+        private final int maxMines;
+        private final int depth;
+        //The state of the search: what has been assigned so far.
+        private final boolean[] mine;
+        private final int[] assigned;
+        private final int[] unassigned;
+        private int qtyMines;
+        
+        /**
+         * Creates a task to count every arrangement of a component.
+         *
+         * @param component The component
+         * @param maxMines The most mines there may be in it
+         */
+        private CountTask(Component component, int maxMines)
+        {
+            this.component = component;
+            this.maxMines = maxMines;
+            depth = 0;
+            mine = new boolean[component.qtyCells];
+            assigned = new int[component.need.length];
+            unassigned = component.size.clone();
+            qtyMines = 0;
+        }
+        
+        /**
+         * Creates a task to count the arrangements below one branch of another task's search.
+         *
+         * @param parent The task whose search is being split
+         * @param isMine Whether the space at the parent's depth is a mine in this branch
+         */
+        private CountTask(CountTask parent, boolean isMine)
+        {
+            component = parent.component;
+            maxMines = parent.maxMines;
+            depth = parent.depth + 1;
+            mine = parent.mine.clone();
+            assigned = parent.assigned.clone();
+            unassigned = parent.unassigned.clone();
+            qtyMines = parent.qtyMines;
+            assign(parent.depth, isMine);
+        }
+        
+        @Override
+        protected Counts compute()
+        {
+            Counts counts;
+            if (depth < SPLIT_DEPTH && component.qtyCells - depth >= MIN_SPLIT_REMAINING) {
+                List<CountTask> branches = new ArrayList<CountTask>(2);
+                for (boolean isMine : new boolean[] {true, false}) {
+                    if (canAssign(depth, isMine)) {
+                        branches.add(new CountTask(this, isMine));
+                    }
+                }
+                invokeAll(branches);
+                counts = new Counts(component.qtyCells);
+                for (CountTask branch : branches) {
+                    counts.add(branch.join());
+                }
+            } else {
+                counts = new Counts(component.qtyCells);
+                search(depth, counts);
+            }
+            if (depth == 0) {
+                counts.scale();
+            }
+            return counts;
+        }
+        
+        /**
+         * Counts every arrangement of the spaces from j onwards that agrees with the constraints.
+         *
+         * @param j The next space to assign
+         * @param counts Where to add the counts
+         */
+        private void search(int j, Counts counts)
+        {
+            if (j == component.qtyCells) {
+                counts.byMines[qtyMines]++;
+                int stride = component.qtyCells + 1;
+                for (int i = 0; i < component.qtyCells; i++) {
+                    if (mine[i]) {
+                        counts.cellMines[(i * stride) + qtyMines]++;
+                    }
+                }
+                return;
+            }
+            if (canAssign(j, true)) {
+                assign(j, true);
+                search(j + 1, counts);
+                unassign(j, true);
+            }
+            if (canAssign(j, false)) {
+                assign(j, false);
+                search(j + 1, counts);
+                unassign(j, false);
+            }
+        }
+        
+        /**
+         * @param j A space
+         * @param isMine Whether to make it a mine
+         * @return True if doing so would still leave every constraint on it satisfiable
+         */
+        private boolean canAssign(int j, boolean isMine)
+        {
+            if (isMine && qtyMines >= maxMines) {
+                return false;
+            }
+            for (int k : component.cellConstraints[j]) {
+                if (isMine ? assigned[k] >= component.need[k]
+                           : assigned[k] + unassigned[k] - 1 < component.need[k]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        /**
+         * @param j A space
+         * @param isMine Whether it is a mine
+         */
+        private void assign(int j, boolean isMine)
+        {
+            mine[j] = isMine;
+            for (int k : component.cellConstraints[j]) {
+                unassigned[k]--;
+                if (isMine) {
+                    assigned[k]++;
+                }
+            }
+            if (isMine) {
+                qtyMines++;
+            }
+        }
+        
+        /**
+         * @param j A space
+         * @param isMine Whether it was a mine
+         */
+        private void unassign(int j, boolean isMine)
+        {
+            mine[j] = false;
+            for (int k : component.cellConstraints[j]) {
+                unassigned[k]++;
+                if (isMine) {
+                    assigned[k]--;
+                }
+            }
+            if (isMine) {
+                qtyMines--;
+            }
+        }
+    }
+}
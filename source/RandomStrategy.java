@@ -0,0 +1,46 @@
+import java.util.SplittableRandom;
+
+/**
+ * A strategy which reveals hidden spaces chosen at random. It gives a baseline to compare better
+ * strategies against, and exercises the game engine as fast as possible.
+ *
+ * @author  Nicholas Parks Young
+ * @version 2026-10-16
+ */
+public class RandomStrategy implements MoveStrategy
+{
+    //How many spaces to try at random before searching for a hidden space in order.
+    private static final int MAX_TRIES = 64;
+    
+    private GameLogic game;
+    private SplittableRandom random;
+    
+    @Override
+    public void startGame(GameLogic game, SplittableRandom random)
+    {
+        this.game = game;
+        this.random = random;
+    }
+    
+    @Override
+    public Move nextMove()
+    {
+        int width = game.getWidth(), height = game.getHeight();
+        for (int i = 0; i < MAX_TRIES; i++) {
+            int x = random.nextInt(width), y = random.nextInt(height);
+            if (game.getSquareAt(x, y).getStatus() != SpaceStatus.REVEALED) {
+                return Move.reveal(x, y);
+            }
+        }
+        //Nearly every space is revealed, so look for one that is not, starting from a random place.
+        int size = width * height;
+        int start = random.nextInt(size);
+        for (int i = 0; i < size; i++) {
+            int index = (start + i) % size;
+            if (game.getSquareAt(index % width, index / width).getStatus() != SpaceStatus.REVEALED) {
+                return Move.reveal(index % width, index / width);
+            }
+        }
+        throw new IllegalStateException("there is no hidden space to reveal");
+    }
+}
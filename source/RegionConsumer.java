@@ -0,0 +1,18 @@
+/**
+ * Receives rectangular regions of the minefield, such as the regions containing stale spaces.
+ *
+ * @author  Nicholas Parks Young
+ * @version 2026-10-16
+ */
+public interface RegionConsumer
+{
+    /**
+     * Called once for each region.
+     *
+     * @param x The x-coordinate of the left-most column of the region
+     * @param y The y-coordinate of the top row of the region
+     * @param width The quantity of columns in the region
+     * @param height The quantity of rows in the region
+     */
+    void accept(int x, int y, int width, int height);
+}
@@ -0,0 +1,291 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.CRC32;
+
+/**
+ * Saves games to files, and loads them back, in a compact binary format.
+ *
+ * A save file is a fixed-size header followed by the packed byte (see FieldSpace) of every space, in
+ * row-major order, so a game is saved with two writes straight from the minefield's array, whatever its
+ * size. The header holds:
+ *     "JSSV", version                                    - 4 bytes, int
+ *     generation                                         - long
+ *     level, width, height                               - ints
+ *     flags: 1 if the game is in progress, 2 if it was won - byte
+ *     time played, in milliseconds                       - long
+ *
+ * A save file may have a journal next to it, written by AutoSave, holding the spaces which have changed
+ * since the save file was written. The journal starts with "JSJN" and the generation of the save file it
+ * belongs to, followed by one entry per move:
+ *     length and CRC32 of the rest of the entry          - ints
+ *     quantity of changed spaces                         - int
+ *     index and packed byte of each changed space        - int, byte
+ *     flags and time played, as in the header            - byte, long
+ * An entry which is cut short or does not match its CRC - because the program stopped while writing it -
+ * ends the journal, as does one whose length or indices do not fit the save file, without being applied. A journal of a different generation is left over from an older save file, and ignored.
+ *
+ * @author  Nicholas Parks Young
+ * @version 2026-10-16
+ */
+public class SavedGame
+{
+    private static final byte[] MAGIC = {'J', 'S', 'S', 'V'};
+    private static final byte[] JOURNAL_MAGIC = {'J', 'S', 'J', 'N'};
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 37;
+    protected static final int JOURNAL_HEADER_SIZE = 12;
+    protected static final int IN_PROGRESS = 1;
+    protected static final int WON = 2;
+    
+    /**
+     * There is no need to create SavedGame objects - all of its methods are static.
+     */
+    private SavedGame()
+    {
+    }
+    
+    /**
+     * Saves a game to a file, replacing the file and any journal it had.
+     *
+     * @param game The game to save
+     * @param file The file to save it to
+     * @throws UncheckedIOException if the game cannot be saved
+     */
+    public static void save(GameLogic game, Path file)
+    {
+        Minefield field = game.getMinefield();
+        writeSnapshot(file, ThreadLocalRandom.current().nextLong(), game.getLevel(), field.getWidth(),
+                      field.getHeight(), flagsOf(game), game.getPlayMillis(), field.getPackedSpaces());
+        try {
+            Files.deleteIfExists(journalFor(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not delete old journal of " + file, e);
+        }
+    }
+    
+    /**
+     * Loads a game from a file, along with the changes in its journal if it has one.
+     *
+     * @param file The file to load the game from
+     * @return The game, as it was when it was last saved
+     * @throws UncheckedIOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is not a saved game, or is corrupt
+     */
+    public static GameLogic load(Path file)
+    {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            readFully(channel, header);
+            header.flip();
+            checkMagic(header, MAGIC, "file is not a saved game");
+            if (header.getInt() != VERSION) {
+                throw new IllegalArgumentException("saved game is of an unknown version");
+            }
+            long generation = header.getLong();
+            int levelOrdinal = header.getInt();
+            int width = header.getInt();
+            int height = header.getInt();
+            int flags = header.get();
+            long playMillis = header.getLong();
+            if (levelOrdinal < 0 || levelOrdinal >= GameLevel.values().length
+                    || width <= 0 || height <= 0 || (long)width * height > Minefield.MAX_SIZE
+                    || channel.size() != HEADER_SIZE + (long)width * height) {
+                throw new IllegalArgumentException("saved game is corrupt");
+            }
+            
+            byte[] spaces = new byte[width * height];
+            readFully(channel, ByteBuffer.wrap(spaces));
+            
+            //Bring the spaces up to date with the journal, if it belongs to this save file.
+            Path journalFile = journalFor(file);
+            if (Files.exists(journalFile)) {
+                ByteBuffer journal = ByteBuffer.wrap(Files.readAllBytes(journalFile));
+                if (journal.remaining() >= JOURNAL_HEADER_SIZE && hasMagic(journal, JOURNAL_MAGIC)
+                        && journal.getLong() == generation) {
+                    CRC32 crc = new CRC32();
+                    while (journal.remaining() >= 8) {
+                        int length = journal.getInt();
+                        int expectedCrc = journal.getInt();
+                        if (length < 13 || length > journal.remaining()) {
+                            break;
+                        }
+                        crc.reset();
+                        crc.update(journal.array(), journal.position(), length);
+                        if ((int)crc.getValue() != expectedCrc) {
+                            break;
+                        }
+                        int qtyChanged = journal.getInt();
+                        if (qtyChanged < 0 || 13 + (5L * qtyChanged) != length
+                                || !indicesFit(journal, qtyChanged, spaces.length)) {
+                            break;
+                        }
+                        for (int i = 0; i < qtyChanged; i++) {
+                            spaces[journal.getInt()] = journal.get();
+                        }
+                        flags = journal.get();
+                        playMillis = journal.getLong();
+                    }
+                }
+            }
+            
+            Minefield field = new Minefield(width, height, spaces);
+            return new GameLogic(GameLevel.values()[levelOrdinal], field, (flags & IN_PROGRESS) != 0,
+                                 (flags & WON) != 0, playMillis);
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not load game from " + file, e);
+        }
+    }
+    
+    /**
+     * Deletes a save file and its journal, if they exist.
+     *
+     * @param file The save file
+     * @throws UncheckedIOException if they cannot be deleted
+     */
+    public static void delete(Path file)
+    {
+        try {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(journalFor(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not delete " + file, e);
+        }
+    }
+    
+    /**
+     * Writes a save file. It is written to a temporary file first and then moved into place, so that
+     * the old save file is only replaced once the new one is complete.
+     *
+     * @param file The file to write
+     * @param generation Which save file this is, to tell its journal apart from older ones
+     * @param level The difficulty level of the game
+     * @param width The width of the minefield
+     * @param height The height of the minefield
+     * @param flags IN_PROGRESS and WON, as appropriate
+     * @param playMillis How long the game has been played for, in milliseconds
+     * @param spaces The packed byte of every space
+     * @throws UncheckedIOException if the file cannot be written
+     */
+    protected static void writeSnapshot(Path file, long generation, GameLevel level, int width, int height,
+                                        int flags, long playMillis, ByteBuffer spaces)
+    {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.put(MAGIC).putInt(VERSION).putLong(generation);
+        header.putInt(level.ordinal()).putInt(width).putInt(height);
+        header.put((byte)flags).putLong(playMillis);
+        header.flip();
+        
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                     StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer[] buffers = {header, spaces.duplicate()};
+                while (buffers[1].hasRemaining()) {
+                    channel.write(buffers);
+                }
+                channel.force(false);
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not save game to " + file, e);
+        }
+    }
+    
+    /**
+     * @param generation The generation of the save file the journal belongs to
+     * @return The header of a new journal
+     */
+    protected static ByteBuffer journalHeader(long generation)
+    {
+        ByteBuffer header = ByteBuffer.allocate(JOURNAL_HEADER_SIZE);
+        header.put(JOURNAL_MAGIC).putLong(generation);
+        header.flip();
+        return header;
+    }
+    
+    /**
+     * @param file A save file
+     * @return The journal which goes with it
+     */
+    protected static Path journalFor(Path file)
+    {
+        return file.resolveSibling(file.getFileName() + ".journal");
+    }
+    
+    /**
+     * @param game A game
+     * @return IN_PROGRESS and WON, as appropriate for that game
+     */
+    protected static int flagsOf(GameLogic game)
+    {
+        return (game.getGameInProgress() ? IN_PROGRESS : 0) | (game.getGameWon() ? WON : 0);
+    }
+    
+    /**
+     * Reads from a channel until the buffer is full.
+     *
+     * @param channel The channel to read
+     * @param buffer The buffer to fill
+     * @throws IOException if the channel cannot be read
+     * @throws IllegalArgumentException if the channel ends first
+     */
+    private static void readFully(FileChannel channel, ByteBuffer buffer) throws IOException
+    {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IllegalArgumentException("saved game was truncated");
+            }
+        }
+    }
+    
+    /**
+     * @param journal A journal, positioned at the changed spaces of an entry
+     * @param qtyChanged The quantity of changed spaces in the entry
+     * @param size The quantity of spaces in the minefield
+     * @return True if the index of every changed space is within the minefield; the position is not moved
+     */
+    private static boolean indicesFit(ByteBuffer journal, int qtyChanged, int size)
+    {
+        for (int i = 0; i < qtyChanged; i++) {
+            int index = journal.getInt(journal.position() + (5 * i));
+            if (index < 0 || index >= size) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * @param buffer A buffer
+     * @param magic The bytes expected at its position
+     * @return True if they are there; either way, the position is moved past them
+     */
+    private static boolean hasMagic(ByteBuffer buffer, byte[] magic)
+    {
+        boolean matches = true;
+        for (byte expected : magic) {
+            matches &= (buffer.get() == expected);
+        }
+        return matches;
+    }
+    
+    /**
+     * @param buffer A buffer
+     * @param magic The bytes expected at its position
+     * @param problem What to say if they are not there
+     * @throws IllegalArgumentException if they are not there
+     */
+    private static void checkMagic(ByteBuffer buffer, byte[] magic, String problem)
+    {
+        if (!hasMagic(buffer, magic)) {
+            throw new IllegalArgumentException(problem);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/**
+ * Decides where the mines are in a minefield defined only by a 64-bit seed and a density, without
+ * storing anything: whether the space at X,Y is a mine is worked out from a hash of the seed, X and Y,
+ * and its quantity of neighbouring mines from the hashes of its eight neighbours. So any space of an
+ * enormous minefield can be looked at in constant time, and only the spaces the player has changed need
+ * to be kept.
+ *
+ * A seed and density together can be written down as a short game code, so that a minefield can be
+ * shared with another player.
+ *
+ * @author  Nicholas Parks Young
+ * @version 2026-10-16
+ */
+public class SeededMines
+{
+    //A space is a mine if the top HASH_BITS bits of its hash are below the threshold.
+    private static final int HASH_BITS = 53;
+    //Densities in game codes are written as a whole number of these.
+    private static final int DENSITY_SCALE = 1000;
+    
+    private final long seed;
+    private final double density;
+    private final long threshold;
+    
+    /**
+     * Constructor for objects of type SeededMines.
+     *
+     * @param seed The seed which decides where all the mines are
+     * @param density The fraction of spaces which are mines, from 0 to 1
+     */
+    protected SeededMines(long seed, double density)
+    {
+        if (!(density >= 0 && density <= 1)) {
+            throw new IllegalArgumentException("density must be between 0 and 1");
+        }
+        this.seed = seed;
+        this.density = density;
+        threshold = (long)(density * (1L << HASH_BITS));
+    }
+    
+    /**
+     * Reads a game code written by getGameCode().
+     *
+     * @param gameCode The game code
+     * @return The seed and density it stands for
+     * @throws IllegalArgumentException if it is not a game code
+     */
+    protected static SeededMines fromGameCode(String gameCode)
+    {
+        int dash = gameCode.lastIndexOf('-');
+        if (dash < 0) {
+            throw new IllegalArgumentException("game code must be a seed and a density, separated by a dash");
+        }
+        try {
+            long seed = Long.parseUnsignedLong(gameCode.substring(0, dash), Character.MAX_RADIX);
+            int density = Integer.parseInt(gameCode.substring(dash + 1));
+            return new SeededMines(seed, (double)density / DENSITY_SCALE);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("game code is not valid: " + gameCode, e);
+        }
+    }
+    
+    /**
+     * @return A short code from which fromGameCode() gives the same minefield, e.g. "3w5e11264sgsf-160".
+     *         The density is rounded to the nearest thousandth.
+     */
+    protected String getGameCode()
+    {
+        return Long.toUnsignedString(seed, Character.MAX_RADIX) + "-" + Math.round(density * DENSITY_SCALE);
+    }
+    
+    /**
+     * @return The seed which decides where all the mines are
+     */
+    protected long getSeed()
+    {
+        return seed;
+    }
+    
+    /**
+     * @return The fraction of spaces which are mines
+     */
+    protected double getDensity()
+    {
+        return density;
+    }
+    
+    /**
+     * Whether a space is a mine. Spaces with a coordinate outside the range of an int never are, so that
+     * the minefield has no mines beyond its edges.
+     *
+     * @param x The X-coordinate
+     * @param y The Y-coordinate
+     * @return True if the space at X,Y is a mine
+     */
+    protected boolean isMine(long x, long y)
+    {
+        if (x < 0 || y < 0 || x > Integer.MAX_VALUE || y > Integer.MAX_VALUE) {
+            return false;
+        }
+        //The finalisation step of MurmurHash3, which mixes every input bit into every output bit.
+        long hash = seed + (x * 0x9E3779B97F4A7C15L) + (y * 0xC2B2AE3D27D4EB4FL);
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return (hash >>> (64 - HASH_BITS)) < threshold;
+    }
+    
+    /**
+     * @param x The X-coordinate
+     * @param y The Y-coordinate
+     * @return The quantity of mines neighbouring the space at X,Y
+     */
+    protected int getQtyNeighbourMines(long x, long y)
+    {
+        int qty = 0;
+        for (long dy = -1; dy <= 1; dy++) {
+            for (long dx = -1; dx <= 1; dx++) {
+                if ((dx != 0 || dy != 0) && isMine(x + dx, y + dy)) {
+                    qty++;
+                }
+            }
+        }
+        return qty;
+    }
+    
+    /**
+     * @param x The X-coordinate
+     * @param y The Y-coordinate
+     * @return The packed byte (see FieldSpace) of the space at X,Y as it is before the player touches it:
+     *         hidden, with its mine and its quantity of neighbouring mines
+     */
+    protected int getPacked(long x, long y)
+    {
+        return (getQtyNeighbourMines(x, y) << FieldSpace.COUNT_SHIFT) | (isMine(x, y) ? FieldSpace.MINE_BIT : 0);
+    }
+}
@@ -0,0 +1,336 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates load on a GameServer over the loopback interface, to measure how many sessions it can hold
+ * and how quickly it answers their moves.
+ *
+ * Opens the given quantity of sessions, shares them between a few client threads, and has each thread
+ * make moves on its sessions in turn for the given time: mostly reveals of random spaces which its copy
+ * of the board shows as not revealed, and sometimes toggles. A session whose game ends starts another.
+ * The time from sending each move to reading the server's last answer to it is recorded.
+ *
+ * Run it from the command line with:
+ *     java ServerLoadTest [sessions] [threads] [seconds] [level] [host:port]
+ * where the server is started in the same process if no host and port are given.
+ *
+ * @author  Nicholas Parks Young
+ * @version 2026-10-16
+ */
+public class ServerLoadTest
+{
+    private final List<Client> clients;
+    private final int qtyThreads;
+    private final GameLevel level;
+    private final LatencyHistogram moveLatency;
+    private final AtomicLong qtyGames;
+    private final AtomicLong qtyErrors;
+    private long elapsedNanos;
+    
+    /**
+     * Constructor for objects of type ServerLoadTest, which connects every session straight away.
+     *
+     * @param address The address of the server
+     * @param qtySessions How many sessions to hold open
+     * @param qtyThreads How many threads to make moves from
+     * @param level The level of the games to play, which must not be GameLevel.CUSTOM
+     * @throws UncheckedIOException if a session cannot be connected
+     */
+    public ServerLoadTest(InetSocketAddress address, int qtySessions, int qtyThreads, GameLevel level)
+    {
+        if (level.isCustom()) {
+            throw new IllegalArgumentException("level must be one of the preset levels");
+        }
+        this.qtyThreads = qtyThreads;
+        this.level = level;
+        moveLatency = new LatencyHistogram();
+        qtyGames = new AtomicLong();
+        qtyErrors = new AtomicLong();
+        clients = new ArrayList<Client>(qtySessions);
+        int maxMessage = 64 + (5 * level.getFieldWidth() * level.getFieldHeight());
+        SplittableRandom seeds = new SplittableRandom();
+        try {
+            for (int i = 0; i < qtySessions; i++) {
+                SocketChannel channel = SocketChannel.open(address);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                clients.add(new Client(channel, maxMessage, seeds.split()));
+            }
+        } catch (IOException e) {
+            close();
+            throw new UncheckedIOException("could not connect session " + clients.size(), e);
+        }
+    }
+    
+    /**
+     * Runs a load test from the command line.
+     *
+     * @param args The quantity of sessions, quantity of threads, seconds to run for, level, and host:port
+     *             of the server, all optional
+     */
+    public static void main(String[] args) throws InterruptedException
+    {
+        int qtySessions = (args.length > 0) ? Integer.parseInt(args[0]) : 1000;
+        int threads = (args.length > 1) ? Integer.parseInt(args[1])
+                                        : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        int seconds = (args.length > 2) ? Integer.parseInt(args[2]) : 10;
+        GameLevel level = GameLevel.valueOf(((args.length > 3) ? args[3] : GameLevel.HARD.name()).toUpperCase());
+        
+        GameServer server = null;
+        InetSocketAddress address;
+        if (args.length > 4) {
+            String[] parts = args[4].split(":");
+            address = new InetSocketAddress(parts[0], Integer.parseInt(parts[1]));
+        } else {
+            server = new GameServer(0);
+            final GameServer running = server;
+            Thread serverThread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    running.run();
+                }}, "GameServer");
+            serverThread.setDaemon(true);
+            serverThread.start();
+            address = new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort());
+        }
+        
+        ServerLoadTest test = new ServerLoadTest(address, qtySessions, threads, level);
+        if (server != null) {
+            //Every connection has been made, but the server's thread may not have accepted them all yet.
+            long giveUp = System.nanoTime() + 10000000000L;
+            while (server.getQtySessions() < qtySessions && System.nanoTime() < giveUp) {
+                Thread.sleep(1);
+            }
+            System.out.println("Sessions held by server: " + server.getQtySessions());
+        }
+        test.run(seconds * 1000L);
+        test.printReport(System.out);
+        test.close();
+        if (server != null) {
+            server.close();
+        }
+    }
+    
+    /**
+     * Makes moves on every session for the given time, then waits for every thread to finish its move.
+     *
+     * @param millis How long to run for, in milliseconds
+     */
+    public void run(long millis) throws InterruptedException
+    {
+        final long deadline = System.nanoTime() + (millis * 1000000L);
+        Thread[] threads = new Thread[qtyThreads];
+        long start = System.nanoTime();
+        for (int t = 0; t < threads.length; t++) {
+            final int first = t;
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    play(first, deadline);
+                }}, "ServerLoadTest-" + t);
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        elapsedNanos = System.nanoTime() - start;
+    }
+    
+    /**
+     * The work of one thread: makes a move on each of its sessions in turn until the deadline.
+     *
+     * @param first The index of the thread, which is also of its first session
+     * @param deadline When to stop, by System.nanoTime()
+     */
+    private void play(int first, long deadline)
+    {
+        LatencyHistogram latency = new LatencyHistogram();
+        try {
+            while (System.nanoTime() < deadline) {
+                for (int i = first; i < clients.size(); i += qtyThreads) {
+                    Client client = clients.get(i);
+                    if (!client.inProgress) {
+                        client.newGame(level);
+                        qtyGames.incrementAndGet();
+                        continue;
+                    }
+                    long moveStart = System.nanoTime();
+                    client.move();
+                    latency.record(System.nanoTime() - moveStart);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("session failed", e);
+        } finally {
+            moveLatency.add(latency);
+            for (int i = first; i < clients.size(); i += qtyThreads) {
+                qtyErrors.addAndGet(clients.get(i).qtyErrors);
+            }
+        }
+    }
+    
+    /**
+     * Prints the sessions held, the rate of moves, and the distribution of their latency.
+     *
+     * @param out Where to print the report
+     */
+    public void printReport(PrintStream out)
+    {
+        double seconds = elapsedNanos / 1e9;
+        out.printf("Sessions: %d, threads: %d, level: %s, seconds: %.1f%n", clients.size(), qtyThreads, level,
+            seconds);
+        out.printf("Moves: %d (%.0f per second), games started: %d, errors: %d%n", moveLatency.getTotal(),
+            moveLatency.getTotal() / seconds, qtyGames.get(), qtyErrors.get());
+        moveLatency.print(out, "Move latency");
+    }
+    
+    /**
+     * Closes every session.
+     */
+    public void close()
+    {
+        for (Client client : clients) {
+            try {
+                client.channel.close();
+            } catch (IOException e) {
+                //It is closed as far as we are concerned.
+            }
+        }
+    }
+    
+    /**
+     * One session, with its own copy of the board as the server has described it. Only used by one thread
+     * at a time.
+     */
+    private static class Client
+    {
+        private final SocketChannel channel;
+        private final ByteBuffer in;
+        private final ByteBuffer out;
+        private final SplittableRandom random;
+        private byte[] board = new byte[0];
+        private int width;
+        private boolean inProgress;
+        private long qtyErrors;
+        
+        /**
+         * @param channel The session's connection, in blocking mode
+         * @param maxMessage The size of the largest message the server may send
+         * @param random Where to choose moves from
+         */
+        private Client(SocketChannel channel, int maxMessage, SplittableRandom random)
+        {
+            this.channel = channel;
+            this.random = random;
+            in = ByteBuffer.allocate(4 + maxMessage);
+            in.flip();
+            out = ByteBuffer.allocate(32);
+        }
+        
+        /**
+         * Starts a new game, and waits for its board.
+         *
+         * @param level The level of the game
+         * @throws IOException if the connection fails
+         */
+        private void newGame(GameLevel level) throws IOException
+        {
+            out.clear();
+            out.putInt(2).put(GameServer.NEW_GAME).put((byte)level.ordinal());
+            send();
+        }
+        
+        /**
+         * Reveals a random space which is not revealed, or once in eight moves toggles it instead, and
+         * waits for the answer.
+         *
+         * @throws IOException if the connection fails
+         */
+        private void move() throws IOException
+        {
+            int index = random.nextInt(board.length);
+            //Spaces not yet revealed get rarer as the game goes on, so after a few misses just search.
+            for (int tries = 0; FieldSpace.statusOf(board[index]) == SpaceStatus.REVEALED; tries++) {
+                index = (tries < 8) ? random.nextInt(board.length) : (index + 1) % board.length;
+            }
+            out.clear();
+            out.putInt(9).put((random.nextInt(8) == 0) ? GameServer.TOGGLE : GameServer.REVEAL);
+            out.putInt(index % width).putInt(index / width);
+            send();
+        }
+        
+        /**
+         * Sends the message in the out buffer, then reads the answers to it up to DONE.
+         *
+         * @throws IOException if the connection fails
+         */
+        private void send() throws IOException
+        {
+            out.flip();
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            while (true) {
+                fill(4);
+                int length = in.getInt();
+                fill(length);
+                int end = in.position() + length;
+                byte type = in.get();
+                if (type == GameServer.DONE) {
+                    return;
+                }
+                if (type == GameServer.BOARD) {
+                    width = in.getInt();
+                    int height = in.getInt();
+                    in.getInt();
+                    inProgress = (in.get() & SavedGame.IN_PROGRESS) != 0;
+                    if (board.length != width * height) {
+                        board = new byte[width * height];
+                    }
+                    in.get(board);
+                } else if (type == GameServer.CHANGES) {
+                    int qty = in.getInt();
+                    for (int i = 0; i < qty; i++) {
+                        int index = in.getInt();
+                        board[index] = in.get();
+                    }
+                } else if (type == GameServer.GAME_OVER) {
+                    inProgress = false;
+                } else if (type == GameServer.ERROR) {
+                    qtyErrors++;
+                }
+                in.position(end);
+            }
+        }
+        
+        /**
+         * Reads until at least the given quantity of bytes are waiting to be read.
+         *
+         * @param bytes The quantity of bytes needed
+         * @throws IOException if the connection fails or is closed
+         */
+        private void fill(int bytes) throws IOException
+        {
+            if (in.remaining() >= bytes) {
+                return;
+            }
+            in.compact();
+            while (in.position() < bytes) {
+                if (channel.read(in) < 0) {
+                    throw new EOFException("server closed the session");
+                }
+            }
+            in.flip();
+        }
+    }
+}
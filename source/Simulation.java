@@ -0,0 +1,281 @@
+import java.io.PrintStream;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Plays a great many games of Javasweeper without any user interface, spread over several threads, to
+ * measure how fast the game engine is and how well a MoveStrategy plays.
+ *
+ * Every worker thread has its own strategy object and its own random number generator, split from one
+ * seed, so a run with the same seed, quantity of workers and quantity of games is always the same set
+ * of games. Each game is played until it is won or lost, or until the strategy has made more moves than
+ * could possibly be needed, in which case it is counted as abandoned.
+ *
+ * The report gives the games played per second, the win rate, the average quantity of moves per game
+ * and the distribution of how long the game engine took over each kind of move - the time the strategy
+ * spends choosing its moves is not included.
+ *
+ * Run it from the command line, optionally recording every game to a MoveLog archive:
+ *     java Simulation [level or WIDTHxHEIGHTxMINES] [games] [random|solver] [threads] [seed] [archive]
+ *
+ * @author  Nicholas Parks Young
+ * @version 2026-10-16
+ */
+public class Simulation
+{
+    private final GameLevel level;
+    private final int width, height, quantityOfMines;
+    private final Supplier<MoveStrategy> strategies;
+    private final int qtyWorkers;
+    private final long seed;
+    //Each worker's random number generator is split from this one.
+    private final SplittableRandom master;
+    
+    //The results so far, added to by the workers as they finish.
+    private final AtomicLong qtyGames, qtyWins, qtyAbandoned, qtyMoves;
+    private final LatencyHistogram revealLatency, toggleLatency;
+    private long elapsedNanos;
+    //Where every game is recorded, if anywhere.
+    private MoveLog moveLog;
+
+    /**
+     * Constructor for objects of type Simulation, for one of the preset levels.
+     *
+     * @param level The level to play
+     * @param strategies Makes a new strategy object for each worker
+     * @param qtyWorkers How many threads to play on
+     * @param seed The seed every random choice is made from
+     */
+    public Simulation(GameLevel level, Supplier<MoveStrategy> strategies, int qtyWorkers, long seed)
+    {
+        this(level, level.getFieldWidth(), level.getFieldHeight(), level.getQuantityOfMines(),
+             strategies, qtyWorkers, seed);
+    }
+    
+    /**
+     * Constructor for objects of type Simulation, for custom games.
+     *
+     * @param width The width of the minefield
+     * @param height The height of the minefield
+     * @param quantityOfMines How many mines to hide in the minefield
+     * @param strategies Makes a new strategy object for each worker
+     * @param qtyWorkers How many threads to play on
+     * @param seed The seed every random choice is made from
+     */
+    public Simulation(int width, int height, int quantityOfMines, Supplier<MoveStrategy> strategies,
+                      int qtyWorkers, long seed)
+    {
+        this(GameLevel.CUSTOM, width, height, quantityOfMines, strategies, qtyWorkers, seed);
+    }
+    
+    /**
+     * @param level The level to play
+     * @param width The width of the minefield
+     * @param height The height of the minefield
+     * @param quantityOfMines How many mines to hide in the minefield
+     * @param strategies Makes a new strategy object for each worker
+     * @param qtyWorkers How many threads to play on
+     * @param seed The seed every random choice is made from
+     */
+    private Simulation(GameLevel level, int width, int height, int quantityOfMines,
+                       Supplier<MoveStrategy> strategies, int qtyWorkers, long seed)
+    {
+        if (strategies == null) {
+            throw new IllegalArgumentException("strategies must not be null");
+        }
+        if (qtyWorkers < 1) {
+            throw new IllegalArgumentException("qtyWorkers must be at least one");
+        }
+        this.level = level;
+        this.width = width;
+        this.height = height;
+        this.quantityOfMines = quantityOfMines;
+        this.strategies = strategies;
+        this.qtyWorkers = qtyWorkers;
+        this.seed = seed;
+        master = new SplittableRandom(seed);
+        qtyGames = new AtomicLong();
+        qtyWins = new AtomicLong();
+        qtyAbandoned = new AtomicLong();
+        qtyMoves = new AtomicLong();
+        revealLatency = new LatencyHistogram();
+        toggleLatency = new LatencyHistogram();
+    }
+    
+    /**
+     * Runs a simulation from the command line and prints its report.
+     *
+     * @param args The level or size, games, strategy, threads, seed and archive, all optional
+     */
+    public static void main(String[] args)
+    {
+        String size = (args.length > 0) ? args[0] : GameLevel.HARD.name();
+        long games = (args.length > 1) ? Long.parseLong(args[1]) : 100000;
+        final String strategy = (args.length > 2) ? args[2] : "solver";
+        int threads = (args.length > 3) ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        long seed = (args.length > 4) ? Long.parseLong(args[4]) : System.nanoTime();
+        
+        Supplier<MoveStrategy> strategies = new Supplier<MoveStrategy>() {
+            @Override
+            public MoveStrategy get() {
+                return strategy.equals("random") ? new RandomStrategy() : new SolverStrategy();
+            }};
+        Simulation simulation;
+        if (size.contains("x")) {
+            String[] parts = size.split("x");
+            simulation = new Simulation(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]),
+                                        Integer.parseInt(parts[2]), strategies, threads, seed);
+        } else {
+            simulation = new Simulation(GameLevel.valueOf(size.toUpperCase()), strategies, threads, seed);
+        }
+        MoveLog log = (args.length > 5) ? new MoveLog(Paths.get(args[5])) : null;
+        simulation.setMoveLog(log);
+        simulation.run(games);
+        if (log != null) {
+            log.close();
+        }
+        simulation.printReport(System.out);
+    }
+    
+    /**
+     * Sets where to record every game played from now on. The log is not closed by the simulation.
+     *
+     * @param moveLog The log to record games to, or null not to record them
+     */
+    public void setMoveLog(MoveLog moveLog)
+    {
+        this.moveLog = moveLog;
+    }
+    
+    /**
+     * Plays the given quantity of games, shared between the workers, and waits for them all to finish.
+     * The results are added to those of any previous run.
+     *
+     * @param games How many games to play
+     */
+    public void run(long games)
+    {
+        List<Thread> workers = new ArrayList<Thread>(qtyWorkers);
+        for (int w = 0; w < qtyWorkers; w++) {
+            final SplittableRandom random = master.split();
+            final long share = (games / qtyWorkers) + ((w < games % qtyWorkers) ? 1 : 0);
+            workers.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    play(share, random);
+                }}, "Simulation-" + w));
+        }
+        
+        long start = System.nanoTime();
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        try {
+            for (Thread worker : workers) {
+                worker.join();
+            }
+        } catch (InterruptedException e) {
+            for (Thread worker : workers) {
+                worker.interrupt();
+            }
+            Thread.currentThread().interrupt();
+        }
+        elapsedNanos += System.nanoTime() - start;
+    }
+    
+    /**
+     * The work of one worker thread: plays games, and adds up the results.
+     *
+     * @param games How many games to play
+     * @param random This worker's random number generator
+     */
+    private void play(long games, SplittableRandom random)
+    {
+        MoveStrategy strategy = strategies.get();
+        LatencyHistogram reveals = new LatencyHistogram();
+        LatencyHistogram toggles = new LatencyHistogram();
+        //No sensible strategy needs more than a few moves per space.
+        long maxMoves = 4L * width * height;
+        long wins = 0, abandoned = 0, moves = 0, played = 0;
+        
+        for (; played < games && !Thread.currentThread().isInterrupted(); played++) {
+            Minefield field = new Minefield(width, height, quantityOfMines, random.nextLong());
+            GameLogic game = new GameLogic(level, field);
+            if (moveLog != null) {
+                game.recordTo(moveLog);
+            }
+            strategy.startGame(game, random.split());
+            long gameMoves = 0;
+            while (game.getGameInProgress() && gameMoves < maxMoves) {
+                Move move = strategy.nextMove();
+                long start = System.nanoTime();
+                move.applyTo(game);
+                long nanos = System.nanoTime() - start;
+                (move.isReveal() ? reveals : toggles).record(nanos);
+                gameMoves++;
+            }
+            moves += gameMoves;
+            game.stopRecording();
+            if (game.getGameInProgress()) {
+                abandoned++;
+            } else if (game.getGameWon()) {
+                wins++;
+            }
+        }
+        
+        qtyGames.addAndGet(played);
+        qtyWins.addAndGet(wins);
+        qtyAbandoned.addAndGet(abandoned);
+        qtyMoves.addAndGet(moves);
+        revealLatency.add(reveals);
+        toggleLatency.add(toggles);
+    }
+    
+    /**
+     * Prints the results of every run so far.
+     *
+     * @param out Where to print them
+     */
+    public void printReport(PrintStream out)
+    {
+        long games = qtyGames.get();
+        double seconds = elapsedNanos / 1e9;
+        out.printf("%s %dx%d with %d mines, %d workers, seed %d%n",
+            level, width, height, quantityOfMines, qtyWorkers, seed);
+        out.printf("Games:         %d in %.2f s (%.0f games/s)%n", games, seconds, games / seconds);
+        out.printf("Win rate:      %.2f%% (%d abandoned)%n", 100.0 * qtyWins.get() / Math.max(1, games),
+            qtyAbandoned.get());
+        out.printf("Average moves: %.2f%n", (double)qtyMoves.get() / Math.max(1, games));
+        revealLatency.print(out, "revealAt");
+        toggleLatency.print(out, "toggleStatusOfSquare");
+    }
+    
+    /**
+     * @return How many games have been played
+     */
+    public long getQtyGames()
+    {
+        return qtyGames.get();
+    }
+    
+    /**
+     * @return How many games have been won
+     */
+    public long getQtyWins()
+    {
+        return qtyWins.get();
+    }
+    
+    /**
+     * @return How many moves have been made, in every game
+     */
+    public long getQtyMoves()
+    {
+        return qtyMoves.get();
+    }
+    
+}
@@ -0,0 +1,494 @@
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Works out which hidden spaces of a game are certainly safe and which are certainly mines, using only
+ * what the player can see: the revealed spaces, read through the game's BoardView.
+ *
+ * Every revealed space with a number on it is a constraint: its hidden neighbours contain exactly that
+ * many mines, less any neighbours already known to be mines. Two kinds of deduction are made from these.
+ * The single-space deduction: if a constraint needs no more mines, all its hidden neighbours are safe, and
+ * if it needs as many mines as it has hidden neighbours, they are all mines. The subset deduction, for two
+ * constraints A and B near each other: if B needs as many more mines than A as it has hidden neighbours that
+ * A does not, then those are all mines and A's hidden neighbours that B does not have are all safe.
+ *
+ * The hidden neighbours of a constraint are handled as a bitset over the 7x7 block of spaces around it,
+ * so comparing two constraints is a few bitwise operations. The solver is incremental: it listens to the
+ * game as a GameListener, so update() only reads the spaces that moves have changed since the last update,
+ * and only reconsiders constraints near spaces that have been revealed or deduced since then. So it is
+ * cheap enough to run after every move, however big the minefield.
+ *
+ * Flags and question marks are the player's opinion rather than fact, so they are treated as hidden.
+ * Nothing is ever guessed: a space is only reported if it follows from the revealed spaces.
+ *
+ * Everything deduced assumes that revealed spaces stay revealed, which undoing a move breaks. So when a
+ * move hides spaces again, the solver forgets all it knows, and the next update() works it out afresh
+ * from the spaces still revealed, reading every space as the first update does. Undoing a move which only
+ * changed flags or question marks costs nothing, as the solver does not use them.
+ *
+ * @author  Nicholas Parks Young
+ * @version 2026-10-16
+ */
+public class Solver implements GameListener
+{
+    //What the solver knows about each space.
+    protected static final byte UNKNOWN = 0;
+    protected static final byte SAFE = 1;
+    protected static final byte MINE = 2;
+    protected static final byte REVEALED = 3;
+    
+    //Spaces are placed in a block of FRAME x FRAME spaces around a constraint, as bit (dy + 3) * FRAME + (dx + 3).
+    private static final int FRAME = 7;
+    
+    private final GameLogic game;
+    private final BoardView board;
+    private final int width, height;
+    private final byte[] knowledge;
+    private final byte[] qtyNeighbourMines;
+    //Constraints waiting to be reconsidered, with a bitset to stop them being queued twice.
+    private int[] queue;
+    private int head, tail;
+    private final long[] queued;
+    private int qtySafe, qtyMines;
+    //Spaces changed by moves since the last update. Until the first update, or once more spaces have
+    //changed than are worth listing, every space is read instead.
+    private int[] changed;
+    private int qtyChanged;
+    private boolean readAll;
+    //Set when a move has hidden spaces again, so that all that was deduced from them is forgotten.
+    private boolean forgetAll;
+    private int lastUnrevealed;
+    
+    /**
+     * Constructor for objects of type Solver. Call update() to make the first deductions.
+     *
+     * @param game The game to work out safe and mined spaces for
+     */
+    public Solver(GameLogic game)
+    {
+        if (game == null) {
+            throw new IllegalArgumentException("game must not be null");
+        }
+        this.game = game;
+        board = game.getBoardView();
+        width = game.getWidth();
+        height = game.getHeight();
+        knowledge = new byte[width * height];
+        qtyNeighbourMines = new byte[width * height];
+        queue = new int[64];
+        queued = new long[((width * height) + 63) >>> 6];
+        qtySafe = 0;
+        qtyMines = 0;
+        changed = new int[64];
+        qtyChanged = 0;
+        readAll = true;
+        forgetAll = false;
+        lastUnrevealed = game.getQtyUnrevealed();
+        game.addGameListener(this);
+    }
+    
+    /**
+     * Reads any spaces that have been revealed since the last update, and makes every deduction that
+     * follows from them. If a move has been undone since, starts again from the spaces still revealed.
+     */
+    public void update()
+    {
+        if (forgetAll) {
+            Arrays.fill(knowledge, UNKNOWN);
+            qtySafe = 0;
+            qtyMines = 0;
+            forgetAll = false;
+            readAll = true;
+        }
+        if (readAll) {
+            for (int i = 0; i < knowledge.length; i++) {
+                read(i);
+            }
+            readAll = false;
+        } else {
+            for (int i = 0; i < qtyChanged; i++) {
+                read(changed[i]);
+            }
+        }
+        qtyChanged = 0;
+        
+        while (head < tail) {
+            int index = queue[head++];
+            queued[index >>> 6] &= ~(1L << index);
+            deduceFrom(index);
+        }
+        head = 0;
+        tail = 0;
+    }
+    
+    @Override
+    public void spacesChanged(GameLogic game, int[] indices, int qtyChanged)
+    {
+        if (readAll || forgetAll) {
+            return;
+        }
+        //Past a quarter of the minefield, reading every space is about as quick as reading the list.
+        if (this.qtyChanged + qtyChanged > knowledge.length / 4) {
+            readAll = true;
+            this.qtyChanged = 0;
+            return;
+        }
+        if (this.qtyChanged + qtyChanged > changed.length) {
+            int[] bigger = new int[Math.max(changed.length * 2, this.qtyChanged + qtyChanged)];
+            System.arraycopy(changed, 0, bigger, 0, this.qtyChanged);
+            changed = bigger;
+        }
+        System.arraycopy(indices, 0, changed, this.qtyChanged, qtyChanged);
+        this.qtyChanged += qtyChanged;
+    }
+    
+    @Override
+    public void countersChanged(GameLogic game)
+    {
+        //Only undoing a move can make more spaces unrevealed than before.
+        int unrevealed = game.getQtyUnrevealed();
+        if (unrevealed > lastUnrevealed) {
+            forgetAll = true;
+            qtyChanged = 0;
+        }
+        lastUnrevealed = unrevealed;
+    }
+    
+    @Override
+    public void gameWon(GameLogic game)
+    {
+    }
+    
+    @Override
+    public void gameLost(GameLogic game)
+    {
+    }
+    
+    /**
+     * @param x The x-coordinate of a space
+     * @param y The y-coordinate of a space
+     * @return True if the space at X,Y is hidden and certainly not a mine
+     */
+    public boolean isKnownSafe(int x, int y)
+    {
+        return knowledge[indexOf(x, y)] == SAFE;
+    }
+    
+    /**
+     * @param x The x-coordinate of a space
+     * @param y The y-coordinate of a space
+     * @return True if the space at X,Y is certainly a mine
+     */
+    public boolean isKnownMine(int x, int y)
+    {
+        return knowledge[indexOf(x, y)] == MINE;
+    }
+    
+    /**
+     * @param x The x-coordinate of a space
+     * @param y The y-coordinate of a space
+     * @return The index of the space at X,Y
+     * @throws IndexOutOfBoundsException if X,Y is not in the minefield
+     */
+    private int indexOf(int x, int y)
+    {
+        if (!game.validLocation(x, y)) {
+            throw new IndexOutOfBoundsException("location specified is outside of minefield");
+        }
+        return (y * width) + x;
+    }
+    
+    /**
+     * @param index The index of a space
+     * @return What is known about the space at index: UNKNOWN, SAFE, MINE or REVEALED
+     */
+    protected byte getKnowledge(int index)
+    {
+        return knowledge[index];
+    }
+    
+    /**
+     * @param index The index of a space which is known to be REVEALED
+     * @return The quantity of mines neighbouring that space
+     */
+    protected int getQtyNeighbourMines(int index)
+    {
+        return qtyNeighbourMines[index];
+    }
+    
+    /**
+     * @return The quantity of hidden spaces known to be safe
+     */
+    public int getQtyKnownSafe()
+    {
+        return qtySafe;
+    }
+    
+    /**
+     * @return The quantity of spaces known to be mines
+     */
+    public int getQtyKnownMines()
+    {
+        return qtyMines;
+    }
+    
+    /**
+     * @return The locations of every hidden space known to be safe, as of the last update
+     */
+    public Set<Location> getSafeLocations()
+    {
+        return locationsOf(SAFE);
+    }
+    
+    /**
+     * @return The locations of every space known to be a mine, as of the last update
+     */
+    public Set<Location> getMineLocations()
+    {
+        return locationsOf(MINE);
+    }
+    
+    /**
+     * @param kind What the spaces should be known to be
+     * @return The locations of every space known to be that
+     */
+    private Set<Location> locationsOf(byte kind)
+    {
+        Set<Location> locations = new LinkedHashSet<Location>();
+        for (int i = 0; i < knowledge.length; i++) {
+            if (knowledge[i] == kind) {
+                locations.add(new Location(i % width, i / width));
+            }
+        }
+        return locations;
+    }
+    
+    /**
+     * Reads one space, and if it has been revealed since it was last read, queues the constraints it
+     * affects.
+     *
+     * @param index The index of the space
+     */
+    private void read(int index)
+    {
+        if (knowledge[index] == REVEALED) {
+            return;
+        }
+        int visible = board.getVisibleAt(index);
+        if (FieldSpace.statusOf(visible) != SpaceStatus.REVEALED) {
+            return;
+        }
+        if (FieldSpace.mineOf(visible)) {
+            //The game has been lost, so this is no longer in doubt.
+            if (knowledge[index] != MINE) {
+                setKnowledge(index, MINE);
+            }
+            return;
+        }
+        if (knowledge[index] == SAFE) {
+            qtySafe--;
+        }
+        knowledge[index] = REVEALED;
+        qtyNeighbourMines[index] = (byte)FieldSpace.qtyNeighbourMinesOf(visible);
+        enqueue(index);
+        enqueueNeighbours(index % width, index / width);
+    }
+    
+    /**
+     * Makes every deduction that can be made from one constraint, alone and together with each nearby
+     * constraint.
+     *
+     * @param index The index of a revealed space
+     */
+    private void deduceFrom(int index)
+    {
+        int x = index % width, y = index / width;
+        long unknownA = unknownNeighbours(x, y, 0, 0);
+        if (unknownA == 0) {
+            return;
+        }
+        int minesA = minesNeeded(x, y);
+        int qtyUnknownA = Long.bitCount(unknownA);
+        if (minesA == 0) {
+            setAll(x, y, unknownA, SAFE);
+            return;
+        }
+        if (minesA == qtyUnknownA) {
+            setAll(x, y, unknownA, MINE);
+            return;
+        }
+        
+        //Only constraints up to two spaces away can share a hidden neighbour with this one.
+        for (int dy = -2; dy <= 2; dy++) {
+            for (int dx = -2; dx <= 2; dx++) {
+                int otherX = x + dx, otherY = y + dy;
+                if ((dx == 0 && dy == 0) || otherX < 0 || otherY < 0 || otherX >= width || otherY >= height
+                    || knowledge[(otherY * width) + otherX] != REVEALED) {
+                    continue;
+                }
+                long unknownB = unknownNeighbours(otherX, otherY, dx, dy);
+                if ((unknownA & unknownB) == 0) {
+                    continue;
+                }
+                int minesB = minesNeeded(otherX, otherY);
+                if (pairDeduction(x, y, unknownA, minesA, unknownB, minesB)
+                    || pairDeduction(x, y, unknownB, minesB, unknownA, minesA)) {
+                    //The spaces deduced need not be neighbours of this constraint, so it is not always
+                    //queued again by setAll(); queue it so that its other pairs are still considered.
+                    enqueue(index);
+                    return;
+                }
+            }
+        }
+    }
+    
+    /**
+     * The subset deduction: if B needs as many more mines than A as it has unknown neighbours A does not
+     * have, those are all mines, and A's unknown neighbours that B does not have are all safe.
+     *
+     * @param x The x-coordinate of the space the bitsets are relative to
+     * @param y The y-coordinate of the space the bitsets are relative to
+     * @param unknownA The unknown neighbours of A
+     * @param minesA The quantity of mines A still needs
+     * @param unknownB The unknown neighbours of B
+     * @param minesB The quantity of mines B still needs
+     * @return True if anything was deduced
+     */
+    private boolean pairDeduction(int x, int y, long unknownA, int minesA, long unknownB, int minesB)
+    {
+        long onlyB = unknownB & ~unknownA;
+        long onlyA = unknownA & ~unknownB;
+        if ((onlyA | onlyB) == 0 || minesB - minesA != Long.bitCount(onlyB)) {
+            return false;
+        }
+        setAll(x, y, onlyB, MINE);
+        setAll(x, y, onlyA, SAFE);
+        return true;
+    }
+    
+    /**
+     * @param x The x-coordinate of a revealed space
+     * @param y The y-coordinate of a revealed space
+     * @return The quantity of mines among its unknown neighbours
+     */
+    private int minesNeeded(int x, int y)
+    {
+        int mines = qtyNeighbourMines[(y * width) + x];
+        for (int dy = -1; dy <= 1; dy++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                int neighbourX = x + dx, neighbourY = y + dy;
+                if (neighbourX >= 0 && neighbourY >= 0 && neighbourX < width && neighbourY < height
+                    && knowledge[(neighbourY * width) + neighbourX] == MINE) {
+                    mines--;
+                }
+            }
+        }
+        return mines;
+    }
+    
+    /**
+     * @param x The x-coordinate of a space
+     * @param y The y-coordinate of a space
+     * @param offsetX The x-offset of that space from the centre of the frame
+     * @param offsetY The y-offset of that space from the centre of the frame
+     * @return A bitset, within the frame, of the space's neighbours whose nature is unknown
+     */
+    private long unknownNeighbours(int x, int y, int offsetX, int offsetY)
+    {
+        long bits = 0;
+        for (int dy = -1; dy <= 1; dy++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                int neighbourX = x + dx, neighbourY = y + dy;
+                if ((dx != 0 || dy != 0) && neighbourX >= 0 && neighbourY >= 0 && neighbourX < width
+                    && neighbourY < height && knowledge[(neighbourY * width) + neighbourX] == UNKNOWN) {
+                    bits |= 1L << (((offsetY + dy + 3) * FRAME) + (offsetX + dx + 3));
+                }
+            }
+        }
+        return bits;
+    }
+    
+    /**
+     * Records that every space in a bitset is safe, or is a mine.
+     *
+     * @param x The x-coordinate of the centre of the frame
+     * @param y The y-coordinate of the centre of the frame
+     * @param bits The spaces, as a bitset within the frame
+     * @param kind SAFE or MINE
+     */
+    private void setAll(int x, int y, long bits, byte kind)
+    {
+        while (bits != 0) {
+            int bit = Long.numberOfTrailingZeros(bits);
+            bits &= bits - 1;
+            int spaceX = x + (bit % FRAME) - 3;
+            int spaceY = y + (bit / FRAME) - 3;
+            setKnowledge((spaceY * width) + spaceX, kind);
+        }
+    }
+    
+    /**
+     * Records what an unknown space is, and queues every constraint it takes part in to be reconsidered.
+     *
+     * @param index The index of the space
+     * @param kind SAFE or MINE
+     */
+    private void setKnowledge(int index, byte kind)
+    {
+        if (knowledge[index] == SAFE) {
+            qtySafe--;
+        }
+        knowledge[index] = kind;
+        if (kind == SAFE) {
+            qtySafe++;
+        } else {
+            qtyMines++;
+        }
+        enqueueNeighbours(index % width, index / width);
+    }
+    
+    /**
+     * Queues every revealed neighbour of a space to be reconsidered.
+     *
+     * @param x The x-coordinate of the space
+     * @param y The y-coordinate of the space
+     */
+    private void enqueueNeighbours(int x, int y)
+    {
+        for (int dy = -1; dy <= 1; dy++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                int neighbourX = x + dx, neighbourY = y + dy;
+                if ((dx != 0 || dy != 0) && neighbourX >= 0 && neighbourY >= 0 && neighbourX < width
+                    && neighbourY < height && knowledge[(neighbourY * width) + neighbourX] == REVEALED) {
+                    enqueue((neighbourY * width) + neighbourX);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Queues a revealed space to be reconsidered, unless it is already queued.
+     *
+     * @param index The index of the space
+     */
+    private void enqueue(int index)
+    {
+        if ((queued[index >>> 6] & (1L << index)) != 0) {
+            return;
+        }
+        queued[index >>> 6] |= 1L << index;
+        if (tail == queue.length) {
+            //Reuse the part of the queue already processed before growing it.
+            System.arraycopy(queue, head, queue, 0, tail - head);
+            tail -= head;
+            head = 0;
+            if (tail == queue.length) {
+                int[] bigger = new int[queue.length * 2];
+                System.arraycopy(queue, 0, bigger, 0, tail);
+                queue = bigger;
+            }
+        }
+        queue[tail++] = index;
+    }
+}
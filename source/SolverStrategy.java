@@ -0,0 +1,65 @@
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.SplittableRandom;
+
+/**
+ * A strategy which reveals every space the Solver can prove is safe, and when there are none, reveals
+ * the space the ProbabilityCalculator finds least likely to be a mine.
+ *
+ * @author  Nicholas Parks Young
+ * @version 2026-10-16
+ */
+public class SolverStrategy implements MoveStrategy
+{
+    private GameLogic game;
+    private Solver solver;
+    private ProbabilityCalculator calculator;
+    //Spaces known to be safe which have not been revealed yet.
+    private final Deque<Location> safe = new ArrayDeque<Location>();
+    
+    @Override
+    public void startGame(GameLogic game, SplittableRandom random)
+    {
+        this.game = game;
+        solver = new Solver(game);
+        //Only needed when the solver gets stuck, which on easy minefields may be never.
+        calculator = null;
+        safe.clear();
+    }
+    
+    @Override
+    public Move nextMove()
+    {
+        Move move = nextSafeMove();
+        if (move == null) {
+            solver.update();
+            safe.addAll(solver.getSafeLocations());
+            move = nextSafeMove();
+        }
+        if (move != null) {
+            return move;
+        }
+        
+        if (calculator == null) {
+            calculator = new ProbabilityCalculator(game);
+        }
+        calculator.calculate();
+        Location safest = calculator.getSafestLocation();
+        return Move.reveal(safest.getX(), safest.getY());
+    }
+    
+    /**
+     * @return A move revealing a space known to be safe, or null if there are none left
+     */
+    private Move nextSafeMove()
+    {
+        while (!safe.isEmpty()) {
+            Location location = safe.poll();
+            //A space may have been revealed since, by a cascade from another.
+            if (game.getSquareAt(location).getStatus() != SpaceStatus.REVEALED) {
+                return Move.reveal(location.getX(), location.getY());
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,18 @@
+/**
+ * Told about every change of status of a space in a Minefield, as it happens - for example, to keep a
+ * journal of changes for saving. It is called in the middle of moves, so it should do very little.
+ *
+ * @author  Nicholas Parks Young
+ * @version 2026-10-16
+ */
+public interface SpaceChangeListener
+{
+    /**
+     * Called once for each change of status.
+     *
+     * @param index The index of the space which changed
+     * @param oldStatus The status it had before
+     * @param newStatus The status it has now
+     */
+    void spaceChanged(int index, SpaceStatus oldStatus, SpaceStatus newStatus);
+}
@@ -5,11 +5,29 @@
  * player has yet to reveal, and also cannot modify the state of the squares directly - it must go
  * through the GameLogic class.
  * 
+ * There are only a few distinct squares, so there is only one instance of each, which valueOf() returns:
+ * one for each status of a square not yet revealed, whose mine and quantity of neighbouring mines are
+ * not kept at all, and one for each combination of mine and quantity of neighbouring mines of a revealed
+ * square. So fetching a Square never allocates, and squares can be compared with ==.
+ * 
  * @author  Nicholas Parks Young
- * @version 2015-04-02
+ * @version 2026-10-16
  */
 public final class Square
 {
+    //Every square, indexed by the packed byte of a space (see FieldSpace) as FieldSpace.visibleOf() gives it.
+    private static final Square[] SQUARES =
+        new Square[(FieldSpace.MINE_BIT | FieldSpace.STATUS_MASK | FieldSpace.COUNT_MASK) + 1];
+    
+    static {
+        for (int packed = 0; packed < SQUARES.length; packed++) {
+            if (FieldSpace.visibleOf(packed) == packed && FieldSpace.qtyNeighbourMinesOf(packed) <= 8) {
+                SQUARES[packed] = new Square(FieldSpace.mineOf(packed), FieldSpace.qtyNeighbourMinesOf(packed),
+                                             FieldSpace.statusOf(packed));
+            }
+        }
+    }
+    
     private final SpaceStatus status;
     private final boolean mine;
     private final short qtyNeighbours;
@@ -22,13 +40,44 @@ public final class Square
      * @param qtyOfNeighbours the number of mines neighbouring this square
      * @param status the status of the square - e.g. REVEALED, HIDDEN etc
      */
-    public Square(boolean isMine, short qtyOfNeighbours, SpaceStatus status)
+    private Square(boolean isMine, short qtyOfNeighbours, SpaceStatus status)
     {
         this.mine = isMine;
         this.qtyNeighbours = qtyOfNeighbours;
         this.status = status;
     }
     
+    /**
+     * Returns the Square with the given values. If the status is not REVEALED, the other values are
+     * ignored, since they cannot be read anyway.
+     * 
+     * @param isMine True if this square is a mine
+     * @param qtyOfNeighbours the number of mines neighbouring this square, from 0 to 8
+     * @param status the status of the square - e.g. REVEALED, HIDDEN etc
+     * @return The one Square with those values
+     * @throws IllegalArgumentException if status is null, or qtyOfNeighbours is out of range
+     */
+    public static Square valueOf(boolean isMine, short qtyOfNeighbours, SpaceStatus status)
+    {
+        if (status == null) {
+            throw new IllegalArgumentException("status must not be null");
+        }
+        if (qtyOfNeighbours < 0 || qtyOfNeighbours > 8) {
+            throw new IllegalArgumentException("qtyOfNeighbours must be between 0 and 8");
+        }
+        return ofPacked((isMine ? FieldSpace.MINE_BIT : 0) | (qtyOfNeighbours << FieldSpace.COUNT_SHIFT)
+                        | FieldSpace.withStatus(0, status));
+    }
+    
+    /**
+     * @param packed The packed byte of a space (see FieldSpace)
+     * @return The Square describing that space
+     */
+    protected static Square ofPacked(int packed)
+    {
+        return SQUARES[FieldSpace.visibleOf(packed)];
+    }
+    
     /**
      * @return The status of this square
      */
@@ -0,0 +1,197 @@
+import java.util.function.IntConsumer;
+
+/**
+ * Keeps track of which spaces of a Minefield are stale - i.e. have changed since they were last
+ * collected by whoever is displaying or otherwise consuming the minefield.
+ *
+ * There is one bit per space, stored row-major like the Minefield itself, and one summary bit per
+ * tile of TILE_SIZE x TILE_SIZE spaces which is set if any space in that tile is stale. Collecting
+ * the stale spaces only looks at the tiles whose summary bit is set, so it costs time in proportion
+ * to how much has changed rather than to the size of the minefield, and it allocates nothing: the
+ * stale spaces are handed over one index at a time, or one rectangle per tile.
+ *
+ * @author  Nicholas Parks Young
+ * @version 2026-10-16
+ */
+public class StaleSpaces
+{
+    //Tiles are TILE_SIZE spaces wide and high.
+    private static final int TILE_SHIFT = 4;
+    protected static final int TILE_SIZE = 1 << TILE_SHIFT;
+    
+    private final int width, height;
+    private final int tilesAcross;
+    private final long[] spaces;
+    private final long[] tiles;
+    private int qtyStaleTiles;
+    
+    /**
+     * Constructor for objects of type StaleSpaces. Initially every space is stale.
+     *
+     * @param width The width of the minefield
+     * @param height The height of the minefield
+     */
+    protected StaleSpaces(int width, int height)
+    {
+        this.width = width;
+        this.height = height;
+        tilesAcross = (width + TILE_SIZE - 1) >>> TILE_SHIFT;
+        int tilesDown = (height + TILE_SIZE - 1) >>> TILE_SHIFT;
+        spaces = new long[(int)(((long)width * height + 63) >>> 6)];
+        tiles = new long[(int)(((long)tilesAcross * tilesDown + 63) >>> 6)];
+        markAll();
+    }
+    
+    /**
+     * Marks every space as stale.
+     */
+    protected void markAll()
+    {
+        fillBits(spaces, (long)width * height);
+        long qtyTiles = (long)tilesAcross * ((height + TILE_SIZE - 1) >>> TILE_SHIFT);
+        fillBits(tiles, qtyTiles);
+        qtyStaleTiles = (int)qtyTiles;
+    }
+    
+    /**
+     * Sets the first qty bits of a bitset, and clears the rest.
+     *
+     * @param bits The bitset
+     * @param qty The quantity of bits to set
+     */
+    private static void fillBits(long[] bits, long qty)
+    {
+        for (int i = 0; i < bits.length; i++) {
+            long remaining = qty - ((long)i << 6);
+            if (remaining >= 64) {
+                bits[i] = -1L;
+            } else if (remaining > 0) {
+                bits[i] = -1L >>> (64 - remaining);
+            } else {
+                bits[i] = 0;
+            }
+        }
+    }
+    
+    /**
+     * Marks the space at index as stale.
+     *
+     * @param index The index of the space
+     */
+    protected void mark(int index)
+    {
+        spaces[index >>> 6] |= 1L << index;
+        int tile = tileOf(index % width, index / width);
+        long bit = 1L << tile;
+        if ((tiles[tile >>> 6] & bit) == 0) {
+            tiles[tile >>> 6] |= bit;
+            qtyStaleTiles++;
+        }
+    }
+    
+    /**
+     * @param index The index of the space
+     * @return True if the space at index is stale
+     */
+    protected boolean isStale(int index)
+    {
+        return (spaces[index >>> 6] & (1L << index)) != 0;
+    }
+    
+    /**
+     * Marks the space at index as no longer stale. The tile's summary bit is left alone, so it may
+     * end up set when none of its spaces are stale; that only costs a little time when next collecting.
+     *
+     * @param index The index of the space
+     */
+    protected void reset(int index)
+    {
+        spaces[index >>> 6] &= ~(1L << index);
+    }
+    
+    /**
+     * @return True if no space is stale
+     */
+    protected boolean isEmpty()
+    {
+        return qtyStaleTiles == 0;
+    }
+    
+    /**
+     * Hands the index of every stale space to the consumer, and marks them as no longer stale.
+     * Indices are handed over one tile at a time, and row-major within each tile.
+     *
+     * @param consumer The consumer of the stale indices
+     */
+    protected void drainIndices(IntConsumer consumer)
+    {
+        for (int word = 0; word < tiles.length && qtyStaleTiles > 0; word++) {
+            while (tiles[word] != 0) {
+                int tile = (word << 6) + Long.numberOfTrailingZeros(tiles[word]);
+                tiles[word] &= tiles[word] - 1;
+                qtyStaleTiles--;
+                
+                int firstX = (tile % tilesAcross) << TILE_SHIFT;
+                int firstY = (tile / tilesAcross) << TILE_SHIFT;
+                int lastX = Math.min(width, firstX + TILE_SIZE);
+                int lastY = Math.min(height, firstY + TILE_SIZE);
+                for (int y = firstY; y < lastY; y++) {
+                    for (int index = (y * width) + firstX; index < (y * width) + lastX; index++) {
+                        if (isStale(index)) {
+                            reset(index);
+                            consumer.accept(index);
+                        }
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Hands one rectangle per tile to the consumer, which is the smallest rectangle containing all of the
+     * tile's stale spaces, and marks those spaces as no longer stale. Tiles with no stale spaces are skipped.
+     *
+     * @param consumer The consumer of the stale rectangles
+     */
+    protected void drainRegions(RegionConsumer consumer)
+    {
+        for (int word = 0; word < tiles.length && qtyStaleTiles > 0; word++) {
+            while (tiles[word] != 0) {
+                int tile = (word << 6) + Long.numberOfTrailingZeros(tiles[word]);
+                tiles[word] &= tiles[word] - 1;
+                qtyStaleTiles--;
+                
+                int firstX = (tile % tilesAcross) << TILE_SHIFT;
+                int firstY = (tile / tilesAcross) << TILE_SHIFT;
+                int lastX = Math.min(width, firstX + TILE_SIZE);
+                int lastY = Math.min(height, firstY + TILE_SIZE);
+                int left = Integer.MAX_VALUE, top = Integer.MAX_VALUE, right = -1, bottom = -1;
+                for (int y = firstY; y < lastY; y++) {
+                    for (int x = firstX; x < lastX; x++) {
+                        int index = (y * width) + x;
+                        if (isStale(index)) {
+                            reset(index);
+                            left = Math.min(left, x);
+                            right = Math.max(right, x);
+                            top = Math.min(top, y);
+                            bottom = y;
+                        }
+                    }
+                }
+                if (right >= 0) {
+                    consumer.accept(left, top, right - left + 1, bottom - top + 1);
+                }
+            }
+        }
+    }
+    
+    /**
+     * @param x The x-coordinate of a space
+     * @param y The y-coordinate of a space
+     * @return The index of the tile containing that space
+     */
+    private int tileOf(int x, int y)
+    {
+        return ((y >>> TILE_SHIFT) * tilesAcross) + (x >>> TILE_SHIFT);
+    }
+}
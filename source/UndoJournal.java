@@ -0,0 +1,251 @@
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * A record of the moves made in a game, so that they can be undone and redone.
+ *
+ * Each move is recorded as the list of spaces it changed, with the status each had before and after,
+ * rather than as a copy of the minefield - so a move which toggles one flag costs a few bytes, and even a
+ * cascade which reveals a hundred thousand spaces costs five bytes per space. Undoing a move puts each
+ * space back to its old status through the minefield, which keeps MinefieldStats and any other listeners
+ * up to date as usual; redoing it sets the new statuses again, with no need to repeat the flood fill.
+ *
+ * The journal holds at most a given quantity of changed spaces, between all its moves; when it is full,
+ * the oldest moves are forgotten, and can no longer be undone.
+ *
+ * @author  Nicholas Parks Young
+ * @version 2026-10-16
+ */
+public class UndoJournal implements SpaceChangeListener
+{
+    //The default quantity of changed spaces to remember.
+    public static final int DEFAULT_LIMIT = 1 << 20;
+    //Bits of the game state before and after each move.
+    protected static final int IN_PROGRESS = 1;
+    protected static final int WON = 2;
+    
+    private static final SpaceStatus[] STATUSES = SpaceStatus.values();
+    
+    private final Minefield field;
+    private final Deque<Action> undoable, redoable;
+    private int limit;
+    //The quantity of changed spaces recorded in every action on both stacks.
+    private long qtySpaces;
+    
+    //The move being recorded, if any.
+    private boolean recording;
+    private int[] indices;
+    private byte[] statuses;
+    private int qtyChanged;
+    private int stateBefore;
+    
+    /**
+     * Constructor for objects of type UndoJournal. It records nothing until beginMove() is called.
+     *
+     * @param field The minefield whose changes are to be recorded
+     * @param limit The most changed spaces to remember, between all moves
+     */
+    protected UndoJournal(Minefield field, int limit)
+    {
+        this.field = field;
+        undoable = new ArrayDeque<Action>();
+        redoable = new ArrayDeque<Action>();
+        indices = new int[64];
+        statuses = new byte[64];
+        setLimit(limit);
+        field.addChangeListener(this);
+    }
+    
+    /**
+     * Changes the most changed spaces to remember, forgetting the oldest moves if there are now too many.
+     *
+     * @param limit The most changed spaces to remember, between all moves
+     */
+    protected void setLimit(int limit)
+    {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be at least one");
+        }
+        this.limit = limit;
+        trim();
+    }
+    
+    /**
+     * Stops recording changes to the minefield, and forgets every move.
+     */
+    protected void detach()
+    {
+        field.removeChangeListener(this);
+        undoable.clear();
+        redoable.clear();
+        qtySpaces = 0;
+    }
+    
+    /**
+     * Starts recording a move.
+     *
+     * @param state IN_PROGRESS and WON, as appropriate for the game before the move
+     */
+    protected void beginMove(int state)
+    {
+        recording = true;
+        qtyChanged = 0;
+        stateBefore = state;
+    }
+    
+    /**
+     * Records a change of status, if a move is being recorded.
+     *
+     * @param index The index of the space which changed
+     * @param oldStatus The status it had before
+     * @param newStatus The status it has now
+     */
+    @Override
+    public void spaceChanged(int index, SpaceStatus oldStatus, SpaceStatus newStatus)
+    {
+        if (!recording) {
+            return;
+        }
+        if (qtyChanged == indices.length) {
+            int[] biggerIndices = new int[indices.length * 2];
+            byte[] biggerStatuses = new byte[indices.length * 2];
+            System.arraycopy(indices, 0, biggerIndices, 0, qtyChanged);
+            System.arraycopy(statuses, 0, biggerStatuses, 0, qtyChanged);
+            indices = biggerIndices;
+            statuses = biggerStatuses;
+        }
+        indices[qtyChanged] = index;
+        statuses[qtyChanged] = (byte)((oldStatus.ordinal() << 2) | newStatus.ordinal());
+        qtyChanged++;
+    }
+    
+    /**
+     * Finishes recording a move. A move which changed nothing is not remembered. Any moves that were
+     * undone can no longer be redone.
+     *
+     * @param state IN_PROGRESS and WON, as appropriate for the game after the move
+     */
+    protected void endMove(int state)
+    {
+        recording = false;
+        if (qtyChanged == 0 && state == stateBefore) {
+            return;
+        }
+        for (Action action : redoable) {
+            qtySpaces -= action.indices.length;
+        }
+        redoable.clear();
+        
+        int[] actionIndices = new int[qtyChanged];
+        byte[] actionStatuses = new byte[qtyChanged];
+        System.arraycopy(indices, 0, actionIndices, 0, qtyChanged);
+        System.arraycopy(statuses, 0, actionStatuses, 0, qtyChanged);
+        undoable.push(new Action(actionIndices, actionStatuses, stateBefore, state));
+        qtySpaces += qtyChanged;
+        //Don't hang on to the scratch space for a huge move.
+        if (indices.length > 4096) {
+            indices = new int[64];
+            statuses = new byte[64];
+        }
+        trim();
+    }
+    
+    /**
+     * Forgets the oldest moves until no more than the limit of changed spaces is remembered.
+     */
+    private void trim()
+    {
+        while (qtySpaces > limit && !undoable.isEmpty()) {
+            qtySpaces -= undoable.removeLast().indices.length;
+        }
+        while (qtySpaces > limit && !redoable.isEmpty()) {
+            qtySpaces -= redoable.removeLast().indices.length;
+        }
+    }
+    
+    /**
+     * Undoes the latest move that has not been undone, putting every space it changed back to its old status.
+     *
+     * @return IN_PROGRESS and WON, as appropriate for the game before the move, or -1 if there was no move
+     */
+    protected int undo()
+    {
+        Action action = undoable.poll();
+        if (action == null) {
+            return -1;
+        }
+        //In reverse order, in case a space was changed more than once.
+        for (int i = action.indices.length - 1; i >= 0; i--) {
+            field.setStatus(action.indices[i], STATUSES[action.statuses[i] >>> 2]);
+        }
+        redoable.push(action);
+        return action.stateBefore;
+    }
+    
+    /**
+     * Redoes the latest move that was undone, giving every space it changed its new status again.
+     *
+     * @return IN_PROGRESS and WON, as appropriate for the game after the move, or -1 if there was no move
+     */
+    protected int redo()
+    {
+        Action action = redoable.poll();
+        if (action == null) {
+            return -1;
+        }
+        for (int i = 0; i < action.indices.length; i++) {
+            field.setStatus(action.indices[i], STATUSES[action.statuses[i] & 0x03]);
+        }
+        undoable.push(action);
+        return action.stateAfter;
+    }
+    
+    /**
+     * @return True if there is a move that can be undone
+     */
+    protected boolean canUndo()
+    {
+        return !undoable.isEmpty();
+    }
+    
+    /**
+     * @return True if there is a move that can be redone
+     */
+    protected boolean canRedo()
+    {
+        return !redoable.isEmpty();
+    }
+    
+    /**
+     * @return The quantity of changed spaces remembered, between all moves
+     */
+    protected long getQtySpaces()
+    {
+        return qtySpaces;
+    }
+    
+    /**
+     * The changes made by one move: the index of each space changed, its status before and after packed
+     * into a byte, and the state of the game before and after.
+     */
+    private static class Action
+    {
+        private final int[] indices;
+        private final byte[] statuses;
+        private final int stateBefore, stateAfter;
+        
+        /**
+         * @param indices The index of each space changed
+         * @param statuses The old status ordinal of each space, shifted left by two, and its new status ordinal
+         * @param stateBefore IN_PROGRESS and WON, as appropriate for the game before the move
+         * @param stateAfter IN_PROGRESS and WON, as appropriate for the game after the move
+         */
+        private Action(int[] indices, byte[] statuses, int stateBefore, int stateAfter)
+        {
+            this.indices = indices;
+            this.statuses = statuses;
+            this.stateBefore = stateBefore;
+            this.stateAfter = stateAfter;
+        }
+    }
+}